@@ -0,0 +1,115 @@
+package es.upm.pproject.sokoban.benchmark;
+
+import java.io.IOException;
+
+import es.upm.pproject.sokoban.exceptions.InvalidLevelException;
+import es.upm.pproject.sokoban.model.Box;
+import es.upm.pproject.sokoban.model.Direction;
+import es.upm.pproject.sokoban.model.Entity;
+import es.upm.pproject.sokoban.model.FloorTile;
+import es.upm.pproject.sokoban.model.Level;
+import es.upm.pproject.sokoban.model.LevelParser;
+import es.upm.pproject.sokoban.model.Player;
+import es.upm.pproject.sokoban.model.Tile;
+
+/**
+ * Levels the benchmarks run on: the six shipped levels and two large
+ * synthetic rooms, {@code large-64.txt} and {@code large-256.txt}, found in
+ * the benchmark resources. Every benchmark takes the level file as its
+ * {@code level} parameter.
+ */
+public final class Boards {
+
+    private Boards() {
+    }
+
+    /**
+     * Parses a level file.
+     *
+     * @param name the resource name of the level
+     * @return the level
+     */
+    public static Level load(String name) {
+        try {
+            return LevelParser.parse(name);
+        } catch (IOException | InvalidLevelException e) {
+            throw new IllegalStateException("Cannot load benchmark level " + name, e);
+        }
+    }
+
+    /**
+     * Returns the position of the player.
+     *
+     * @param level the level
+     * @return the row and column of the player
+     */
+    public static int[] findPlayer(Level level) {
+        for (int row = 0; row < level.getHeight(); row++) {
+            for (int col = 0; col < level.getWidth(); col++) {
+                if (entityAt(level, row, col) instanceof Player) {
+                    return new int[] { row, col };
+                }
+            }
+        }
+        throw new IllegalStateException("The level has no player");
+    }
+
+    /**
+     * Returns a direction in which the player can step onto an empty floor.
+     *
+     * @param level the level
+     * @return the direction of a plain step
+     */
+    public static Direction findStep(Level level) {
+        int[] player = findPlayer(level);
+        for (Direction direction : Direction.values()) {
+            if (isFree(level, player[0] + direction.getDy(), player[1] + direction.getDx())) {
+                return direction;
+            }
+        }
+        throw new IllegalStateException("The player cannot move");
+    }
+
+    /**
+     * Moves the player next to a box that it can push, and returns the
+     * direction of the push.
+     *
+     * @param level the level, changed in place
+     * @return the direction in which the player pushes the box
+     */
+    public static Direction placeForPush(Level level) {
+        int[] player = findPlayer(level);
+        for (int row = 0; row < level.getHeight(); row++) {
+            for (int col = 0; col < level.getWidth(); col++) {
+                if (!(entityAt(level, row, col) instanceof Box)) {
+                    continue;
+                }
+                for (Direction direction : Direction.values()) {
+                    int fromRow = row - direction.getDy();
+                    int fromCol = col - direction.getDx();
+                    boolean standing = fromRow == player[0] && fromCol == player[1];
+                    if ((standing || isFree(level, fromRow, fromCol))
+                            && isFree(level, row + direction.getDy(), col + direction.getDx())) {
+                        ((FloorTile) level.getTile(player[0], player[1])).setEntity(null);
+                        ((FloorTile) level.getTile(fromRow, fromCol)).setEntity(new Player());
+                        return direction;
+                    }
+                }
+            }
+        }
+        throw new IllegalStateException("No box can be pushed");
+    }
+
+    private static boolean isFree(Level level, int row, int col) {
+        if (row < 0 || col < 0 || row >= level.getHeight() || col >= level.getWidth()) {
+            return false;
+        }
+        Tile tile = level.getTile(row, col);
+        return tile instanceof FloorTile && ((FloorTile) tile).getEntity() == null;
+    }
+
+    private static Entity entityAt(Level level, int row, int col) {
+        Tile tile = level.getTile(row, col);
+        return tile instanceof FloorTile ? ((FloorTile) tile).getEntity() : null;
+    }
+}
@@ -0,0 +1,136 @@
+package es.upm.pproject.sokoban.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import es.upm.pproject.sokoban.controller.GameController;
+import es.upm.pproject.sokoban.exceptions.InvalidLevelException;
+import es.upm.pproject.sokoban.model.Direction;
+import es.upm.pproject.sokoban.model.GameState;
+import es.upm.pproject.sokoban.model.Level;
+import es.upm.pproject.sokoban.model.LevelParser;
+import es.upm.pproject.sokoban.model.LevelValidator;
+import es.upm.pproject.sokoban.model.MovementHistory;
+import es.upm.pproject.sokoban.view.BoardPanel;
+
+/**
+ * Hot paths of the game model, on every shipped level and on two large
+ * synthetic boards.
+ *
+ * Benchmarks that change the level undo the change in the same call, so
+ * every call starts from the same board: {@link #walk} steps there and back,
+ * and {@link #pushAndUndo} pushes a box and undoes the push.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ModelBenchmark {
+
+    @Param({ "level1.txt", "level2.txt", "level3.txt", "level4.txt", "level5.txt", "level6.txt", "large-64.txt",
+            "large-256.txt" })
+    public String level;
+
+    private Level board;
+    private GameState state;
+    private MovementHistory history;
+
+    private GameController walker;
+    private Direction step;
+
+    private GameController pusher;
+    private Direction push;
+
+    private GameController saver;
+    private File saveFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        board = Boards.load(level);
+        int[] player = Boards.findPlayer(board);
+        state = new GameState(board, player[0], player[1], 0);
+        history = new MovementHistory();
+
+        Level walkLevel = Boards.load(level);
+        step = Boards.findStep(walkLevel);
+        walker = new GameController(walkLevel, new BoardPanel(walkLevel, null, null), null);
+
+        Level pushLevel = Boards.load(level);
+        push = Boards.placeForPush(pushLevel);
+        pusher = new GameController(pushLevel, new BoardPanel(pushLevel, null, null), null);
+
+        Level saveLevel = Boards.load(level);
+        saver = new GameController(saveLevel, new BoardPanel(saveLevel, null, null), null);
+        saveFile = Files.createTempFile("sokoban-benchmark", ".sav").toFile();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(saveFile.toPath());
+    }
+
+    @Benchmark
+    public boolean walk() {
+        walker.movePlayer(step.getDx(), step.getDy());
+        Direction back = step.opposite();
+        return walker.movePlayer(back.getDx(), back.getDy());
+    }
+
+    @Benchmark
+    public int pushAndUndo() {
+        pusher.movePlayer(push.getDx(), push.getDy());
+        pusher.undoMove();
+        return pusher.getPlayerRow();
+    }
+
+    @Benchmark
+    public boolean isLevelCompleted() {
+        return board.isLevelCompleted();
+    }
+
+    @Benchmark
+    public GameState gameState() {
+        return new GameState(board, 0, 0, 0);
+    }
+
+    @Benchmark
+    public GameState historyPushPop() {
+        history.push(state);
+        return history.pop();
+    }
+
+    @Benchmark
+    public Level parse() throws IOException, InvalidLevelException {
+        return LevelParser.parse(level);
+    }
+
+    @Benchmark
+    public Level validate() throws InvalidLevelException {
+        LevelValidator.validate(board);
+        return board;
+    }
+
+    @Benchmark
+    public int saveAndLoad() {
+        GameController.saveGame(saveFile, saver);
+        saver.loadGame(saveFile);
+        return saver.getMoveCount();
+    }
+}
@@ -0,0 +1,127 @@
+package es.upm.pproject.sokoban.view;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import es.upm.pproject.sokoban.benchmark.Boards;
+import es.upm.pproject.sokoban.model.Level;
+
+/**
+ * Paints the board and the animated background into offscreen images,
+ * without a display.
+ *
+ * Each benchmark reports paints per second, which is the frame rate the
+ * painting alone allows, and the time of one paint. Run with the
+ * {@code gc} profiler, as the {@code benchmarks} profile does, JMH also
+ * reports the bytes allocated per paint ({@code gc.alloc.rate.norm}).
+ *
+ * The board is painted through a view of the size of the game's viewport,
+ * as it is on screen. {@link #paintBoard} repaints the same view, with every
+ * cache warm, while {@link #scrollBoard} moves the view by one tile on each
+ * paint, which also times the background chunks coming into view.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+
+    /**
+     * A board showing one level, and an image the size of its viewport.
+     */
+    @State(Scope.Thread)
+    public static class Board {
+
+        @Param({ "level1.txt", "level2.txt", "level3.txt", "level4.txt", "level5.txt", "level6.txt",
+                "large-64.txt", "large-256.txt" })
+        public String level;
+
+        BoardPanel panel;
+        BufferedImage view;
+        Graphics2D graphics;
+        int scrollX;
+
+        @Setup
+        public void setUp() {
+            Level board = Boards.load(level);
+            panel = new BoardPanel(board, null, null);
+            panel.setSize(panel.getPreferredSize());
+            AssetManager.getInstance().awaitAtlas();
+
+            Dimension viewport = panel.getPreferredScrollableViewportSize();
+            view = new BufferedImage(viewport.width, viewport.height, BufferedImage.TYPE_INT_RGB);
+            graphics = view.createGraphics();
+            graphics.setClip(0, 0, viewport.width, viewport.height);
+            panel.paint(graphics);
+        }
+
+        @TearDown
+        public void tearDown() {
+            graphics.dispose();
+        }
+    }
+
+    /**
+     * An animated background the size of the largest viewport.
+     */
+    @State(Scope.Thread)
+    public static class Background {
+
+        AnimatedBackgroundPanel panel;
+        BufferedImage view;
+        Graphics2D graphics;
+
+        @Setup
+        public void setUp() {
+            panel = new AnimatedBackgroundPanel();
+            panel.setSize(1024 + 80, 704 + 160);
+            view = new BufferedImage(panel.getWidth(), panel.getHeight(), BufferedImage.TYPE_INT_RGB);
+            graphics = view.createGraphics();
+        }
+
+        @TearDown
+        public void tearDown() {
+            graphics.dispose();
+        }
+    }
+
+    @Benchmark
+    public BufferedImage paintBoard(Board board) {
+        board.panel.paint(board.graphics);
+        return board.view;
+    }
+
+    @Benchmark
+    public BufferedImage scrollBoard(Board board) {
+        int range = Math.max(1, board.panel.getWidth() - board.view.getWidth());
+        board.scrollX = (board.scrollX + board.panel.getTileSize()) % range;
+        Graphics2D g2d = (Graphics2D) board.graphics.create();
+        g2d.translate(-board.scrollX, 0);
+        board.panel.paint(g2d);
+        g2d.dispose();
+        return board.view;
+    }
+
+    @Benchmark
+    public BufferedImage renderBackground(Background background) {
+        background.panel.renderFrame();
+        background.panel.paint(background.graphics);
+        return background.view;
+    }
+}
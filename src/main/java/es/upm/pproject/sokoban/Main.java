@@ -1,8 +1,11 @@
 package es.upm.pproject.sokoban;
 
 import es.upm.pproject.sokoban.controller.GameController;
+import es.upm.pproject.sokoban.controller.SoundEffectsController;
 import es.upm.pproject.sokoban.exceptions.InvalidLevelException;
 import es.upm.pproject.sokoban.model.Level;
+import es.upm.pproject.sokoban.monitoring.Metrics;
+import es.upm.pproject.sokoban.view.AssetManager;
 import es.upm.pproject.sokoban.view.BoardPanel;
 import es.upm.pproject.sokoban.view.GameFrame;
 import javax.swing.*;
@@ -17,6 +20,10 @@ public class Main {
     private static final Logger logger = LoggerFactory.getLogger(Main.class);
 
     public static void main(String[] args) {
+        Metrics.registerMBean();
+        // Decode the images and sound effects while the window is being built
+        AssetManager.getInstance().load();
+        SoundEffectsController.preload();
         SwingUtilities.invokeLater(() -> {
             try {
                 GameFrame gameFrame = new GameFrame();
@@ -0,0 +1,451 @@
+package es.upm.pproject.sokoban.controller;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import es.upm.pproject.sokoban.controller.SoundEffectsController.Effect;
+import es.upm.pproject.sokoban.monitoring.Metrics;
+import es.upm.pproject.sokoban.monitoring.SoundEvent;
+
+/**
+ * Plays the sound effects through a single audio line.
+ *
+ * Every effect is decoded once, when the mixer starts, into 16-bit stereo
+ * samples at {@link #SAMPLE_RATE} Hz. A single daemon thread owns the
+ * audio line: it takes the effects requested since its last chunk, gives
+ * each one a voice from a fixed pool, adds the active voices together and
+ * writes the result to the line, {@link #CHUNK_FRAMES} frames at a time.
+ * Requesting an effect only adds it to a lock-free queue and wakes the
+ * thread, which sleeps while nothing plays.
+ *
+ * The work stays bounded however fast moves come in. An effect requested
+ * again within {@link #MIN_RETRIGGER_NANOS} of its last request is merged
+ * into it and never queued, each effect may only hold
+ * {@link Effect#getMaxVoices()} voices, and when every voice is busy a new
+ * effect takes the voice of the oldest effect with a lower
+ * {@link Effect#getPriority() priority}, so that reaching a goal is always
+ * heard over the steps that led to it.
+ *
+ * When no audio line can be opened, e.g. on machines without a sound card,
+ * the mixer logs it once and drops every effect.
+ */
+public class EffectMixer {
+
+    /** Sample rate of the mixed output, in Hz. */
+    public static final int SAMPLE_RATE = 44100;
+
+    /** Format of the mixed output: 16-bit signed little-endian stereo. */
+    public static final AudioFormat FORMAT = new AudioFormat(SAMPLE_RATE, 16, 2, true, false);
+
+    /** Number of effects that can sound at the same time. */
+    public static final int VOICES = 8;
+
+    /** Shortest time between two starts of the same effect, in nanoseconds. */
+    static final long MIN_RETRIGGER_NANOS = 40_000_000L;
+
+    /** Frames mixed and written at a time, about 12 ms. */
+    static final int CHUNK_FRAMES = 512;
+
+    /** Frames buffered by the audio line, about 46 ms of latency. */
+    private static final int LINE_BUFFER_FRAMES = CHUNK_FRAMES * 4;
+
+    /** Logger for the mixer. */
+    private static final Logger logger = LoggerFactory.getLogger(EffectMixer.class);
+
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private static EffectMixer instance;
+
+    /** Decoded samples of each effect, interleaved stereo, indexed by ordinal. */
+    private volatile short[][] samples;
+
+    private final Queue<Effect> requests = new ConcurrentLinkedQueue<>();
+
+    /** Effect samples of each voice, or null when the voice is free. */
+    private final short[][] voiceData = new short[VOICES][];
+
+    /** Effect of each voice, or null when the voice is free. */
+    private final Effect[] voiceEffect = new Effect[VOICES];
+
+    /** Next sample of each voice. */
+    private final int[] voicePosition = new int[VOICES];
+
+    /** Time of the last accepted request of each effect, by ordinal. */
+    private final AtomicLongArray lastRequest = new AtomicLongArray(Effect.values().length);
+
+    private final int[] mix = new int[CHUNK_FRAMES * 2];
+
+    private final AtomicLong played = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong stolen = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    private volatile boolean available = true;
+    private volatile Thread thread;
+
+    /**
+     * Creates a mixer over samples already decoded, without an audio line.
+     *
+     * @param samples the samples of each effect, by ordinal
+     */
+    EffectMixer(short[][] samples) {
+        this.samples = samples.clone();
+        for (int i = 0; i < lastRequest.length(); i++) {
+            lastRequest.set(i, NEVER);
+        }
+    }
+
+    /**
+     * Returns the mixer of the application, starting it on first use.
+     *
+     * @return the shared mixer
+     */
+    public static synchronized EffectMixer getInstance() {
+        if (instance == null) {
+            EffectMixer mixer = new EffectMixer(new short[Effect.values().length][]);
+            Metrics.gauge(Metrics.AUDIO_VOICES, mixer::getActiveVoices);
+            Metrics.gauge(Metrics.SFX_PLAYED, mixer::getPlayedCount);
+            Metrics.gauge(Metrics.SFX_DROPPED, () -> mixer.getDroppedCount() + mixer.getCoalescedCount());
+            Metrics.gauge(Metrics.SFX_STOLEN, mixer::getStolenCount);
+            mixer.start();
+            instance = mixer;
+        }
+        return instance;
+    }
+
+    /**
+     * Starts the mixing thread, which decodes the effects and opens the
+     * audio line before it plays anything.
+     */
+    private void start() {
+        Thread mixer = new Thread(this::run, "sokoban-sfx");
+        mixer.setDaemon(true);
+        mixer.setPriority(Thread.MAX_PRIORITY);
+        thread = mixer;
+        mixer.start();
+    }
+
+    /**
+     * Requests an effect. It starts with the next chunk the mixer writes,
+     * unless it was already requested a moment ago.
+     *
+     * @param effect the effect to play
+     */
+    public void play(Effect effect) {
+        play(effect, System.nanoTime());
+    }
+
+    /**
+     * Requests an effect at the given time.
+     *
+     * @param effect the effect to play
+     * @param now    the current time, from {@link System#nanoTime()}
+     */
+    void play(Effect effect, long now) {
+        if (!available) {
+            dropped.incrementAndGet();
+            SoundEvent.emit(effect.name(), SoundEvent.DROPPED);
+            return;
+        }
+        int index = effect.ordinal();
+        long last = lastRequest.get(index);
+        if ((last != NEVER && now - last < MIN_RETRIGGER_NANOS) || !lastRequest.compareAndSet(index, last, now)) {
+            coalesced.incrementAndGet();
+            SoundEvent.emit(effect.name(), SoundEvent.COALESCED);
+            return;
+        }
+        requests.offer(effect);
+        Thread mixer = thread;
+        if (mixer != null) {
+            LockSupport.unpark(mixer);
+        }
+    }
+
+    /**
+     * Returns whether effects can be heard.
+     *
+     * @return false if no audio line could be opened
+     */
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Returns the number of effects started.
+     *
+     * @return the number of played effects
+     */
+    public long getPlayedCount() {
+        return played.get();
+    }
+
+    /**
+     * Returns the number of effects that were not played, because the
+     * effect or every voice was busy, or because there is no audio line.
+     *
+     * @return the number of dropped effects
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Returns the number of effects cut short to free a voice for a more
+     * important one.
+     *
+     * @return the number of stolen voices
+     */
+    public long getStolenCount() {
+        return stolen.get();
+    }
+
+    /**
+     * Returns the number of requests merged into an earlier request of the
+     * same effect.
+     *
+     * @return the number of coalesced requests
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * Returns the number of effects sounding.
+     *
+     * @return the number of busy voices
+     */
+    public int getActiveVoices() {
+        int active = 0;
+        for (short[] data : voiceData) {
+            if (data != null) {
+                active++;
+            }
+        }
+        return active;
+    }
+
+    private void run() {
+        short[][] decoded = new short[Effect.values().length][];
+        for (Effect effect : Effect.values()) {
+            decoded[effect.ordinal()] = decode(effect);
+        }
+        samples = decoded;
+
+        SourceDataLine line;
+        try {
+            line = AudioSystem.getSourceDataLine(FORMAT);
+            line.open(FORMAT, LINE_BUFFER_FRAMES * FORMAT.getFrameSize());
+            line.start();
+        } catch (LineUnavailableException | IllegalArgumentException | SecurityException e) {
+            logger.warn(" No audio line for sound effects, they are disabled: {}", e.getMessage());
+            available = false;
+            dropped.addAndGet(requests.size());
+            requests.clear();
+            return;
+        }
+
+        byte[] out = new byte[CHUNK_FRAMES * FORMAT.getFrameSize()];
+        while (available) {
+            if (!render(out)) {
+                LockSupport.park(this);
+                continue;
+            }
+            line.write(out, 0, out.length);
+        }
+        line.close();
+    }
+
+    /**
+     * Starts the requested effects and mixes the next chunk.
+     *
+     * @param out receives {@link #CHUNK_FRAMES} frames in {@link #FORMAT}
+     * @return false if nothing is playing, in which case {@code out} is left
+     *         untouched
+     */
+    boolean render(byte[] out) {
+        Effect effect;
+        while ((effect = requests.poll()) != null) {
+            startVoice(effect);
+        }
+        if (getActiveVoices() == 0) {
+            return false;
+        }
+
+        Arrays.fill(mix, 0);
+        for (int voice = 0; voice < VOICES; voice++) {
+            short[] data = voiceData[voice];
+            if (data == null) {
+                continue;
+            }
+            int position = voicePosition[voice];
+            int count = Math.min(mix.length, data.length - position);
+            for (int i = 0; i < count; i++) {
+                mix[i] += data[position + i];
+            }
+            voicePosition[voice] = position + count;
+            if (voicePosition[voice] >= data.length) {
+                voiceData[voice] = null;
+                voiceEffect[voice] = null;
+            }
+        }
+        for (int i = 0; i < mix.length; i++) {
+            int sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mix[i]));
+            out[2 * i] = (byte) sample;
+            out[2 * i + 1] = (byte) (sample >> 8);
+        }
+        return true;
+    }
+
+    /**
+     * Gives an effect a free voice, or the voice of the oldest effect with a
+     * lower priority, or drops it.
+     */
+    private void startVoice(Effect effect) {
+        short[] data = samples[effect.ordinal()];
+        if (data == null || data.length == 0) {
+            dropped.incrementAndGet();
+            return;
+        }
+        int sameEffect = 0;
+        int free = -1;
+        int victim = -1;
+        for (int voice = 0; voice < VOICES; voice++) {
+            Effect playing = voiceEffect[voice];
+            if (playing == null) {
+                free = free < 0 ? voice : free;
+            } else if (playing == effect) {
+                sameEffect++;
+            } else if (playing.getPriority() < effect.getPriority() && (victim < 0
+                    || isBetterVictim(voice, victim))) {
+                victim = voice;
+            }
+        }
+        if (sameEffect >= effect.getMaxVoices()) {
+            dropped.incrementAndGet();
+            SoundEvent.emit(effect.name(), SoundEvent.DROPPED);
+            return;
+        }
+        int voice = free;
+        String outcome = SoundEvent.PLAYED;
+        if (voice < 0) {
+            if (victim < 0) {
+                dropped.incrementAndGet();
+                SoundEvent.emit(effect.name(), SoundEvent.DROPPED);
+                return;
+            }
+            voice = victim;
+            stolen.incrementAndGet();
+            outcome = SoundEvent.STOLEN;
+        }
+        voiceData[voice] = data;
+        voiceEffect[voice] = effect;
+        voicePosition[voice] = 0;
+        played.incrementAndGet();
+        SoundEvent.emit(effect.name(), outcome);
+    }
+
+    /**
+     * Returns whether a voice should be stolen before another: the one with
+     * the lower priority, or the one furthest into its effect.
+     */
+    private boolean isBetterVictim(int voice, int other) {
+        int priority = voiceEffect[voice].getPriority();
+        int otherPriority = voiceEffect[other].getPriority();
+        return priority != otherPriority ? priority < otherPriority
+                : voicePosition[voice] > voicePosition[other];
+    }
+
+    /**
+     * Decodes an effect, from the WAV file made at build time if there is
+     * one, or from its MP3 otherwise.
+     *
+     * @return the samples, or null if the effect cannot be decoded
+     */
+    private static short[] decode(Effect effect) {
+        ClassLoader loader = EffectMixer.class.getClassLoader();
+        try (InputStream wav = loader.getResourceAsStream(effect.getPcmPath())) {
+            if (wav != null) {
+                try (AudioInputStream audio = AudioSystem.getAudioInputStream(new BufferedInputStream(wav))) {
+                    return toMixFormat(audio);
+                }
+            }
+        } catch (IOException | UnsupportedAudioFileException | IllegalArgumentException e) {
+            logger.warn(" Failed to read {}, decoding the MP3: {}", effect.getPcmPath(), e.getMessage());
+        }
+        try (InputStream mp3 = loader.getResourceAsStream(effect.getPath())) {
+            if (mp3 == null) {
+                throw new IOException("resource not found");
+            }
+            try (AudioInputStream audio = PcmDecoder.decode(mp3)) {
+                return toMixFormat(audio);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            logger.error(" Failed to decode sound effect {}: {}", effect.getPath(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Converts decoded audio to interleaved stereo samples at
+     * {@link #SAMPLE_RATE} Hz. Mono is copied to both channels, channels
+     * beyond the second are dropped, and other rates are resampled linearly.
+     *
+     * @param audio the audio, in any PCM format Java Sound can convert
+     * @return the samples
+     * @throws IOException if the audio cannot be read
+     */
+    static short[] toMixFormat(AudioInputStream audio) throws IOException {
+        AudioFormat source = audio.getFormat();
+        int channels = source.getChannels();
+        AudioFormat pcm = new AudioFormat(source.getSampleRate(), 16, channels, true, false);
+        AudioInputStream converted = source.matches(pcm) ? audio : AudioSystem.getAudioInputStream(pcm, audio);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = converted.read(buffer)) > 0) {
+            bytes.write(buffer, 0, read);
+        }
+        byte[] data = bytes.toByteArray();
+        int frames = data.length / (2 * channels);
+
+        double step = source.getSampleRate() / SAMPLE_RATE;
+        int outFrames = (int) (frames / step);
+        short[] out = new short[outFrames * 2];
+        for (int frame = 0; frame < outFrames; frame++) {
+            double at = frame * step;
+            int index = (int) at;
+            double fraction = at - index;
+            int next = Math.min(frames - 1, index + 1);
+            for (int channel = 0; channel < 2; channel++) {
+                int from = Math.min(channel, channels - 1);
+                int a = sampleAt(data, index * channels + from);
+                int b = sampleAt(data, next * channels + from);
+                out[frame * 2 + channel] = (short) Math.round(a + (b - a) * fraction);
+            }
+        }
+        return out;
+    }
+
+    private static int sampleAt(byte[] data, int sample) {
+        return (short) ((data[2 * sample] & 0xff) | (data[2 * sample + 1] << 8));
+    }
+}
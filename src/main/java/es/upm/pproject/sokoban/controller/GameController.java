@@ -7,6 +7,14 @@ import javax.swing.JOptionPane;
 import org.slf4j.*;
 
 import es.upm.pproject.sokoban.model.*;
+import es.upm.pproject.sokoban.monitoring.Counter;
+import es.upm.pproject.sokoban.monitoring.GameFileEvent;
+import es.upm.pproject.sokoban.monitoring.Gauge;
+import es.upm.pproject.sokoban.monitoring.LatencyHistogram;
+import es.upm.pproject.sokoban.monitoring.LevelCompletedEvent;
+import es.upm.pproject.sokoban.monitoring.Metrics;
+import es.upm.pproject.sokoban.monitoring.MoveEvent;
+import es.upm.pproject.sokoban.monitoring.UndoEvent;
 import es.upm.pproject.sokoban.view.BoardPanel;
 import es.upm.pproject.sokoban.view.GameFrame;
 
@@ -26,6 +34,13 @@ public class GameController implements Serializable {
     /** Logger for tracking game events and debugging. */
     private static final Logger logger = LoggerFactory.getLogger(GameController.class);
 
+    private static final Counter MOVES = Metrics.counter(Metrics.MOVES);
+    private static final LatencyHistogram MOVE_LATENCY = Metrics.histogram(Metrics.MOVE_LATENCY);
+    private static final LatencyHistogram SAVE_TIME = Metrics.histogram(Metrics.GAME_SAVE);
+    private static final LatencyHistogram LOAD_TIME = Metrics.histogram(Metrics.GAME_LOAD);
+    private static final Gauge HISTORY_MOVES = Metrics.gauge(Metrics.HISTORY_MOVES);
+    private static final Gauge HISTORY_BYTES = Metrics.gauge(Metrics.HISTORY_BYTES);
+
     /** Current game level being played. */
     private Level level;
 
@@ -50,6 +65,21 @@ public class GameController implements Serializable {
 
     private transient SoundEffectsController sfx = new SoundEffectsController();
 
+    /** Autosave journal receiving every move, or null if autosave is disabled. */
+    private transient MoveJournal journal;
+
+    /** True while journaled moves are being replayed, to skip sounds and dialogs. */
+    private transient boolean replaying;
+
+    /** Recording of the moves played on the current level, for the replay viewer. */
+    private transient Replay replay;
+
+    /** Route search reused by every click-to-walk request. */
+    private transient PathFinder pathFinder = new PathFinder();
+
+    /** Push search reused by every drag of a box. */
+    private transient PushPlanner pushPlanner = new PushPlanner();
+
     /**
      * Creates a new GameController for the given level and board panel.
      * 
@@ -66,18 +96,29 @@ public class GameController implements Serializable {
         this.moveCount = 0;
         this.gameFrame = gameFrame;
 
-        // Search the initial position of the player in the level grid
+        if (locatePlayer()) {
+            logger.info(" Player initialized at position ({}, {})", playerRow, playerCol);
+        }
+        this.replay = new Replay(level, playerRow, playerCol, Replay.DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * Searches the position of the player in the level grid.
+     *
+     * @return true if the player was found, false otherwise
+     */
+    private boolean locatePlayer() {
         for (int row = 0; row < level.getHeight(); row++) {
             for (int col = 0; col < level.getWidth(); col++) {
                 Tile tile = level.getTile(row, col);
                 if (tile instanceof FloorTile && ((FloorTile) tile).getEntity() instanceof Player) {
                     playerRow = row;
                     playerCol = col;
-                    logger.info(" Player initialized at position ({}, {})", row, col);
-                    return;
+                    return true;
                 }
             }
         }
+        return false;
     }
 
     /**
@@ -89,86 +130,267 @@ public class GameController implements Serializable {
      * @return true if the move was successful, false otherwise
      */
     public boolean movePlayer(int dx, int dy) {
-        saveState();
+        long start = System.nanoTime();
+        MoveEvent event = new MoveEvent();
+        event.begin();
         logger.info(" Attempting to move player: dx={}, dy={}", dx, dy);
 
-        int newRow = playerRow + dy;
-        int newCol = playerCol + dx;
-
-        if (newRow < 0 || newRow >= level.getHeight() || newCol < 0 || newCol >= level.getWidth()) {
-            logger.warn(" Movement blocked: out of bounds.");
+        Direction direction = Direction.of(dx, dy);
+        if (direction == null) {
+            logger.warn(" Movement blocked: ({}, {}) is not a single step.", dx, dy);
             return false;
         }
 
-        Tile currentTile = level.getTile(playerRow, playerCol);
-        Tile targetTile = level.getTile(newRow, newCol);
-
-        if (targetTile instanceof WallTile) {
-            logger.info(" Movement blocked: wall at ({}, {})", newRow, newCol);
+        int newRow = playerRow + dy;
+        int newCol = playerCol + dx;
+        byte move = level.applyMove(playerRow, playerCol, direction);
+        if (move == MoveLog.NONE) {
+            logger.info(" Movement blocked towards ({}, {})", newRow, newCol);
             return false;
         }
 
-        FloorTile currentFloor = (FloorTile) currentTile;
-        FloorTile targetFloor = (FloorTile) targetTile;
-        Entity targetEntity = targetFloor.getEntity();
+        playerRow = newRow;
+        playerCol = newCol;
+        moveCount++;
+        history.recordMove(move);
+        replay.record(move, level, playerRow, playerCol);
+        if (journal != null) {
+            journal.recordMove(direction);
+        }
+        // Only the previous cell, the new cell and the pushed box changed
+        int lastRow = MoveLog.isPush(move) ? newRow + dy : newRow;
+        int lastCol = MoveLog.isPush(move) ? newCol + dx : newCol;
+        boardPanel.repaintCells(newRow - dy, newCol - dx, lastRow, lastCol);
 
-        if (targetEntity == null) {
-            targetFloor.setEntity(currentFloor.getEntity());
-            currentFloor.setEntity(null);
-            playerRow = newRow;
-            playerCol = newCol;
-            moveCount++;
-            boardPanel.repaint();
-            sfx.playEffect(SoundEffectsController.Effect.MOVE);
+        if (!MoveLog.isPush(move)) {
+            playEffect(SoundEffectsController.Effect.MOVE);
             logger.info(" Player moved to empty tile ({}, {})", newRow, newCol);
+            recordMoves(1, false, start, event);
             return true;
         }
 
-        if (targetEntity instanceof Box) {
-            int boxRow = newRow + dy;
-            int boxCol = newCol + dx;
+        int boxRow = newRow + dy;
+        int boxCol = newCol + dx;
+        SoundEffectsController.Effect effect = ((FloorTile) level.getTile(boxRow, boxCol)).isGoal()
+                ? SoundEffectsController.Effect.GOAL
+                : SoundEffectsController.Effect.PUSH;
+        playEffect(effect);
+        logger.info(" Player pushed box to ({}, {}) and moved to ({}, {})", boxRow, boxCol, newRow, newCol);
+        recordMoves(1, true, start, event);
+
+        checkLevelCompleted();
+        return true;
+    }
 
-            if (boxRow < 0 || boxRow >= level.getHeight() || boxCol < 0 || boxCol >= level.getWidth()) {
-                logger.info(" Box push blocked: out of bounds.");
-                return false;
-            }
+    /**
+     * Updates the move metrics after moves were applied, and commits their
+     * Flight Recorder event.
+     *
+     * @param moves  the number of moves applied
+     * @param pushed whether a box was pushed
+     * @param start  the time the moves were requested, from {@link System#nanoTime()}
+     * @param event  the event begun when the moves were requested
+     */
+    private void recordMoves(int moves, boolean pushed, long start, MoveEvent event) {
+        MOVES.add(moves);
+        MOVE_LATENCY.record(System.nanoTime() - start);
+        updateHistoryMetrics();
+        if (event.shouldCommit()) {
+            event.moves = moves;
+            event.pushed = pushed;
+            event.row = playerRow;
+            event.column = playerCol;
+            event.commit();
+        }
+    }
 
-            Tile nextTile = level.getTile(boxRow, boxCol);
+    /**
+     * Publishes the size of the move history and the memory it takes
+     * together with the replay.
+     */
+    private void updateHistoryMetrics() {
+        HISTORY_MOVES.set(history.getMoveCount());
+        HISTORY_BYTES.set(history.getMemoryUsage() + replay.getMemoryUsage());
+    }
 
-            if (nextTile instanceof WallTile ||
-                    (nextTile instanceof FloorTile && ((FloorTile) nextTile).getEntity() != null)) {
-                logger.info(" Box push blocked: destination occupied.");
-                return false;
-            }
+    /**
+     * Applies a sequence of moves as a single batch: the moves are recorded
+     * as one history entry, so a single undo reverts all of them, and the
+     * board is repainted and a sound played once at the end. The batch stops
+     * at the first blocked move.
+     *
+     * @param moves the directions to move in, in order
+     * @return the number of moves applied
+     */
+    public int applyMoves(Direction[] moves) {
+        return applyBatch(moves, moves.length, true);
+    }
+
+    /**
+     * Applies the moves requested since the last frame. Each move stays a
+     * separate history entry and blocked moves are skipped, as if they had
+     * been played one by one, but the board is repainted and a sound played
+     * only once.
+     *
+     * @param moves the requested directions, in order
+     * @param count the number of requests to apply
+     * @return the number of moves applied
+     */
+    public int playMoves(Direction[] moves, int count) {
+        return applyBatch(moves, count, false);
+    }
 
-            ((FloorTile) nextTile).setEntity(targetEntity);
-            targetFloor.setEntity(currentFloor.getEntity());
-            currentFloor.setEntity(null);
-            playerRow = newRow;
-            playerCol = newCol;
+    /**
+     * Applies several moves with a single repaint and sound effect. The batch
+     * ends early when a push completes the level.
+     *
+     * @param moves   the directions to move in
+     * @param count   the number of directions to use
+     * @param chained true to record the moves as one history entry and stop
+     *                at the first blocked move
+     * @return the number of moves applied
+     */
+    private int applyBatch(Direction[] moves, int count, boolean chained) {
+        long start = System.nanoTime();
+        MoveEvent event = new MoveEvent();
+        event.begin();
+        int applied = 0;
+        int top = playerRow;
+        int left = playerCol;
+        int bottom = playerRow;
+        int right = playerCol;
+        SoundEffectsController.Effect effect = SoundEffectsController.Effect.MOVE;
+        boolean completed = false;
+        for (int i = 0; i < count && !completed; i++) {
+            Direction direction = moves[i];
+            byte move = level.applyMove(playerRow, playerCol, direction);
+            if (move == MoveLog.NONE) {
+                if (chained) {
+                    logger.info(" Batch stopped after {} of {} moves", applied, count);
+                    break;
+                }
+                continue;
+            }
+            if (chained && applied > 0) {
+                move = MoveLog.chained(move);
+            }
+            playerRow += direction.getDy();
+            playerCol += direction.getDx();
             moveCount++;
+            history.recordMove(move);
+            replay.record(move, level, playerRow, playerCol);
+            if (journal != null) {
+                journal.recordMove(direction);
+            }
+            int reachRow = MoveLog.isPush(move) ? playerRow + direction.getDy() : playerRow;
+            int reachCol = MoveLog.isPush(move) ? playerCol + direction.getDx() : playerCol;
+            top = Math.min(top, reachRow);
+            bottom = Math.max(bottom, reachRow);
+            left = Math.min(left, reachCol);
+            right = Math.max(right, reachCol);
+            if (MoveLog.isPush(move)) {
+                FloorTile boxTile = (FloorTile) level.getTile(playerRow + direction.getDy(),
+                        playerCol + direction.getDx());
+                if (boxTile.isGoal()) {
+                    effect = SoundEffectsController.Effect.GOAL;
+                } else if (effect == SoundEffectsController.Effect.MOVE) {
+                    effect = SoundEffectsController.Effect.PUSH;
+                }
+                completed = level.isLevelCompleted();
+            }
+            applied++;
+        }
+        if (applied == 0) {
+            return 0;
+        }
 
-            SoundEffectsController.Effect effect = ((FloorTile) nextTile).isGoal()
-                    ? SoundEffectsController.Effect.GOAL
-                    : SoundEffectsController.Effect.PUSH;
-            sfx.playEffect(effect);
+        boardPanel.repaintCells(top, left, bottom, right);
+        playEffect(effect);
+        logger.info(" Applied {} moves in a batch. Player at ({}, {})", applied, playerRow, playerCol);
+        recordMoves(applied, effect != SoundEffectsController.Effect.MOVE, start, event);
+        if (completed) {
+            checkLevelCompleted();
+        }
+        return applied;
+    }
 
-            boardPanel.repaint();
-            logger.info(" Player pushed box to ({}, {}) and moved to ({}, {})", boxRow, boxCol, newRow, newCol);
+    /**
+     * Walks the player to a floor cell along the shortest route that does
+     * not push any box.
+     *
+     * @param row the row of the destination
+     * @param col the column of the destination
+     * @return the directions walked, or null if the cell cannot be reached
+     */
+    public Direction[] walkTo(int row, int col) {
+        Direction[] route = pathFinder.findWalk(level, playerRow, playerCol, row, col);
+        if (route == null) {
+            logger.info(" No walking route to ({}, {})", row, col);
+            return null;
+        }
+        applyMoves(route);
+        return route;
+    }
 
-            if (level.isLevelCompleted()) {
-                logger.info(" Level completed!");
-                if (gameFrame != null) {
-                    gameFrame.updateMoveCount(moveCount);
-                    JOptionPane.showMessageDialog(null, "Level completed!", "Sokoban", JOptionPane.INFORMATION_MESSAGE);
-                    GameFrame.addToTotalScore(moveCount);
-                    gameFrame.loadNextLevel();
-                }
-            }
-            return true;
+    /**
+     * Pushes a box to a destination cell, walking around it as needed. The
+     * whole plan is applied as a single batch.
+     *
+     * @param boxRow the row of the box
+     * @param boxCol the column of the box
+     * @param toRow  the row of the destination
+     * @param toCol  the column of the destination
+     * @return the directions moved, or null if the box cannot be pushed there
+     */
+    public Direction[] pushBoxTo(int boxRow, int boxCol, int toRow, int toCol) {
+        long start = System.nanoTime();
+        Direction[] plan = pushPlanner.plan(level, playerRow, playerCol, boxRow, boxCol, toRow, toCol);
+        logger.info(" Push plan from ({}, {}) to ({}, {}) computed in {} us", boxRow, boxCol, toRow, toCol,
+                (System.nanoTime() - start) / 1000);
+        if (plan == null) {
+            logger.info(" The box cannot be pushed to ({}, {})", toRow, toCol);
+            return null;
         }
+        applyMoves(plan);
+        return plan;
+    }
 
-        return false;
+    /**
+     * Returns the row of the player.
+     *
+     * @return the player's row
+     */
+    public int getPlayerRow() {
+        return playerRow;
+    }
+
+    /**
+     * Returns the column of the player.
+     *
+     * @return the player's column
+     */
+    public int getPlayerCol() {
+        return playerCol;
+    }
+
+    /**
+     * Shows the completion dialog and moves on to the next level if every
+     * goal holds a box.
+     */
+    private void checkLevelCompleted() {
+        if (!replaying && level.isLevelCompleted()) {
+            logger.info(" Level completed!");
+            LevelCompletedEvent event = new LevelCompletedEvent();
+            event.level = savedLevel;
+            event.moves = moveCount;
+            event.commit();
+            if (gameFrame != null) {
+                gameFrame.updateMoveCount(moveCount);
+                JOptionPane.showMessageDialog(null, "Level completed!", "Sokoban", JOptionPane.INFORMATION_MESSAGE);
+                GameFrame.addToTotalScore(moveCount);
+                gameFrame.loadNextLevel();
+            }
+        }
     }
 
     /**
@@ -181,23 +403,229 @@ public class GameController implements Serializable {
     }
 
     /**
-     * Reverts the game state to the previous one saved in the history.
-     * This allows the player to undo their last move.
+     * Reverts the last move recorded in the history, or restores the previous
+     * snapshot when there are no recorded moves left.
+     * This allows the player to undo their last move. The moves of a batch,
+     * such as a walk, are undone together.
      */
     public void undoMove() {
+        UndoEvent event = new UndoEvent();
+        event.begin();
+        byte move = history.undoMove();
+        if (move != MoveLog.NONE) {
+            revertRecordedMove(move);
+            int undone = 1;
+            while (MoveLog.isChained(move) && (move = history.undoMove()) != MoveLog.NONE) {
+                revertRecordedMove(move);
+                undone++;
+            }
+            boardPanel.refreshBoard();
+            updateHistoryMetrics();
+            event.moves = undone;
+            event.commit();
+            logger.info(" Move undone. Restored to position ({}, {})", playerRow, playerCol);
+            return;
+        }
+
         GameState previous = history.pop();
         if (previous != null) {
             this.level = previous.getLevel();
             this.playerRow = previous.getPlayerRow();
             this.playerCol = previous.getPlayerCol();
             this.moveCount = previous.getMoveCount();
+            this.replay = new Replay(level, playerRow, playerCol, Replay.DEFAULT_KEYFRAME_INTERVAL);
+            if (journal != null) {
+                journal.recordUndo();
+            }
             updateView();
+            event.snapshot = true;
+            event.commit();
             logger.info(" Move undone. Restored to position ({}, {})", playerRow, playerCol);
         } else {
             logger.warn(" No moves to undo.");
         }
     }
 
+    /**
+     * Redoes the last undone move. After undoing several moves and playing a
+     * different one, the most recently visited line is the one redone.
+     *
+     * @return true if a move was redone, false if there was nothing to redo
+     */
+    public boolean redoMove() {
+        byte move = history.redoMove();
+        if (move == MoveLog.NONE) {
+            logger.warn(" No moves to redo.");
+            return false;
+        }
+        reapplyRecordedMove(move);
+        while (MoveLog.isChained(history.peekRedo())) {
+            reapplyRecordedMove(history.redoMove());
+        }
+        boardPanel.refreshBoard();
+        updateHistoryMetrics();
+        logger.info(" Move redone. Player at ({}, {})", playerRow, playerCol);
+        checkLevelCompleted();
+        return true;
+    }
+
+    /**
+     * Jumps to the end of another line of play: steps back to the closest
+     * position where several lines start, selects the next one and follows
+     * it to its end.
+     *
+     * @return true if another line was reached, false if there is none
+     */
+    public boolean switchBranch() {
+        int undone = 0;
+        while (history.getBranchCount() < 2) {
+            byte move = history.undoMove();
+            if (move == MoveLog.NONE) {
+                break;
+            }
+            revertRecordedMove(move);
+            undone++;
+        }
+
+        boolean switched = history.nextBranch();
+        if (!switched) {
+            // No alternative line: go back to where the player was
+            for (; undone > 0; undone--) {
+                reapplyRecordedMove(history.redoMove());
+            }
+            logger.info(" No other branch to switch to.");
+            return false;
+        }
+
+        byte move;
+        while ((move = history.redoMove()) != MoveLog.NONE) {
+            reapplyRecordedMove(move);
+        }
+        boardPanel.refreshBoard();
+        logger.info(" Switched branch. Player at ({}, {}) after {} moves", playerRow, playerCol, moveCount);
+        checkLevelCompleted();
+        return true;
+    }
+
+    /**
+     * Reverts on the board a move just undone in the history.
+     *
+     * @param move the encoded move
+     */
+    private void revertRecordedMove(byte move) {
+        Direction direction = Direction.fromCode(move);
+        level.revertMove(playerRow, playerCol, move);
+        playerRow -= direction.getDy();
+        playerCol -= direction.getDx();
+        moveCount--;
+        replay.undo();
+        if (journal != null) {
+            journal.recordUndo();
+        }
+    }
+
+    /**
+     * Applies again on the board a move just redone in the history.
+     *
+     * @param move the encoded move
+     */
+    private void reapplyRecordedMove(byte move) {
+        Direction direction = Direction.fromCode(move);
+        level.applyMove(playerRow, playerCol, direction);
+        playerRow += direction.getDy();
+        playerCol += direction.getDx();
+        moveCount++;
+        replay.record(move, level, playerRow, playerCol);
+        if (journal != null) {
+            journal.recordMove(direction);
+        }
+    }
+
+    /**
+     * Plays a sound effect unless journaled moves are being replayed.
+     *
+     * @param effect the effect to play
+     */
+    private void playEffect(SoundEffectsController.Effect effect) {
+        if (!replaying) {
+            sfx.playEffect(effect);
+        }
+    }
+
+    /**
+     * Replays the operations recovered from an autosave journal over the
+     * current level, without sounds or completion dialogs. If a journal is
+     * attached, the replayed operations are journaled again.
+     *
+     * @param ops direction codes and undo records, in order
+     */
+    public void replayJournal(byte[] ops) {
+        replaying = true;
+        try {
+            for (byte op : ops) {
+                if (MoveJournal.Recovery.isUndo(op)) {
+                    undoMove();
+                } else {
+                    Direction direction = Direction.fromCode(op);
+                    movePlayer(direction.getDx(), direction.getDy());
+                }
+            }
+        } finally {
+            replaying = false;
+        }
+        updateView();
+        logger.info(" Replayed {} journal records.", ops.length);
+    }
+
+    /**
+     * Captures a compact snapshot of the current game, including the moves
+     * that can be undone, for the quick-save slots.
+     *
+     * @return the snapshot
+     */
+    public GameSnapshot snapshot() {
+        return GameSnapshot.capture(level, playerRow, playerCol, moveCount, history.getMoves(), savedLevel,
+                GameFrame.getTotalScore());
+    }
+
+    /**
+     * Restores a snapshot taken with {@link #snapshot()}. The moves stored in
+     * the snapshot become the undo history, and the autosave journal is
+     * rebased on the start of the snapshot's level.
+     *
+     * @param snapshot the snapshot to restore
+     */
+    public void restore(GameSnapshot snapshot) {
+        this.level = snapshot.toLevel();
+        this.playerRow = snapshot.getPlayerRow();
+        this.playerCol = snapshot.getPlayerCol();
+        this.moveCount = snapshot.getMoveCount();
+        this.savedLevel = snapshot.getLevelNumber();
+        byte[] moves = snapshot.getMoves();
+        this.history = new MovementHistory(null, moves);
+        rebuildReplay();
+        GameFrame.restartTotalScore();
+        GameFrame.addToTotalScore(snapshot.getTotalScore());
+
+        if (journal != null) {
+            journal.beginLevel(savedLevel, snapshot.getTotalScore());
+            for (byte move : moves) {
+                journal.recordMove(Direction.fromCode(move));
+            }
+        }
+        updateView();
+        logger.info(" Snapshot of level {} restored at ({}, {})", savedLevel, playerRow, playerCol);
+    }
+
+    /**
+     * Sets the autosave journal that receives every move and undo.
+     *
+     * @param journal the journal, or null to disable autosave
+     */
+    public void setJournal(MoveJournal journal) {
+        this.journal = journal;
+    }
+
     /**
      * Updates the board panel with the current level state to refresh the UI.
      */
@@ -215,16 +643,27 @@ public class GameController implements Serializable {
      */
     public static void saveGame(File file, GameController controller) {
         logger.info(" Saving game to: {}", file.getName());
+        long start = System.nanoTime();
+        GameFileEvent event = new GameFileEvent();
+        event.begin();
+        event.operation = GameFileEvent.SAVE;
+        event.path = file.getPath();
         try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file))) {
             SaveData saveData = new SaveData(
                     new GameState(controller.level, controller.playerRow, controller.playerCol, controller.moveCount),
                     controller.history.getAll(),
                     controller.savedLevel,
                     GameFrame.getTotalScore());
+            saveData.setMoves(controller.history.getMoves());
             out.writeObject(saveData);
+            event.success = true;
             logger.info(" Game saved successfully.");
         } catch (IOException e) {
             logger.error(" Failed to save game: {}", e.getMessage());
+        } finally {
+            SAVE_TIME.record(System.nanoTime() - start);
+            event.bytes = file.length();
+            event.commit();
         }
     }
 
@@ -235,34 +674,38 @@ public class GameController implements Serializable {
      */
     public void loadGame(File file) {
         logger.info(" Loading game from: {}", file.getName());
+        long start = System.nanoTime();
+        GameFileEvent event = new GameFileEvent();
+        event.begin();
+        event.operation = GameFileEvent.LOAD;
+        event.path = file.getPath();
+        event.bytes = file.length();
         try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(file))) {
             SaveData saveData = (SaveData) in.readObject();
             GameState loaded = saveData.getCurrentState();
             this.savedLevel = saveData.getCurrentLevel();
-            this.history = new MovementHistory(saveData.getHistory());
+            this.history = new MovementHistory(saveData.getHistory(), saveData.getMoves());
             this.level = loaded.getLevel();
             this.moveCount = loaded.getMoveCount();
             GameFrame.restartTotalScore();
             GameFrame.addToTotalScore(moveCount);
 
             // Buscar la posición real del jugador en el tablero cargado
-            for (int row = 0; row < level.getHeight(); row++) {
-                for (int col = 0; col < level.getWidth(); col++) {
-                    Tile tile = level.getTile(row, col);
-                    if (tile instanceof FloorTile && ((FloorTile) tile).getEntity() instanceof Player) {
-                        this.playerRow = row;
-                        this.playerCol = col;
-                        logger.info(" Player located at ({}, {}) after load", row, col);
-                        break;
-                    }
-                }
+            if (locatePlayer()) {
+                logger.info(" Player located at ({}, {}) after load", playerRow, playerCol);
             }
+            rebuildReplay();
 
             updateView();
+            updateHistoryMetrics();
+            event.success = true;
             logger.info(" Game loaded successfully.");
 
         } catch (IOException | ClassNotFoundException e) {
             logger.error(" Failed to load game: {}", e.getMessage());
+        } finally {
+            LOAD_TIME.record(System.nanoTime() - start);
+            event.commit();
         }
     }
 
@@ -273,10 +716,28 @@ public class GameController implements Serializable {
      */
     public void loadLevel(Level level) {
         this.level = level;
+        locatePlayer();
+        this.replay = new Replay(level, playerRow, playerCol, Replay.DEFAULT_KEYFRAME_INTERVAL);
         saveState();
         updateView();
     }
 
+    /**
+     * Returns the recording of the moves played on the current level.
+     *
+     * @return the replay of the current level
+     */
+    public Replay getReplay() {
+        return replay;
+    }
+
+    /**
+     * Rebuilds the replay of the current level from the moves in the history.
+     */
+    private void rebuildReplay() {
+        replay = Replay.rebuild(level, playerRow, playerCol, history.getMoves(), Replay.DEFAULT_KEYFRAME_INTERVAL);
+    }
+
     /**
      * Saves the current state to the move history for undo functionality.
      */
@@ -318,6 +779,12 @@ public class GameController implements Serializable {
     }
 
     public static GameController loadGame(File file, BoardPanel boardPanel, GameFrame gameFrame) {
+        long start = System.nanoTime();
+        GameFileEvent event = new GameFileEvent();
+        event.begin();
+        event.operation = GameFileEvent.LOAD;
+        event.path = file.getPath();
+        event.bytes = file.length();
         try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(file))) {
             SaveData saveData = (SaveData) in.readObject();
             GameState state = saveData.getCurrentState();
@@ -330,18 +797,24 @@ public class GameController implements Serializable {
             GameFrame.restartTotalScore();
             GameFrame.addToTotalScore(saveData.getTotalScore());
 
-            controller.setHistory(new MovementHistory(saveData.getHistory()));
+            controller.setHistory(new MovementHistory(saveData.getHistory(), saveData.getMoves()));
             controller.savedLevel = saveData.getCurrentLevel(); // ← importante
+            controller.rebuildReplay();
 
             controller.boardPanel.setLevel(state.getLevel());
             controller.boardPanel.setController(controller);
             controller.boardPanel.repaint();
+            controller.updateHistoryMetrics();
+            event.success = true;
 
             return controller;
         } catch (IOException | ClassNotFoundException e) {
             LoggerFactory.getLogger(GameController.class).error(" No se pudo cargar la partida: {}",
                     e.getMessage());
             return null;
+        } finally {
+            LOAD_TIME.record(System.nanoTime() - start);
+            event.commit();
         }
     }
 
@@ -0,0 +1,182 @@
+package es.upm.pproject.sokoban.controller;
+
+import java.util.Arrays;
+
+import es.upm.pproject.sokoban.model.Direction;
+
+/**
+ * Bounded queue of move requests waiting for the next frame.
+ *
+ * Key events only add a direction here; the board takes the moves out one
+ * by one as its animation allows, or drains the whole queue at once. When
+ * the game falls behind, for instance under OS key repeat, the queue
+ * refuses new entries once it is full and keeps at most {@code maxRepeats}
+ * identical directions in a row, so the player never keeps walking long
+ * after the key was released.
+ *
+ * Every move keeps the time of the key press that requested it, so the
+ * board can tell how long the press took to reach the screen.
+ *
+ * The queue is meant to be used from the event dispatch thread only.
+ */
+public class InputQueue {
+
+    /** Default number of moves that can wait for the next frame. */
+    public static final int DEFAULT_CAPACITY = 8;
+
+    /** Default number of identical moves in a row kept in the queue. */
+    public static final int DEFAULT_MAX_REPEATS = 2;
+
+    /** Value of {@link #peekTime()} when the queue is empty. */
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    private final Direction[] ring;
+    private final long[] times;
+    private final int maxRepeats;
+    private int head;
+    private int size;
+
+    /** Number of identical directions at the end of the queue. */
+    private int repeats;
+
+    private long dropped;
+
+    /**
+     * Creates a queue with the default capacity and repeat limit.
+     */
+    public InputQueue() {
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_REPEATS);
+    }
+
+    /**
+     * Creates a queue with the given capacity and repeat limit.
+     *
+     * @param capacity   maximum number of queued moves
+     * @param maxRepeats maximum number of identical moves in a row
+     */
+    public InputQueue(int capacity, int maxRepeats) {
+        if (capacity <= 0 || maxRepeats <= 0) {
+            throw new IllegalArgumentException("Capacity and repeat limit must be positive.");
+        }
+        this.ring = new Direction[capacity];
+        this.times = new long[capacity];
+        this.maxRepeats = maxRepeats;
+    }
+
+    /**
+     * Adds a move request made now unless the queue is full or already ends
+     * with too many moves in the same direction.
+     *
+     * @param direction the requested direction
+     * @return true if the request was queued, false if it was dropped
+     */
+    public boolean offer(Direction direction) {
+        return offer(direction, System.nanoTime());
+    }
+
+    /**
+     * Adds a move request unless the queue is full or already ends with too
+     * many moves in the same direction.
+     *
+     * @param direction the requested direction
+     * @param time      when the move was requested, in {@link System#nanoTime()} units
+     * @return true if the request was queued, false if it was dropped
+     */
+    public boolean offer(Direction direction, long time) {
+        boolean repeated = size > 0 && ring[(head + size - 1) % ring.length] == direction;
+        if (size == ring.length || (repeated && repeats >= maxRepeats)) {
+            dropped++;
+            return false;
+        }
+        ring[(head + size) % ring.length] = direction;
+        times[(head + size) % ring.length] = time;
+        size++;
+        repeats = repeated ? repeats + 1 : 1;
+        return true;
+    }
+
+    /**
+     * Removes the oldest queued move.
+     *
+     * @return the move, or null if the queue is empty
+     */
+    public Direction poll() {
+        if (size == 0) {
+            return null;
+        }
+        Direction direction = ring[head];
+        ring[head] = null;
+        head = (head + 1) % ring.length;
+        size--;
+        repeats = Math.min(repeats, size);
+        if (size == 0) {
+            head = 0;
+        }
+        return direction;
+    }
+
+    /**
+     * Returns when the oldest queued move was requested.
+     *
+     * @return the time given to {@link #offer(Direction, long)}, or
+     *         {@link #NO_TIME} if the queue is empty
+     */
+    public long peekTime() {
+        return size == 0 ? NO_TIME : times[head];
+    }
+
+    /**
+     * Removes every queued move, oldest first.
+     *
+     * @param out array receiving the moves, at least {@link #capacity()} long
+     * @return the number of moves copied
+     */
+    public int drainTo(Direction[] out) {
+        int count = size;
+        for (int i = 0; i < count; i++) {
+            out[i] = ring[(head + i) % ring.length];
+            ring[(head + i) % ring.length] = null;
+        }
+        head = 0;
+        size = 0;
+        repeats = 0;
+        return count;
+    }
+
+    /**
+     * Discards every queued move, e.g. when the level changes.
+     */
+    public void clear() {
+        Arrays.fill(ring, null);
+        head = 0;
+        size = 0;
+        repeats = 0;
+    }
+
+    /**
+     * Returns the number of queued moves.
+     *
+     * @return the queue size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the maximum number of queued moves.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return ring.length;
+    }
+
+    /**
+     * Returns how many requests were dropped since the queue was created.
+     *
+     * @return the number of dropped requests
+     */
+    public long getDroppedCount() {
+        return dropped;
+    }
+}
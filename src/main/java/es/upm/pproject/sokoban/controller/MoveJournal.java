@@ -0,0 +1,389 @@
+package es.upm.pproject.sokoban.controller;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import es.upm.pproject.sokoban.model.Direction;
+
+/**
+ * Append-only autosave journal for the current level.
+ *
+ * Every successful move is stored as a single byte. Records are handed over
+ * to a background writer thread through a lock-free queue, so the caller
+ * (usually the EDT) never touches the disk. The writer drains everything that
+ * is pending in one write (group commit) and forces the file to disk at most
+ * once per sync interval.
+ *
+ * The journal only keeps the current level: starting a level truncates the
+ * file and writes a level marker, so replaying it is always bounded by the
+ * moves of a single level.
+ */
+public class MoveJournal implements Closeable {
+
+    /** Logger for journal operations. */
+    private static final Logger logger = LoggerFactory.getLogger(MoveJournal.class);
+
+    /** Undo of the last move. Move records use the direction codes 0 to 3. */
+    static final byte OP_UNDO = 4;
+
+    /** Start of a level read from the level files: followed by level and score ints. */
+    static final byte OP_LEVEL = 5;
+
+    /** Start from a saved game: followed by a short length and the UTF-8 path. */
+    static final byte OP_SAVE_FILE = 6;
+
+    /** Default interval between two fsync calls. */
+    public static final long DEFAULT_SYNC_INTERVAL_MILLIS = 250;
+
+    /** System property naming the directory of the autosave files. */
+    public static final String HOME_PROPERTY = "sokoban.home";
+
+    /** Name of the journal inside the game directory. */
+    public static final String FILE_NAME = "autosave.journal";
+
+    /** Marker telling the writer to truncate the journal before the next record. */
+    private static final byte[] RESET = new byte[0];
+
+    /** Pre-built single byte records, so recording a move does not allocate them. */
+    private static final byte[][] MOVE_RECORDS = {
+            { Direction.UP.getCode() }, { Direction.DOWN.getCode() },
+            { Direction.LEFT.getCode() }, { Direction.RIGHT.getCode() } };
+
+    private static final byte[] UNDO_RECORD = { OP_UNDO };
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final long syncIntervalNanos;
+    private final Queue<byte[]> pending = new ConcurrentLinkedQueue<>();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    /**
+     * Opens (or creates) the journal file and starts the writer thread.
+     * Existing content is kept until the first level marker is written, so it
+     * can still be recovered with {@link #recover(Path)}.
+     *
+     * @param file                the journal file
+     * @param syncIntervalMillis  minimum time between two fsync calls
+     * @throws IOException if the file cannot be opened
+     */
+    public MoveJournal(Path file, long syncIntervalMillis) throws IOException {
+        this.file = file;
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        this.channel.position(channel.size());
+        this.syncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(syncIntervalMillis);
+        this.writer = new Thread(this::runWriter, "sokoban-journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+        logger.info(" Move journal opened at {}", file);
+    }
+
+    /**
+     * Returns the directory of the game's autosave files: the one named by
+     * the {@value #HOME_PROPERTY} system property, or {@code .sokoban} in the
+     * user's home.
+     *
+     * @return the game directory
+     */
+    public static Path homeDirectory() {
+        String home = System.getProperty(HOME_PROPERTY);
+        return home != null ? Paths.get(home) : Paths.get(System.getProperty("user.home"), ".sokoban");
+    }
+
+    /**
+     * Returns the default location of the journal, inside the game directory.
+     *
+     * @return the default journal path
+     */
+    public static Path defaultPath() {
+        return homeDirectory().resolve(FILE_NAME);
+    }
+
+    /**
+     * Returns the file backing this journal.
+     *
+     * @return the journal path
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Starts a new level: the journal is truncated and a level marker written.
+     *
+     * @param levelNumber the number of the level being played
+     * @param totalScore  the total score accumulated before this level
+     */
+    public void beginLevel(int levelNumber, int totalScore) {
+        ByteBuffer record = ByteBuffer.allocate(9);
+        record.put(OP_LEVEL).putInt(levelNumber).putInt(totalScore);
+        enqueue(RESET);
+        enqueue(record.array());
+    }
+
+    /**
+     * Starts from a saved game: the journal is truncated and the path of the
+     * save file written, so recovery loads it before replaying the moves.
+     *
+     * @param saveFile the save file the game was loaded from
+     */
+    public void beginSavedGame(Path saveFile) {
+        byte[] path = saveFile.toAbsolutePath().toString().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(3 + path.length);
+        record.put(OP_SAVE_FILE).putShort((short) path.length).put(path);
+        enqueue(RESET);
+        enqueue(record.array());
+    }
+
+    /**
+     * Records a successful move of the player.
+     *
+     * @param direction the direction of the move
+     */
+    public void recordMove(Direction direction) {
+        enqueue(MOVE_RECORDS[direction.ordinal()]);
+    }
+
+    /**
+     * Records that the last move was undone.
+     */
+    public void recordUndo() {
+        enqueue(UNDO_RECORD);
+    }
+
+    /**
+     * Discards the journal content, e.g. once the whole game is completed.
+     */
+    public void clear() {
+        enqueue(RESET);
+    }
+
+    private void enqueue(byte[] record) {
+        if (closed) {
+            return;
+        }
+        pending.offer(record);
+        LockSupport.unpark(writer);
+    }
+
+    /**
+     * Flushes every pending record, forces it to disk and stops the writer.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info(" Move journal closed.");
+    }
+
+    /**
+     * Body of the writer thread.
+     */
+    private void runWriter() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        long lastSync = System.nanoTime();
+        boolean dirty = false;
+        try {
+            while (true) {
+                byte[] record = pending.poll();
+                if (record == null) {
+                    if (dirty && System.nanoTime() - lastSync >= syncIntervalNanos) {
+                        channel.force(false);
+                        lastSync = System.nanoTime();
+                        dirty = false;
+                    }
+                    if (closed && pending.isEmpty()) {
+                        break;
+                    }
+                    LockSupport.parkNanos(this, syncIntervalNanos);
+                    continue;
+                }
+
+                // Group commit: everything queued so far goes out in one write
+                do {
+                    if (record == RESET) {
+                        write(buffer);
+                        channel.truncate(0);
+                        channel.position(0);
+                    } else {
+                        if (buffer.remaining() < record.length) {
+                            write(buffer);
+                        }
+                        buffer.put(record);
+                    }
+                    record = pending.poll();
+                } while (record != null);
+                write(buffer);
+                dirty = true;
+
+                if (System.nanoTime() - lastSync >= syncIntervalNanos) {
+                    channel.force(false);
+                    lastSync = System.nanoTime();
+                    dirty = false;
+                }
+            }
+            if (dirty) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            logger.error(" Move journal writer failed: {}", e.getMessage());
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn(" Could not close move journal: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Reads a journal file and returns what is needed to restore the game.
+     * A record cut in half by a crash at the end of the file is ignored.
+     *
+     * @param file the journal file
+     * @return the recovered progress, or null if the journal holds no level
+     * @throws IOException if the file cannot be read
+     */
+    public static Recovery recover(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+        Recovery recovery = null;
+        ByteArrayOutputStream ops = new ByteArrayOutputStream();
+
+        while (data.hasRemaining()) {
+            byte op = data.get();
+            if (op == OP_LEVEL) {
+                if (data.remaining() < 8) {
+                    break;
+                }
+                recovery = new Recovery(data.getInt(), data.getInt(), null);
+                ops.reset();
+            } else if (op == OP_SAVE_FILE) {
+                if (data.remaining() < 2) {
+                    break;
+                }
+                int length = data.getShort() & 0xFFFF;
+                if (data.remaining() < length) {
+                    break;
+                }
+                byte[] path = new byte[length];
+                data.get(path);
+                recovery = new Recovery(0, 0, Paths.get(new String(path, StandardCharsets.UTF_8)));
+                ops.reset();
+            } else if (op >= 0 && op <= OP_UNDO) {
+                ops.write(op);
+            } else {
+                logger.warn(" Unknown journal record {}, ignoring the rest of the journal.", op);
+                break;
+            }
+        }
+
+        if (recovery != null) {
+            recovery.ops = ops.toByteArray();
+            logger.info(" Recovered {} journal records from {}", recovery.ops.length, file);
+        }
+        return recovery;
+    }
+
+    /**
+     * Progress recovered from a journal: where the level started and the
+     * moves and undos made on it since then.
+     */
+    public static final class Recovery {
+        private final int levelNumber;
+        private final int totalScore;
+        private final Path saveFile;
+        private byte[] ops;
+
+        private Recovery(int levelNumber, int totalScore, Path saveFile) {
+            this.levelNumber = levelNumber;
+            this.totalScore = totalScore;
+            this.saveFile = saveFile;
+        }
+
+        /**
+         * Returns the level number, meaningful when {@link #getSaveFile()} is null.
+         *
+         * @return the level number
+         */
+        public int getLevelNumber() {
+            return levelNumber;
+        }
+
+        /**
+         * Returns the total score accumulated before the level started.
+         *
+         * @return the total score
+         */
+        public int getTotalScore() {
+            return totalScore;
+        }
+
+        /**
+         * Returns the save file the level was loaded from, if any.
+         *
+         * @return the save file, or null if the level started from its level file
+         */
+        public Path getSaveFile() {
+            return saveFile;
+        }
+
+        /**
+         * Returns the journaled operations: direction codes and {@code OP_UNDO}.
+         *
+         * @return the operations in the order they were made
+         */
+        public byte[] getOps() {
+            return ops.clone();
+        }
+
+        /**
+         * Checks whether the given operation is an undo.
+         *
+         * @param op a journaled operation
+         * @return true if it undoes the previous move
+         */
+        public static boolean isUndo(byte op) {
+            return op == OP_UNDO;
+        }
+    }
+}
@@ -1,47 +1,111 @@
 package es.upm.pproject.sokoban.controller;
 
-import javazoom.jl.player.Player;
-import java.io.InputStream;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import es.upm.pproject.sokoban.monitoring.Metrics;
+import es.upm.pproject.sokoban.monitoring.SoundEvent;
+
+/**
+ * Plays the background music, one random track after another.
+ *
+ * Two daemon threads share a {@link PcmRingBuffer} holding
+ * {@link #BUFFER_MILLIS} ms of decoded audio. The decoder thread keeps it
+ * full, and while a track plays the next one is read into memory in the
+ * background, so the decoder goes from the last frame of a track to the
+ * first frame of the next one without a pause. The output thread moves the
+ * buffered audio to a single audio line that stays open for the whole
+ * session. Pausing stops the line where it is, and resuming continues from
+ * that frame; the decoder simply waits on the full buffer meanwhile.
+ *
+ * Whenever the output finds the buffer empty while playing, an underrun is
+ * counted, see {@link #getUnderrunCount()}.
+ */
 public class MusicController {
-    private Player player;
-    private Thread playerThread;
-    private boolean isPlaying = false;
-    private boolean isPaused = false;
-    private List<String> tracks;
-    private Random random = new Random();
-    private int currentTrackIndex = -1;
+
+    /** Decoded audio kept ahead of the output, in milliseconds. */
+    static final int BUFFER_MILLIS = 2000;
+
+    /** Frames moved to the audio line at a time. */
+    private static final int CHUNK_FRAMES = 2048;
+
+    /** Frames buffered by the audio line. */
+    private static final int LINE_BUFFER_FRAMES = CHUNK_FRAMES * 4;
+
+    /** Longest wait of a thread before it checks the buffer again, in nanoseconds. */
+    private static final long WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    /** Logger for the music. */
+    private static final Logger logger = LoggerFactory.getLogger(MusicController.class);
+
+    private final List<String> tracks;
+    private final Random random = new Random();
+    private final PcmRingBuffer buffer = new PcmRingBuffer(EffectMixer.SAMPLE_RATE * 2 * BUFFER_MILLIS / 1000);
+    private final AtomicLong underruns = new AtomicLong();
+
+    /** Tracks that could not be read, by index. Only used by the decoder thread. */
+    private final boolean[] missing;
+
+    private volatile boolean isPlaying = false;
+    private volatile boolean isPaused = false;
+    private volatile int currentTrackIndex = -1;
+    private volatile Thread outputThread;
+    private volatile Thread decoderThread;
+    private ExecutorService prefetcher;
 
     public MusicController(List<String> tracks) {
-        this.tracks = tracks;
+        this.tracks = new ArrayList<>(tracks);
+        this.missing = new boolean[tracks.size()];
+        Metrics.gauge(Metrics.MUSIC_UNDERRUNS, this::getUnderrunCount);
     }
 
-    public void startMusic() {
-        if (!isPlaying && !isPaused) {
-            playRandomTrack();
+    public synchronized void startMusic() {
+        if (outputThread == null && !tracks.isEmpty()) {
+            isPlaying = true;
+            isPaused = false;
+            outputThread = new Thread(this::runOutput, "sokoban-music");
+            outputThread.setDaemon(true);
+            outputThread.setPriority(Thread.MAX_PRIORITY);
+            outputThread.start();
+        } else if (!isPlaying && !isPaused) {
+            resumeMusic();
         }
     }
 
+    /**
+     * Pauses the music at the current frame.
+     */
     public void stopMusic() {
         isPaused = true;
         isPlaying = false;
-        try {
-            if (player != null) {
-                player.close();
-            }
-            if (playerThread != null && playerThread.isAlive()) {
-                playerThread.interrupt();
-            }
-        } catch (Exception e) {
-        }
     }
 
+    /**
+     * Continues the music from the frame where it was paused.
+     */
     public void resumeMusic() {
         if (!isPlaying && isPaused) {
             isPaused = false;
-            playCurrentTrack();
+            isPlaying = true;
+            Thread output = outputThread;
+            if (output != null) {
+                LockSupport.unpark(output);
+            }
         }
     }
 
@@ -53,61 +117,175 @@ public class MusicController {
         }
     }
 
-    private void playRandomTrack() {
-        if (tracks == null || tracks.isEmpty()) return;
-        int nextIndex;
-        do {
-            nextIndex = random.nextInt(tracks.size());
-        } while (tracks.size() > 1 && nextIndex == currentTrackIndex);
-        currentTrackIndex = nextIndex;
-        playCurrentTrack();
+    public boolean isPlaying() {
+        return isPlaying;
+    }
+
+    public boolean isPaused() {
+        return isPaused;
     }
 
-    private void playCurrentTrack() {
-        if (currentTrackIndex < 0 || currentTrackIndex >= tracks.size()) return;
-        String resourcePath = tracks.get(currentTrackIndex);
-        playMusic(resourcePath);
+    /**
+     * Returns the number of times the output ran out of decoded audio while
+     * playing.
+     *
+     * @return the number of buffer underruns
+     */
+    public long getUnderrunCount() {
+        return underruns.get();
     }
 
-    private void playMusic(String resourcePath) {
-        stopMusic(); // Detén cualquier reproducción anterior
-        playerThread = new Thread(() -> {
-            try {
-                String path = resourcePath;
-                do {
-                    InputStream is = getClass().getClassLoader().getResourceAsStream(path);
-                    if (is == null) {
-                        System.err.println("No se encontró el archivo de música: " + path);
-                        isPlaying = false;
-                        return;
-                    }
-                    player = new Player(is);
-                    isPlaying = true;
-                    player.play(); // Bloquea hasta terminar
-
-                    if (!isPaused) { // Solo cambia de pista si no se pausó
-                        // Selecciona otra pista aleatoria para la próxima iteración
-                        int nextIndex;
-                        do {
-                            nextIndex = random.nextInt(tracks.size());
-                        } while (tracks.size() > 1 && nextIndex == currentTrackIndex);
-                        currentTrackIndex = nextIndex;
-                        path = tracks.get(currentTrackIndex);
+    /**
+     * Returns the track being decoded, which is the one playing except for
+     * the last {@link #BUFFER_MILLIS} ms of a track.
+     *
+     * @return the resource path, or null before the first track
+     */
+    public String getCurrentTrack() {
+        int index = currentTrackIndex;
+        return index < 0 ? null : tracks.get(index);
+    }
+
+    /**
+     * Opens the audio line, starts the decoder and feeds the line until the
+     * application exits.
+     */
+    private void runOutput() {
+        SourceDataLine line;
+        try {
+            line = AudioSystem.getSourceDataLine(EffectMixer.FORMAT);
+            line.open(EffectMixer.FORMAT, LINE_BUFFER_FRAMES * EffectMixer.FORMAT.getFrameSize());
+        } catch (LineUnavailableException | IllegalArgumentException | SecurityException e) {
+            logger.warn(" No audio line for the music, it is disabled: {}", e.getMessage());
+            return;
+        }
+        prefetcher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sokoban-music-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        decoderThread = new Thread(this::runDecoder, "sokoban-music-decoder");
+        decoderThread.setDaemon(true);
+        decoderThread.start();
+
+        short[] samples = new short[CHUNK_FRAMES * 2];
+        byte[] bytes = new byte[samples.length * 2];
+        boolean primed = false;
+        boolean starving = false;
+        boolean running = false;
+        while (true) {
+            if (isPaused) {
+                line.stop();
+                running = false;
+                while (isPaused) {
+                    LockSupport.park(this);
+                }
+            }
+            int count = buffer.read(samples, 0, samples.length);
+            LockSupport.unpark(decoderThread);
+            if (count == 0) {
+                if (primed && !starving) {
+                    underruns.incrementAndGet();
+                    logger.debug(" Music buffer underrun");
+                }
+                starving = primed;
+                LockSupport.parkNanos(this, WAIT_NANOS / 4);
+                continue;
+            }
+            starving = false;
+            primed = true;
+            for (int i = 0; i < count; i++) {
+                bytes[2 * i] = (byte) samples[i];
+                bytes[2 * i + 1] = (byte) (samples[i] >> 8);
+            }
+            if (!running) {
+                line.start();
+                running = true;
+            }
+            line.write(bytes, 0, count * 2);
+        }
+    }
+
+    /**
+     * Decodes one track after another into the buffer, waiting whenever the
+     * buffer is full.
+     */
+    private void runDecoder() {
+        int index = nextTrackIndex(-1);
+        TrackDecoder track = load(index).join();
+        while (true) {
+            if (track == null) {
+                missing[index] = true;
+                index = nextTrackIndex(index);
+                if (index < 0) {
+                    logger.error(" No music track could be played");
+                    return;
+                }
+                track = load(index).join();
+                continue;
+            }
+            currentTrackIndex = index;
+            int nextIndex = nextTrackIndex(index);
+            CompletableFuture<TrackDecoder> next = load(nextIndex);
+            logger.info(" Playing music track {}", track.getPath());
+            SoundEvent.emit(track.getPath(), SoundEvent.TRACK);
+            decodeTrack(track);
+            index = nextIndex;
+            track = next.join();
+        }
+    }
+
+    private void decodeTrack(TrackDecoder track) {
+        try {
+            int count;
+            while ((count = track.decodeFrame()) >= 0) {
+                short[] samples = track.getSamples();
+                int offset = 0;
+                while (offset < count) {
+                    offset += buffer.write(samples, offset, count - offset);
+                    if (offset < count) {
+                        LockSupport.parkNanos(this, WAIT_NANOS);
                     }
-                } while (isPlaying && !isPaused);
-            } catch (Exception e) {
-                isPlaying = false;
+                }
             }
-        });
-        playerThread.start();
-        isPlaying = true;
-        isPaused = false;
+        } catch (IOException e) {
+            logger.error(" Failed to decode music track: {}", e.getMessage());
+        }
     }
 
-    public boolean isPlaying() {
-        return isPlaying;
+    /**
+     * Reads a track into memory in the background.
+     *
+     * @return the track, or null if it cannot be read
+     */
+    private CompletableFuture<TrackDecoder> load(int index) {
+        String path = tracks.get(index);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return TrackDecoder.load(path);
+            } catch (IOException e) {
+                logger.error(" Failed to load music track: {}", e.getMessage());
+                return null;
+            }
+        }, prefetcher);
     }
-    public boolean isPaused() {
-        return isPaused;
+
+    /**
+     * Picks a random track that could be read, other than the given one when
+     * there is another.
+     *
+     * @return the track index, or -1 if no track can be read
+     */
+    private int nextTrackIndex(int current) {
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < tracks.size(); i++) {
+            if (!missing[i] && i != current) {
+                candidates.add(i);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return current >= 0 && !missing[current] ? current : -1;
+        }
+        return candidates.get(random.nextInt(candidates.size()));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,61 @@
+package es.upm.pproject.sokoban.controller;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+
+import javazoom.jl.decoder.Bitstream;
+import javazoom.jl.decoder.BitstreamException;
+import javazoom.jl.decoder.Decoder;
+import javazoom.jl.decoder.DecoderException;
+import javazoom.jl.decoder.Header;
+import javazoom.jl.decoder.SampleBuffer;
+
+/**
+ * Decodes MP3 data into 16-bit signed little-endian PCM that Java Sound can
+ * play directly.
+ */
+public final class PcmDecoder {
+
+    private PcmDecoder() {
+    }
+
+    /**
+     * Decodes a whole MP3 stream into memory.
+     *
+     * @param mp3 the MP3 data, left open
+     * @return the decoded samples
+     * @throws IOException if the data cannot be read or decoded
+     */
+    public static AudioInputStream decode(InputStream mp3) throws IOException {
+        Bitstream bitstream = new Bitstream(mp3);
+        Decoder decoder = new Decoder();
+        ByteArrayOutputStream pcm = new ByteArrayOutputStream();
+        try {
+            Header header;
+            while ((header = bitstream.readFrame()) != null) {
+                SampleBuffer samples = (SampleBuffer) decoder.decodeFrame(header, bitstream);
+                short[] buffer = samples.getBuffer();
+                int length = samples.getBufferLength();
+                for (int i = 0; i < length; i++) {
+                    pcm.write(buffer[i]);
+                    pcm.write(buffer[i] >> 8);
+                }
+                bitstream.closeFrame();
+            }
+        } catch (BitstreamException | DecoderException e) {
+            throw new IOException("Invalid MP3 data: " + e.getMessage(), e);
+        }
+        if (pcm.size() == 0) {
+            throw new IOException("No MP3 frames found");
+        }
+        int channels = decoder.getOutputChannels();
+        AudioFormat format = new AudioFormat(decoder.getOutputFrequency(), 16, channels, true, false);
+        byte[] data = pcm.toByteArray();
+        return new AudioInputStream(new ByteArrayInputStream(data), format, data.length / (2L * channels));
+    }
+}
@@ -0,0 +1,100 @@
+package es.upm.pproject.sokoban.controller;
+
+/**
+ * Fixed-size queue of samples between one thread that writes them and one
+ * thread that reads them.
+ *
+ * Neither side takes a lock: each one only moves its own counter, and the
+ * counters are volatile so the samples copied before a move are visible to
+ * the other side after it. A side that finds the buffer full or empty gets
+ * a short count and decides itself whether to wait.
+ */
+class PcmRingBuffer {
+
+    private final short[] samples;
+    private final int mask;
+
+    /** Samples written since the buffer was created. */
+    private volatile long written;
+
+    /** Samples read since the buffer was created. */
+    private volatile long read;
+
+    /**
+     * Creates a buffer holding at least the given number of samples.
+     *
+     * @param capacity the minimum capacity, rounded up to a power of two
+     */
+    PcmRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        samples = new short[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Returns the number of samples the buffer holds when full.
+     *
+     * @return the capacity
+     */
+    int capacity() {
+        return samples.length;
+    }
+
+    /**
+     * Returns the number of samples waiting to be read.
+     *
+     * @return the number of buffered samples
+     */
+    int available() {
+        return (int) (written - read);
+    }
+
+    /**
+     * Returns the number of samples that can be written without waiting.
+     *
+     * @return the free space
+     */
+    int free() {
+        return samples.length - available();
+    }
+
+    /**
+     * Copies as many samples as fit into the buffer. Only the writing thread
+     * may call this.
+     *
+     * @param source the samples
+     * @param offset the first sample to copy
+     * @param length the number of samples to copy
+     * @return the number of samples copied
+     */
+    int write(short[] source, int offset, int length) {
+        long position = written;
+        int count = Math.min(length, samples.length - (int) (position - read));
+        int start = (int) position & mask;
+        int first = Math.min(count, samples.length - start);
+        System.arraycopy(source, offset, samples, start, first);
+        System.arraycopy(source, offset + first, samples, 0, count - first);
+        written = position + count;
+        return count;
+    }
+
+    /**
+     * Copies as many buffered samples as there are, up to a limit. Only the
+     * reading thread may call this.
+     *
+     * @param target receives the samples
+     * @param offset where the first sample goes
+     * @param length the largest number of samples to copy
+     * @return the number of samples copied
+     */
+    int read(short[] target, int offset, int length) {
+        long position = read;
+        int count = Math.min(length, (int) (written - position));
+        int start = (int) position & mask;
+        int first = Math.min(count, samples.length - start);
+        System.arraycopy(samples, start, target, offset, first);
+        System.arraycopy(samples, 0, target, offset + first, count - first);
+        read = position + count;
+        return count;
+    }
+}
@@ -0,0 +1,151 @@
+package es.upm.pproject.sokoban.controller;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import es.upm.pproject.sokoban.model.GameSnapshot;
+
+/**
+ * Quick-save slots kept in memory and flushed to disk in the background.
+ *
+ * Saving a slot only stores an immutable {@link GameSnapshot} reference, and
+ * loading it returns that same reference, so both are instant. Writing the
+ * slot file is left to a single background thread, which writes to a
+ * temporary file and atomically replaces the previous one.
+ */
+public class QuickSaveSlots {
+
+    /** Number of slots available by default. */
+    public static final int DEFAULT_SLOTS = 4;
+
+    /** Logger for quick-save operations. */
+    private static final Logger logger = LoggerFactory.getLogger(QuickSaveSlots.class);
+
+    private final Path directory;
+    private final AtomicReferenceArray<GameSnapshot> slots;
+    private final ExecutorService flusher;
+
+    /**
+     * Creates the slots and starts reading the slot files found in the
+     * directory in the background.
+     *
+     * @param directory the directory holding the slot files
+     * @param count     the number of slots
+     */
+    public QuickSaveSlots(Path directory, int count) {
+        this.directory = directory;
+        this.slots = new AtomicReferenceArray<>(count);
+        this.flusher = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "sokoban-quicksave");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.execute(this::readAll);
+    }
+
+    /**
+     * Returns the number of slots.
+     *
+     * @return the number of slots
+     */
+    public int size() {
+        return slots.length();
+    }
+
+    /**
+     * Stores a snapshot in a slot and schedules the slot to be written to disk.
+     *
+     * @param slot     the slot index, starting at 0
+     * @param snapshot the snapshot to store
+     */
+    public void save(int slot, GameSnapshot snapshot) {
+        slots.set(slot, snapshot);
+        logger.info(" Quick-saved level {} in slot {}", snapshot.getLevelNumber(), slot + 1);
+        if (flusher.isShutdown()) {
+            logger.warn(" Quick-save slot {} not written, the slots are closed.", slot + 1);
+            return;
+        }
+        flusher.execute(() -> write(slot));
+    }
+
+    /**
+     * Returns the snapshot stored in a slot.
+     *
+     * @param slot the slot index, starting at 0
+     * @return the snapshot, or null if the slot is empty
+     */
+    public GameSnapshot get(int slot) {
+        return slots.get(slot);
+    }
+
+    /**
+     * Waits for pending writes to finish and stops the background thread.
+     * Slots saved afterwards are kept in memory only.
+     */
+    public void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Path slotFile(int slot) {
+        return directory.resolve("quicksave-" + (slot + 1) + ".bin");
+    }
+
+    /**
+     * Writes the current content of a slot. Several saves of the same slot
+     * queued in a row all write the latest snapshot, which is harmless.
+     */
+    private void write(int slot) {
+        GameSnapshot snapshot = slots.get(slot);
+        if (snapshot == null) {
+            return;
+        }
+        Path target = slotFile(slot);
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                snapshot.writeTo(out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error(" Failed to write quick-save slot {}: {}", slot + 1, e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the slot files left by previous sessions. Slots saved in the
+     * meantime are not overwritten.
+     */
+    private void readAll() {
+        for (int slot = 0; slot < slots.length(); slot++) {
+            Path file = slotFile(slot);
+            if (!Files.exists(file)) {
+                continue;
+            }
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                slots.compareAndSet(slot, null, GameSnapshot.readFrom(in, Files.size(file)));
+            } catch (IOException e) {
+                logger.warn(" Ignoring unreadable quick-save slot {}: {}", slot + 1, e.getMessage());
+            }
+        }
+    }
+}
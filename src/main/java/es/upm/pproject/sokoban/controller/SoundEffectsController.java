@@ -1,31 +1,59 @@
 package es.upm.pproject.sokoban.controller;
 
-import javazoom.jl.player.Player;
-import java.io.InputStream;
-
 public class SoundEffectsController {
 
     public enum Effect {
-        MOVE("sfx/space-slash.mp3"),
-        PUSH("sfx/instant-teleport.mp3"),
-        GOAL("sfx/glitch.mp3");
+        MOVE("sfx/space-slash.mp3", 0, 2),
+        PUSH("sfx/instant-teleport.mp3", 1, 2),
+        GOAL("sfx/glitch.mp3", 2, EffectMixer.VOICES);
 
         private final String path;
-        Effect(String path) { this.path = path; }
+        private final int priority;
+        private final int maxVoices;
+        Effect(String path, int priority, int maxVoices) {
+            this.path = path;
+            this.priority = priority;
+            this.maxVoices = maxVoices;
+        }
         public String getPath() { return path; }
+
+        /**
+         * Returns the priority of the effect. When every voice is busy, an
+         * effect takes the voice of one with a lower priority.
+         *
+         * @return the priority, higher for more important effects
+         */
+        public int getPriority() { return priority; }
+
+        /**
+         * Returns how many copies of the effect may sound at once.
+         *
+         * @return the voice limit of the effect
+         */
+        public int getMaxVoices() { return maxVoices; }
+
+        /**
+         * Returns the path of the effect decoded at build time.
+         *
+         * @return the path of the WAV file
+         */
+        public String getPcmPath() { return path.replace(".mp3", ".wav"); }
+    }
+
+    /**
+     * Starts decoding the effects, so that the first move already sounds.
+     */
+    public static void preload() {
+        EffectMixer.getInstance();
     }
 
+    /**
+     * Plays an effect through the shared mixer. This only queues the effect
+     * and never blocks.
+     *
+     * @param effect the effect to play
+     */
     public void playEffect(Effect effect) {
-        new Thread(() -> {
-            try (InputStream is = getClass().getClassLoader().getResourceAsStream(effect.getPath())) {
-                if (is == null) {
-                    System.err.println("No se encontró el efecto de sonido: " + effect.getPath());
-                    return;
-                }
-                Player player = new Player(is);
-                player.play();
-            } catch (Exception e) {
-            }
-        }).start();
+        EffectMixer.getInstance().play(effect);
     }
-}
\ No newline at end of file
+}
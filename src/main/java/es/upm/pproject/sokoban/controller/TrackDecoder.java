@@ -0,0 +1,144 @@
+package es.upm.pproject.sokoban.controller;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javazoom.jl.decoder.Bitstream;
+import javazoom.jl.decoder.BitstreamException;
+import javazoom.jl.decoder.Decoder;
+import javazoom.jl.decoder.DecoderException;
+import javazoom.jl.decoder.Header;
+import javazoom.jl.decoder.SampleBuffer;
+
+/**
+ * Decodes an MP3 track one frame at a time into the mixer's format,
+ * interleaved 16-bit stereo at {@link EffectMixer#SAMPLE_RATE} Hz.
+ *
+ * The compressed track is read into memory when it is loaded, so decoding
+ * never waits on the class path. Tracks at other rates are resampled
+ * linearly, carrying the position over frame boundaries so that frames join
+ * without clicks.
+ */
+class TrackDecoder {
+
+    private final String path;
+    private final Bitstream bitstream;
+    private final Decoder decoder = new Decoder();
+
+    private short[] output = new short[0];
+
+    /** Position of the next output frame, in source frames from the start of the current frame. */
+    private double position;
+    private short lastLeft;
+    private short lastRight;
+    private boolean started;
+
+    /**
+     * Creates a decoder over a track already in memory.
+     *
+     * @param path the path of the track, for messages
+     * @param mp3  the MP3 data
+     */
+    TrackDecoder(String path, byte[] mp3) {
+        this.path = path;
+        this.bitstream = new Bitstream(new ByteArrayInputStream(mp3));
+    }
+
+    /**
+     * Reads a track from the class path.
+     *
+     * @param path the resource path of the track
+     * @return the decoder, positioned at the start of the track
+     * @throws IOException if the track is missing or cannot be read
+     */
+    static TrackDecoder load(String path) throws IOException {
+        try (InputStream is = TrackDecoder.class.getClassLoader().getResourceAsStream(path)) {
+            if (is == null) {
+                throw new IOException("Track not found: " + path);
+            }
+            return new TrackDecoder(path, is.readAllBytes());
+        }
+    }
+
+    /**
+     * Returns the path of the track.
+     *
+     * @return the resource path
+     */
+    String getPath() {
+        return path;
+    }
+
+    /**
+     * Decodes the next frame of the track.
+     *
+     * @return the number of samples made available by {@link #getSamples()},
+     *         possibly 0, or -1 at the end of the track
+     * @throws IOException if the track is corrupt
+     */
+    int decodeFrame() throws IOException {
+        try {
+            Header header = bitstream.readFrame();
+            if (header == null) {
+                return -1;
+            }
+            SampleBuffer frame = (SampleBuffer) decoder.decodeFrame(header, bitstream);
+            bitstream.closeFrame();
+            return convert(frame.getBuffer(), frame.getBufferLength(), decoder.getOutputChannels(),
+                    decoder.getOutputFrequency());
+        } catch (BitstreamException | DecoderException e) {
+            throw new IOException("Invalid MP3 data in " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the samples of the last decoded frame. The array is reused by
+     * the next call to {@link #decodeFrame()}.
+     *
+     * @return the samples, interleaved stereo
+     */
+    short[] getSamples() {
+        return output;
+    }
+
+    /**
+     * Converts a decoded frame to stereo at the mixer's rate.
+     *
+     * @return the number of output samples
+     */
+    int convert(short[] samples, int length, int channels, int rate) {
+        int frames = length / channels;
+        if (frames == 0) {
+            return 0;
+        }
+        if (!started) {
+            lastLeft = samples[0];
+            lastRight = samples[channels - 1];
+            started = true;
+        }
+        double step = (double) rate / EffectMixer.SAMPLE_RATE;
+        int capacity = ((int) Math.ceil(frames / step) + 1) * 2;
+        if (output.length < capacity) {
+            output = new short[capacity];
+        }
+
+        // Source frame -1 is the last frame of the previous call
+        int count = 0;
+        while (position < frames - 1) {
+            int index = (int) Math.floor(position);
+            double fraction = position - index;
+            for (int channel = 0; channel < 2; channel++) {
+                int from = Math.min(channel, channels - 1);
+                int a = index < 0 ? (channel == 0 ? lastLeft : lastRight) : samples[index * channels + from];
+                int b = samples[(index + 1) * channels + from];
+                output[count++] = (short) Math.round(a + (b - a) * fraction);
+            }
+            position += step;
+        }
+        position -= frames;
+        lastLeft = samples[(frames - 1) * channels];
+        lastRight = samples[(frames - 1) * channels + channels - 1];
+        return count;
+    }
+}
@@ -0,0 +1,98 @@
+package es.upm.pproject.sokoban.model;
+
+/**
+ * The four directions in which the player can move.
+ * Each direction also has a compact one-byte code, used whenever a move
+ * has to be stored or persisted without keeping a full board snapshot.
+ */
+public enum Direction {
+    UP(0, -1),
+    DOWN(0, 1),
+    LEFT(-1, 0),
+    RIGHT(1, 0);
+
+    private static final Direction[] VALUES = values();
+
+    /** Delta in the x-axis (columns). */
+    private final int dx;
+
+    /** Delta in the y-axis (rows). */
+    private final int dy;
+
+    Direction(int dx, int dy) {
+        this.dx = dx;
+        this.dy = dy;
+    }
+
+    /**
+     * Returns the column delta of this direction.
+     *
+     * @return delta in the x-axis
+     */
+    public int getDx() {
+        return dx;
+    }
+
+    /**
+     * Returns the row delta of this direction.
+     *
+     * @return delta in the y-axis
+     */
+    public int getDy() {
+        return dy;
+    }
+
+    /**
+     * Returns the opposite direction.
+     *
+     * @return the direction pointing the other way
+     */
+    public Direction opposite() {
+        switch (this) {
+            case UP:
+                return DOWN;
+            case DOWN:
+                return UP;
+            case LEFT:
+                return RIGHT;
+            default:
+                return LEFT;
+        }
+    }
+
+    /**
+     * Returns the one-byte code of this direction.
+     *
+     * @return a code between 0 and 3
+     */
+    public byte getCode() {
+        return (byte) ordinal();
+    }
+
+    /**
+     * Decodes a direction from its one-byte code. Only the two lowest bits
+     * are taken into account, so codes carrying extra flags are accepted.
+     *
+     * @param code the encoded direction
+     * @return the decoded direction
+     */
+    public static Direction fromCode(byte code) {
+        return VALUES[code & 0x03];
+    }
+
+    /**
+     * Returns the direction matching the given deltas.
+     *
+     * @param dx delta in x-axis
+     * @param dy delta in y-axis
+     * @return the matching direction, or null if the deltas are not a unit move
+     */
+    public static Direction of(int dx, int dy) {
+        for (Direction direction : VALUES) {
+            if (direction.dx == dx && direction.dy == dy) {
+                return direction;
+            }
+        }
+        return null;
+    }
+}
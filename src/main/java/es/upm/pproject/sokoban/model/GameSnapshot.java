@@ -0,0 +1,307 @@
+package es.upm.pproject.sokoban.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Compact, immutable snapshot of a game in progress.
+ *
+ * Unlike {@link GameState}, which copies every tile object, the board is
+ * packed into one byte per cell, and the undo history is kept as the
+ * encoded moves of a {@link MoveLog}. A snapshot can therefore be kept in
+ * memory cheaply and restored instantly.
+ */
+public final class GameSnapshot {
+
+    /** Cell flag: the cell is a wall. */
+    public static final byte WALL = 0x01;
+
+    /** Cell flag: the cell is a goal. */
+    public static final byte GOAL = 0x02;
+
+    /** Cell flag: the cell holds a box. */
+    public static final byte BOX = 0x04;
+
+    /** Cell flag: the cell holds the player. */
+    public static final byte PLAYER = 0x08;
+
+    /** Identifies the binary format written by {@link #writeTo(DataOutput)}. */
+    private static final int MAGIC = 0x534B5331;
+
+    /** Largest snapshot read when the length of the input is not known, in bytes. */
+    public static final int MAX_BYTES = 64 * 1024 * 1024;
+
+    /** Bytes of the header before the cells: magic, width and height. */
+    private static final int HEADER_BYTES = 3 * Integer.BYTES;
+
+    /** Bytes between the cells and the moves: five ints and the move count. */
+    private static final int TRAILER_BYTES = 6 * Integer.BYTES;
+
+    private final int width;
+    private final int height;
+    private final byte[] cells;
+    private final int playerRow;
+    private final int playerCol;
+    private final int moveCount;
+    private final int levelNumber;
+    private final int totalScore;
+    private final byte[] moves;
+
+    private GameSnapshot(int width, int height, byte[] cells, int playerRow, int playerCol, int moveCount,
+            int levelNumber, int totalScore, byte[] moves) {
+        this.width = width;
+        this.height = height;
+        this.cells = cells;
+        this.playerRow = playerRow;
+        this.playerCol = playerCol;
+        this.moveCount = moveCount;
+        this.levelNumber = levelNumber;
+        this.totalScore = totalScore;
+        this.moves = moves;
+    }
+
+    /**
+     * Captures the current state of a game.
+     *
+     * @param level       the level being played
+     * @param playerRow   the row of the player
+     * @param playerCol   the column of the player
+     * @param moveCount   the number of moves made in the level
+     * @param moves       the encoded moves that can be undone
+     * @param levelNumber the number of the level
+     * @param totalScore  the total score of the game
+     * @return the snapshot
+     */
+    public static GameSnapshot capture(Level level, int playerRow, int playerCol, int moveCount, byte[] moves,
+            int levelNumber, int totalScore) {
+        return new GameSnapshot(level.getWidth(), level.getHeight(), packCells(level), playerRow, playerCol,
+                moveCount, levelNumber, totalScore, moves.clone());
+    }
+
+    /**
+     * Packs the board of a level into one byte per cell, row by row.
+     *
+     * @param level the level to pack
+     * @return the packed cells, combining {@link #WALL}, {@link #GOAL},
+     *         {@link #BOX} and {@link #PLAYER}
+     */
+    public static byte[] packCells(Level level) {
+        int width = level.getWidth();
+        byte[] cells = new byte[width * level.getHeight()];
+        for (int row = 0; row < level.getHeight(); row++) {
+            for (int col = 0; col < width; col++) {
+                Tile tile = level.getTile(row, col);
+                byte cell;
+                if (tile instanceof FloorTile) {
+                    FloorTile floor = (FloorTile) tile;
+                    cell = floor.isGoal() ? GOAL : 0;
+                    if (floor.getEntity() instanceof Box) {
+                        cell |= BOX;
+                    } else if (floor.getEntity() instanceof Player) {
+                        cell |= PLAYER;
+                    }
+                } else {
+                    cell = WALL;
+                }
+                cells[row * width + col] = cell;
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Rebuilds a level from packed cells.
+     *
+     * @param width  the width of the board
+     * @param height the height of the board
+     * @param cells  the cells packed by {@link #packCells(Level)}
+     * @return a new level with fresh tiles and entities
+     */
+    public static Level unpackCells(int width, int height, byte[] cells) {
+        Level level = new Level(width, height);
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                byte cell = cells[row * width + col];
+                if ((cell & WALL) != 0) {
+                    level.setTile(row, col, new WallTile());
+                    continue;
+                }
+                FloorTile floor = new FloorTile((cell & GOAL) != 0);
+                if ((cell & BOX) != 0) {
+                    floor.setEntity(new Box());
+                } else if ((cell & PLAYER) != 0) {
+                    floor.setEntity(new Player());
+                }
+                level.setTile(row, col, floor);
+            }
+        }
+        return level;
+    }
+
+    /**
+     * Returns a new level built from this snapshot.
+     *
+     * @return a level in the state it had when the snapshot was taken
+     */
+    public Level toLevel() {
+        return unpackCells(width, height, cells);
+    }
+
+    /**
+     * Returns the row of the player.
+     *
+     * @return the player's row
+     */
+    public int getPlayerRow() {
+        return playerRow;
+    }
+
+    /**
+     * Returns the column of the player.
+     *
+     * @return the player's column
+     */
+    public int getPlayerCol() {
+        return playerCol;
+    }
+
+    /**
+     * Returns the number of moves made in the level.
+     *
+     * @return the move count
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Returns the number of the level.
+     *
+     * @return the level number
+     */
+    public int getLevelNumber() {
+        return levelNumber;
+    }
+
+    /**
+     * Returns the total score of the game.
+     *
+     * @return the total score
+     */
+    public int getTotalScore() {
+        return totalScore;
+    }
+
+    /**
+     * Returns the encoded moves that can be undone after restoring.
+     *
+     * @return a copy of the encoded moves
+     */
+    public byte[] getMoves() {
+        return moves.clone();
+    }
+
+    /**
+     * Returns the approximate number of bytes held by this snapshot.
+     *
+     * @return the payload size in bytes
+     */
+    public int sizeInBytes() {
+        return cells.length + moves.length;
+    }
+
+    /**
+     * Writes this snapshot in a compact binary format.
+     *
+     * @param out the output to write to
+     * @throws IOException if writing fails
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(width);
+        out.writeInt(height);
+        out.write(cells);
+        out.writeInt(playerRow);
+        out.writeInt(playerCol);
+        out.writeInt(moveCount);
+        out.writeInt(levelNumber);
+        out.writeInt(totalScore);
+        out.writeInt(moves.length);
+        out.write(moves);
+    }
+
+    /**
+     * Reads a snapshot written by {@link #writeTo(DataOutput)}, of at most
+     * {@link #MAX_BYTES} bytes.
+     *
+     * @param in the input to read from
+     * @return the snapshot
+     * @throws IOException if reading fails or the data is not a snapshot
+     */
+    public static GameSnapshot readFrom(DataInput in) throws IOException {
+        return readFrom(in, MAX_BYTES);
+    }
+
+    /**
+     * Reads a snapshot written by {@link #writeTo(DataOutput)}. Every size
+     * and position read is checked against the board and the bytes left, so
+     * a corrupt or truncated input fails before anything large is allocated.
+     *
+     * @param in     the input to read from
+     * @param length the number of bytes the input holds
+     * @return the snapshot
+     * @throws IOException if reading fails or the data is not a valid snapshot
+     */
+    public static GameSnapshot readFrom(DataInput in, long length) throws IOException {
+        if (length < HEADER_BYTES + TRAILER_BYTES || in.readInt() != MAGIC) {
+            throw new IOException("Not a Sokoban snapshot.");
+        }
+        int width = in.readInt();
+        int height = in.readInt();
+        long remaining = length - HEADER_BYTES - TRAILER_BYTES;
+        if (width <= 0 || height <= 0 || (long) width * height > remaining) {
+            throw new IOException("Invalid snapshot dimensions " + width + "x" + height);
+        }
+        byte[] cells = new byte[width * height];
+        in.readFully(cells);
+        remaining -= cells.length;
+        int playerRow = in.readInt();
+        int playerCol = in.readInt();
+        if (playerRow < 0 || playerRow >= height || playerCol < 0 || playerCol >= width) {
+            throw new IOException("Player outside the board at (" + playerRow + ", " + playerCol + ")");
+        }
+        int moveCount = in.readInt();
+        int levelNumber = in.readInt();
+        int totalScore = in.readInt();
+        int movesLength = in.readInt();
+        if (moveCount < 0 || movesLength < 0 || movesLength > remaining) {
+            throw new IOException("Invalid snapshot move count " + moveCount + " or length " + movesLength);
+        }
+        byte[] moves = new byte[movesLength];
+        in.readFully(moves);
+        return new GameSnapshot(width, height, cells, playerRow, playerCol, moveCount, levelNumber, totalScore,
+                moves);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof GameSnapshot)) {
+            return false;
+        }
+        GameSnapshot other = (GameSnapshot) o;
+        return width == other.width && height == other.height && playerRow == other.playerRow
+                && playerCol == other.playerCol && moveCount == other.moveCount
+                && levelNumber == other.levelNumber && totalScore == other.totalScore
+                && Arrays.equals(cells, other.cells) && Arrays.equals(moves, other.moves);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(cells) + Arrays.hashCode(moves);
+    }
+}
@@ -0,0 +1,170 @@
+package es.upm.pproject.sokoban.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stack of move chunks stored in a temporary file.
+ *
+ * The oldest moves of a long history are pushed here one checkpoint chunk at
+ * a time and popped back in reverse order when undo reaches them. Only the
+ * offset of each chunk is kept in memory. The file is created on the first
+ * push and deleted when the spill is closed or garbage collected.
+ */
+class HistorySpill {
+
+    /** Logger for spill operations. */
+    private static final Logger logger = LoggerFactory.getLogger(HistorySpill.class);
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    /**
+     * Closes the channel of a spill that was never closed explicitly.
+     */
+    private static final class ChannelCloser implements Runnable {
+        private FileChannel channel;
+
+        @Override
+        public void run() {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    logger.warn(" Failed to close history spill file: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private final ChannelCloser closer = new ChannelCloser();
+    private final Cleaner.Cleanable cleanable;
+
+    /** Offset of each chunk in the file; chunk k ends where chunk k + 1 starts. */
+    private long[] offsets = new long[16];
+    private int chunks;
+    private long end;
+
+    HistorySpill() {
+        cleanable = CLEANER.register(this, closer);
+    }
+
+    /**
+     * Appends a chunk of moves to the file.
+     *
+     * @param moves the moves, oldest first
+     */
+    void push(byte[] moves) {
+        try {
+            FileChannel channel = channel();
+            ByteBuffer buffer = ByteBuffer.wrap(moves);
+            long position = end;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            if (chunks == offsets.length) {
+                offsets = Arrays.copyOf(offsets, chunks * 2);
+            }
+            offsets[chunks++] = end;
+            end = position;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spill history to disk", e);
+        }
+    }
+
+    /**
+     * Removes the most recently pushed chunk from the file.
+     *
+     * @return the moves of the chunk, oldest first
+     */
+    byte[] pop() {
+        if (chunks == 0) {
+            throw new IllegalStateException("No spilled moves left.");
+        }
+        long start = offsets[--chunks];
+        byte[] moves = read(start, end);
+        end = start;
+        return moves;
+    }
+
+    /**
+     * Reads every spilled move without removing it.
+     *
+     * @return the spilled moves, oldest first
+     */
+    byte[] readAll() {
+        return read(0, end);
+    }
+
+    /**
+     * Returns the number of chunks on disk.
+     *
+     * @return the number of chunks
+     */
+    int getChunkCount() {
+        return chunks;
+    }
+
+    /**
+     * Returns the number of moves on disk.
+     *
+     * @return the number of moves
+     */
+    int getMoveCount() {
+        return (int) end;
+    }
+
+    /**
+     * Returns the estimated memory used by the chunk index.
+     *
+     * @return the size in bytes
+     */
+    long getIndexBytes() {
+        return (long) offsets.length * Long.BYTES;
+    }
+
+    /**
+     * Closes and deletes the file.
+     */
+    void close() {
+        chunks = 0;
+        end = 0;
+        cleanable.clean();
+    }
+
+    private byte[] read(long start, long stop) {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (stop - start));
+        try {
+            long position = start;
+            while (buffer.hasRemaining()) {
+                int read = closer.channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("History spill file is truncated.");
+                }
+                position += read;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read spilled history", e);
+        }
+        return buffer.array();
+    }
+
+    private FileChannel channel() throws IOException {
+        if (closer.channel == null) {
+            Path file = Files.createTempFile("sokoban-history", ".spill");
+            closer.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+            logger.info(" Spilling old moves to {}", file);
+        }
+        return closer.channel;
+    }
+}
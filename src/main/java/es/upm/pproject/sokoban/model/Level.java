@@ -152,6 +152,79 @@ public class Level implements Serializable {
         return true;
     }
 
+    /**
+     * Moves the player standing at the given position one tile in the given
+     * direction, pushing the box in front of it when there is room for it.
+     *
+     * @param row       the row of the player
+     * @param col       the column of the player
+     * @param direction the direction of the move
+     * @return the move encoded as in {@link MoveLog}, or {@link MoveLog#NONE}
+     *         if the move is blocked
+     */
+    public byte applyMove(int row, int col, Direction direction) {
+        int newRow = row + direction.getDy();
+        int newCol = col + direction.getDx();
+        if (!isFloor(newRow, newCol)) {
+            return MoveLog.NONE;
+        }
+
+        FloorTile current = (FloorTile) board[row][col];
+        FloorTile target = (FloorTile) board[newRow][newCol];
+        Entity targetEntity = target.getEntity();
+        boolean pushed = false;
+
+        if (targetEntity instanceof Box) {
+            int boxRow = newRow + direction.getDy();
+            int boxCol = newCol + direction.getDx();
+            if (!isFloor(boxRow, boxCol) || ((FloorTile) board[boxRow][boxCol]).getEntity() != null) {
+                return MoveLog.NONE;
+            }
+            ((FloorTile) board[boxRow][boxCol]).setEntity(targetEntity);
+            pushed = true;
+        } else if (targetEntity != null) {
+            return MoveLog.NONE;
+        }
+
+        target.setEntity(current.getEntity());
+        current.setEntity(null);
+        return MoveLog.encode(direction, pushed);
+    }
+
+    /**
+     * Reverts a move previously applied with {@link #applyMove}: the player
+     * steps back and, if the move pushed a box, pulls the box with it.
+     *
+     * @param row  the row of the player after the move
+     * @param col  the column of the player after the move
+     * @param move the encoded move to revert
+     */
+    public void revertMove(int row, int col, byte move) {
+        Direction direction = Direction.fromCode(move);
+        FloorTile current = (FloorTile) board[row][col];
+        FloorTile previous = (FloorTile) board[row - direction.getDy()][col - direction.getDx()];
+
+        previous.setEntity(current.getEntity());
+        if (MoveLog.isPush(move)) {
+            FloorTile boxTile = (FloorTile) board[row + direction.getDy()][col + direction.getDx()];
+            current.setEntity(boxTile.getEntity());
+            boxTile.setEntity(null);
+        } else {
+            current.setEntity(null);
+        }
+    }
+
+    /**
+     * Checks whether the given position is inside the board and is a floor tile.
+     *
+     * @param row the row index
+     * @param col the column index
+     * @return true if the position holds a floor tile
+     */
+    public boolean isFloor(int row, int col) {
+        return row >= 0 && row < height && col >= 0 && col < width && board[row][col] instanceof FloorTile;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -2,6 +2,10 @@ package es.upm.pproject.sokoban.model;
 
 import es.upm.pproject.sokoban.exceptions.InvalidLevelException;
 
+import es.upm.pproject.sokoban.monitoring.LatencyHistogram;
+import es.upm.pproject.sokoban.monitoring.LevelLoadEvent;
+import es.upm.pproject.sokoban.monitoring.Metrics;
+
 import java.io.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,6 +18,8 @@ public class LevelParser {
     /** Logger for tracking level parsing activity. */
     private static final Logger logger = LoggerFactory.getLogger(LevelParser.class);
 
+    private static final LatencyHistogram PARSE_TIME = Metrics.histogram(Metrics.LEVEL_PARSE);
+
     private LevelParser() {
     }
 
@@ -26,6 +32,27 @@ public class LevelParser {
      * @throws InvalidLevelException if the level format is invalid
      */
     public static Level parse(String filename) throws IOException, InvalidLevelException {
+        long start = System.nanoTime();
+        LevelLoadEvent event = new LevelLoadEvent();
+        event.begin();
+        event.phase = LevelLoadEvent.PARSE;
+        event.source = filename;
+        try {
+            Level level = read(filename);
+            event.width = level.getWidth();
+            event.height = level.getHeight();
+            event.success = true;
+            return level;
+        } finally {
+            PARSE_TIME.record(System.nanoTime() - start);
+            event.commit();
+        }
+    }
+
+    /**
+     * Reads and parses a level resource.
+     */
+    private static Level read(String filename) throws IOException, InvalidLevelException {
         logger.info(" Parsing level from file: {}", filename);
 
         InputStream input = LevelParser.class.getClassLoader().getResourceAsStream(filename);
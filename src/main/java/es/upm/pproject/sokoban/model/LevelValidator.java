@@ -1,6 +1,9 @@
 package es.upm.pproject.sokoban.model;
 
 import es.upm.pproject.sokoban.exceptions.InvalidLevelException;
+import es.upm.pproject.sokoban.monitoring.LatencyHistogram;
+import es.upm.pproject.sokoban.monitoring.LevelLoadEvent;
+import es.upm.pproject.sokoban.monitoring.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,6 +15,8 @@ public class LevelValidator {
     /** Logger for reporting validation status and errors. */
     private static final Logger logger = LoggerFactory.getLogger(LevelValidator.class);
 
+    private static final LatencyHistogram VALIDATE_TIME = Metrics.histogram(Metrics.LEVEL_VALIDATE);
+
     /**
      * Private constructor to prevent instantiation.
      */
@@ -28,17 +33,29 @@ public class LevelValidator {
      */
     public static void validate(Level level) throws InvalidLevelException {
         logger.info(" Validating level...");
-
-        // Count players, boxes and goals in the level
-        LevelStats stats = countElements(level);
-
-        // Validate number of players
-        validatePlayerCount(stats.players);
-
-        // Validate balance between boxes and goals
-        validateBoxGoalBalance(stats.boxes, stats.goals);
-
-        logger.info(" Level is valid: 1 player, {} boxes, {} goals", stats.boxes, stats.goals);
+        long start = System.nanoTime();
+        LevelLoadEvent event = new LevelLoadEvent();
+        event.begin();
+        event.phase = LevelLoadEvent.VALIDATE;
+        event.width = level.getWidth();
+        event.height = level.getHeight();
+        try {
+            // Count players, boxes and goals in the level
+            LevelStats stats = countElements(level);
+            event.boxes = stats.boxes;
+
+            // Validate number of players
+            validatePlayerCount(stats.players);
+
+            // Validate balance between boxes and goals
+            validateBoxGoalBalance(stats.boxes, stats.goals);
+
+            logger.info(" Level is valid: 1 player, {} boxes, {} goals", stats.boxes, stats.goals);
+            event.success = true;
+        } finally {
+            VALIDATE_TIME.record(System.nanoTime() - start);
+            event.commit();
+        }
     }
 
     /**
@@ -0,0 +1,160 @@
+package es.upm.pproject.sokoban.model;
+
+import java.util.Arrays;
+
+/**
+ * Compact, growable log of player moves.
+ *
+ * Each move takes a single byte: the two lowest bits hold the
+ * {@link Direction} code and {@link #PUSH} tells whether a box was pushed.
+ * That is all the information needed to undo a move on the board, so the
+ * log replaces one full board copy per move with one byte per move.
+ * {@link #CHAIN} marks moves applied in the same batch as the previous one,
+ * such as the steps of a walk, so that they are undone together.
+ */
+public class MoveLog {
+
+    /** Value returned when there is no move (blocked move, empty log). */
+    public static final byte NONE = -1;
+
+    /** Flag set on moves that pushed a box. */
+    public static final byte PUSH = 0x04;
+
+    /** Flag set on moves that belong to the same batch as the previous move. */
+    public static final byte CHAIN = 0x08;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Encoded moves, oldest first. */
+    private byte[] moves;
+
+    /** Number of moves stored. */
+    private int size;
+
+    /**
+     * Creates an empty move log.
+     */
+    public MoveLog() {
+        moves = new byte[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Creates a move log holding a copy of the given encoded moves.
+     *
+     * @param encoded moves encoded with {@link #encode(Direction, boolean)}
+     */
+    public MoveLog(byte[] encoded) {
+        moves = Arrays.copyOf(encoded, Math.max(INITIAL_CAPACITY, encoded.length));
+        size = encoded.length;
+    }
+
+    /**
+     * Encodes a move in a single byte.
+     *
+     * @param direction the direction of the move
+     * @param pushed    true if the move pushed a box
+     * @return the encoded move
+     */
+    public static byte encode(Direction direction, boolean pushed) {
+        return (byte) (direction.getCode() | (pushed ? PUSH : 0));
+    }
+
+    /**
+     * Checks whether an encoded move pushed a box.
+     *
+     * @param move the encoded move
+     * @return true if a box was pushed
+     */
+    public static boolean isPush(byte move) {
+        return (move & PUSH) != 0;
+    }
+
+    /**
+     * Marks an encoded move as part of the same batch as the previous move.
+     *
+     * @param move the encoded move
+     * @return the move with the {@link #CHAIN} flag set
+     */
+    public static byte chained(byte move) {
+        return (byte) (move | CHAIN);
+    }
+
+    /**
+     * Checks whether an encoded move belongs to the same batch as the
+     * previous move.
+     *
+     * @param move the encoded move, or {@link #NONE}
+     * @return true if the {@link #CHAIN} flag is set
+     */
+    public static boolean isChained(byte move) {
+        return move != NONE && (move & CHAIN) != 0;
+    }
+
+    /**
+     * Appends a move to the log.
+     *
+     * @param move the encoded move
+     */
+    public void add(byte move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    /**
+     * Removes and returns the most recent move.
+     *
+     * @return the last move, or {@link #NONE} if the log is empty
+     */
+    public byte removeLast() {
+        return size == 0 ? NONE : moves[--size];
+    }
+
+    /**
+     * Returns the move at the given position.
+     *
+     * @param index position of the move, 0 being the oldest
+     * @return the encoded move
+     */
+    public byte get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Move " + index + " out of " + size);
+        }
+        return moves[index];
+    }
+
+    /**
+     * Returns the number of moves in the log.
+     *
+     * @return the number of moves
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the log is empty.
+     *
+     * @return true if no moves are stored
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every move from the log.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Returns a copy of the encoded moves, oldest first.
+     *
+     * @return the encoded moves
+     */
+    public byte[] toArray() {
+        return Arrays.copyOf(moves, size);
+    }
+}
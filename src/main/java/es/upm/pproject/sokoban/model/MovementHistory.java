@@ -2,6 +2,7 @@ package es.upm.pproject.sokoban.model;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Deque;
 import java.util.List;
 
@@ -9,14 +10,49 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Manages the history of game states to support undo functionality.
- * Uses a stack to store previous GameState snapshots.
+ * Manages the history of the game to support undo and redo functionality.
+ * Regular moves are kept as one-byte deltas in a branching {@link UndoTree},
+ * so alternative lines survive an undo; a stack of full GameState snapshots
+ * is still available for restore points such as the start of a level or
+ * histories loaded from older save files.
+ *
+ * The history is bounded. When more than {@code maxInMemoryMoves} moves lie
+ * behind the current position, the oldest ones are spilled to a temporary
+ * file one checkpoint chunk of {@code checkpointInterval} moves at a time,
+ * and read back when undo reaches them; branches that leave the current line
+ * within a spilled chunk are dropped. Only the most recent
+ * {@code maxSnapshots} GameState snapshots are kept.
  */
 public class MovementHistory {
 
+    /** Default number of moves kept in memory behind the current position. */
+    public static final int DEFAULT_MAX_IN_MEMORY_MOVES = 8192;
+
+    /** Default number of moves per chunk spilled to disk. */
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 1024;
+
+    /** Default number of GameState snapshots kept. */
+    public static final int DEFAULT_MAX_SNAPSHOTS = 32;
+
+    /** Rough size of a tile and its entity in a GameState, in bytes. */
+    private static final int SNAPSHOT_BYTES_PER_CELL = 48;
+
     /** Stack that stores the sequence of game states. */
     private Deque<GameState> history;
 
+    /** Encoded moves made on top of the most recent snapshot. */
+    private UndoTree moves;
+
+    /** Memory budget of the recorded moves, in bytes. */
+    private long memoryBudget = UndoTree.DEFAULT_BUDGET_BYTES;
+
+    private int maxInMemoryMoves = DEFAULT_MAX_IN_MEMORY_MOVES;
+    private int checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+    private int maxSnapshots = DEFAULT_MAX_SNAPSHOTS;
+
+    /** Oldest moves of the current line, stored on disk. */
+    private HistorySpill spill = new HistorySpill();
+
     /** Logger for tracking history operations. */
     private static final Logger logger = LoggerFactory.getLogger(MovementHistory.class);
 
@@ -25,6 +61,7 @@ public class MovementHistory {
      */
     public MovementHistory() {
         history = new ArrayDeque<>();
+        moves = new UndoTree();
         logger.info(" Movement history initialized.");
     }
 
@@ -37,7 +74,184 @@ public class MovementHistory {
      *                     history
      */
     public MovementHistory(List<GameState> savedHistory) {
-        history = new ArrayDeque<>(savedHistory);
+        this(savedHistory, null);
+    }
+
+    /**
+     * Creates a new movement history from a saved list of game states and the
+     * encoded moves made after them.
+     *
+     * @param savedHistory a list of GameState instances, may be null
+     * @param savedMoves   moves encoded as in {@link MoveLog}, may be null
+     */
+    public MovementHistory(List<GameState> savedHistory, byte[] savedMoves) {
+        history = savedHistory != null ? new ArrayDeque<>(savedHistory) : new ArrayDeque<>();
+        moves = new UndoTree();
+        if (savedMoves != null) {
+            for (byte move : savedMoves) {
+                recordMove(move);
+            }
+        }
+    }
+
+    /**
+     * Records a move so that it can be undone later.
+     *
+     * @param move the move encoded as in {@link MoveLog}
+     */
+    public void recordMove(byte move) {
+        moves.record(move);
+        spillOldMoves();
+    }
+
+    /**
+     * Steps back over the most recent recorded move, keeping it for redo.
+     *
+     * @return the last move, or {@link MoveLog#NONE} if there are no recorded
+     *         moves left (older snapshots may still be available with pop)
+     */
+    public byte undoMove() {
+        byte move = moves.undo();
+        if (move == MoveLog.NONE && spill.getChunkCount() > 0) {
+            moves.prependOldest(spill.pop());
+            move = moves.undo();
+        }
+        return move;
+    }
+
+    /**
+     * Returns the next move of the preferred line after an undo.
+     *
+     * @return the move to apply again, or {@link MoveLog#NONE} if there is
+     *         nothing to redo
+     */
+    public byte redoMove() {
+        byte move = moves.redo();
+        spillOldMoves();
+        return move;
+    }
+
+    /**
+     * Returns the move that {@link #redoMove()} would return, without moving.
+     *
+     * @return the next move, or {@link MoveLog#NONE} if there is nothing to
+     *         redo
+     */
+    public byte peekRedo() {
+        return moves.peekRedo();
+    }
+
+    /**
+     * Returns the number of alternative lines that can be redone.
+     *
+     * @return the number of branches at the current position
+     */
+    public int getBranchCount() {
+        return moves.getBranchCount();
+    }
+
+    /**
+     * Selects the next branch to redo when several lines start here.
+     *
+     * @return true if another branch was selected
+     */
+    public boolean nextBranch() {
+        return moves.nextBranch();
+    }
+
+    /**
+     * Returns the recorded moves of the current line, oldest first.
+     *
+     * @return the encoded moves
+     */
+    public byte[] getMoves() {
+        byte[] line = moves.getCurrentLine();
+        if (spill.getMoveCount() == 0) {
+            return line;
+        }
+        byte[] spilled = spill.readAll();
+        byte[] all = Arrays.copyOf(spilled, spilled.length + line.length);
+        System.arraycopy(line, 0, all, spilled.length, line.length);
+        return all;
+    }
+
+    /**
+     * Returns the number of recorded moves on the current line.
+     *
+     * @return the number of moves that can be undone without snapshots
+     */
+    public int getMoveCount() {
+        return spill.getMoveCount() + moves.getDepth();
+    }
+
+    /**
+     * Sets how many moves are kept in memory and how they are spilled.
+     *
+     * @param maxInMemoryMoves   moves kept in memory behind the current
+     *                           position, at least twice the interval
+     * @param checkpointInterval moves per chunk spilled to disk
+     */
+    public void setLimits(int maxInMemoryMoves, int checkpointInterval) {
+        if (checkpointInterval <= 0 || maxInMemoryMoves < 2 * checkpointInterval) {
+            throw new IllegalArgumentException("The in-memory cap must hold at least two checkpoint intervals.");
+        }
+        this.maxInMemoryMoves = maxInMemoryMoves;
+        this.checkpointInterval = checkpointInterval;
+        spillOldMoves();
+    }
+
+    /**
+     * Sets how many GameState snapshots are kept. The oldest ones are dropped.
+     *
+     * @param maxSnapshots maximum number of snapshots
+     */
+    public void setMaxSnapshots(int maxSnapshots) {
+        this.maxSnapshots = maxSnapshots;
+        trimSnapshots();
+    }
+
+    /**
+     * Returns the number of moves stored on disk.
+     *
+     * @return the number of spilled moves
+     */
+    public int getSpilledMoveCount() {
+        return spill.getMoveCount();
+    }
+
+    /**
+     * Returns the estimated heap used by the whole history: the move tree,
+     * the index of the spilled chunks and the GameState snapshots.
+     *
+     * @return the estimated size in bytes
+     */
+    public long getMemoryUsage() {
+        long bytes = moves.getUsedBytes() + spill.getIndexBytes();
+        for (GameState state : history) {
+            Level level = state.getLevel();
+            bytes += (long) level.getWidth() * level.getHeight() * SNAPSHOT_BYTES_PER_CELL;
+        }
+        return bytes;
+    }
+
+    /**
+     * Sets the memory budget of the recorded moves. Old branches are
+     * collapsed when the budget is exceeded.
+     *
+     * @param budgetBytes maximum estimated memory, in bytes
+     */
+    public void setMemoryBudget(long budgetBytes) {
+        memoryBudget = budgetBytes;
+        moves.setBudget(budgetBytes);
+    }
+
+    /**
+     * Returns the estimated memory used by the recorded moves.
+     *
+     * @return the estimated size in bytes
+     */
+    public long getMovesBytes() {
+        return moves.getUsedBytes();
     }
 
     /**
@@ -48,6 +262,7 @@ public class MovementHistory {
     public void push(GameState state) {
         if (state != null) {
             history.push(state);
+            trimSnapshots();
             logger.info(" GameState pushed to history ({} total states).", history.size());
         } else {
             logger.warn(" Attempted to push null GameState.");
@@ -74,6 +289,9 @@ public class MovementHistory {
      */
     public void clear() {
         history.clear();
+        moves = new UndoTree(memoryBudget);
+        spill.close();
+        spill = new HistorySpill();
         logger.info(" Movement history cleared.");
     }
 
@@ -93,9 +311,30 @@ public class MovementHistory {
      * @return true if no states are stored, false otherwise
      */
     public boolean isEmpty() {
-        boolean empty = history.isEmpty();
+        boolean empty = history.isEmpty() && getMoveCount() == 0;
         logger.info(" History is empty: {}", empty);
         return empty;
     }
 
+    /**
+     * Moves the oldest checkpoint chunks to disk while too many moves are
+     * kept in memory. Branches leaving the current line within a chunk are
+     * dropped first, since only the current line is spilled.
+     */
+    private void spillOldMoves() {
+        while (moves.getDepth() > maxInMemoryMoves) {
+            moves.collapseOldest(checkpointInterval);
+            if (moves.getDetachableMoves() < checkpointInterval) {
+                return;
+            }
+            spill.push(moves.detachOldest(checkpointInterval));
+        }
+    }
+
+    private void trimSnapshots() {
+        while (history.size() > maxSnapshots) {
+            history.removeLast();
+        }
+    }
+
 }
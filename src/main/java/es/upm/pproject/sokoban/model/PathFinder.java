@@ -0,0 +1,160 @@
+package es.upm.pproject.sokoban.model;
+
+import java.util.Arrays;
+
+/**
+ * Breadth-first search of walking routes on a level.
+ *
+ * The search runs over primitive arrays indexed by {@code row * width + col}
+ * that are kept between searches. Instead of clearing them, every search
+ * uses a new generation number, and a cell counts as visited only if it was
+ * stamped with the current generation. A search therefore allocates nothing
+ * but the returned route.
+ */
+public class PathFinder {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private int width;
+
+    /** Generation in which each cell was last visited. */
+    private int[] visited = new int[0];
+
+    /** Code of the direction used to reach each cell. */
+    private byte[] via = new byte[0];
+
+    /** Cells waiting to be expanded, in order. */
+    private int[] queue = new int[0];
+
+    private int generation;
+
+    /** Cell of a box being moved by a plan, treated as free, or -1. */
+    private int movedFrom = -1;
+
+    /** Cell where that box currently is in the plan, treated as blocked, or -1. */
+    private int movedTo = -1;
+
+    /**
+     * Finds the shortest walk between two cells that does not push any box.
+     *
+     * @param level   the level to search
+     * @param fromRow the row of the player
+     * @param fromCol the column of the player
+     * @param toRow   the row of the destination
+     * @param toCol   the column of the destination
+     * @return the directions of the walk, empty if both cells are the same, or
+     *         null if the destination cannot be reached without pushing
+     */
+    public Direction[] findWalk(Level level, int fromRow, int fromCol, int toRow, int toCol) {
+        return findWalk(level, fromRow, fromCol, toRow, toCol, -1, -1);
+    }
+
+    /**
+     * Finds the shortest walk as if one box of the level had been moved,
+     * which lets a push plan walk between pushes without touching the level.
+     *
+     * @param level     the level to search
+     * @param fromRow   the row of the player
+     * @param fromCol   the column of the player
+     * @param toRow     the row of the destination
+     * @param toCol     the column of the destination
+     * @param boxFrom   the cell ({@code row * width + col}) the box is on in
+     *                  the level, or -1
+     * @param boxTo     the cell the box is assumed to be on instead, or -1
+     * @return the directions of the walk, or null if there is none
+     */
+    Direction[] findWalk(Level level, int fromRow, int fromCol, int toRow, int toCol, int boxFrom, int boxTo) {
+        movedFrom = boxFrom;
+        movedTo = boxTo;
+        if (fromRow == toRow && fromCol == toCol) {
+            return new Direction[0];
+        }
+        if (!isFree(level, toRow, toCol)) {
+            return null;
+        }
+        prepare(level);
+
+        int start = fromRow * width + fromCol;
+        int target = toRow * width + toCol;
+        int head = 0;
+        int tail = 0;
+        visited[start] = generation;
+        queue[tail++] = start;
+
+        while (head < tail) {
+            int cell = queue[head++];
+            int row = cell / width;
+            int col = cell % width;
+            for (Direction direction : DIRECTIONS) {
+                int nextRow = row + direction.getDy();
+                int nextCol = col + direction.getDx();
+                if (!isFree(level, nextRow, nextCol)) {
+                    continue;
+                }
+                int next = nextRow * width + nextCol;
+                if (visited[next] == generation) {
+                    continue;
+                }
+                visited[next] = generation;
+                via[next] = direction.getCode();
+                if (next == target) {
+                    return route(start, target);
+                }
+                queue[tail++] = next;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Follows the directions stored during the search back from the target.
+     */
+    private Direction[] route(int start, int target) {
+        int length = 0;
+        for (int cell = target; cell != start; length++) {
+            Direction direction = Direction.fromCode(via[cell]);
+            cell -= direction.getDy() * width + direction.getDx();
+        }
+        Direction[] route = new Direction[length];
+        for (int cell = target; cell != start;) {
+            Direction direction = Direction.fromCode(via[cell]);
+            route[--length] = direction;
+            cell -= direction.getDy() * width + direction.getDx();
+        }
+        return route;
+    }
+
+    /**
+     * Resizes the arrays to the level if needed and starts a new generation.
+     */
+    private void prepare(Level level) {
+        width = level.getWidth();
+        int cells = width * level.getHeight();
+        if (visited.length < cells) {
+            visited = new int[cells];
+            via = new byte[cells];
+            queue = new int[cells];
+            generation = 0;
+        }
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(visited, 0);
+            generation = 1;
+        }
+    }
+
+    /**
+     * Checks whether the player can stand on a cell without pushing.
+     */
+    private boolean isFree(Level level, int row, int col) {
+        if (!level.isFloor(row, col)) {
+            return false;
+        }
+        int cell = row * level.getWidth() + col;
+        if (cell == movedTo) {
+            return false;
+        }
+        Entity entity = ((FloorTile) level.getTile(row, col)).getEntity();
+        return entity == null || entity instanceof Player || cell == movedFrom;
+    }
+}
@@ -0,0 +1,226 @@
+package es.upm.pproject.sokoban.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Plans the moves needed to push one box to a given cell.
+ *
+ * The search is a breadth-first search over pushes. A state is the cell of
+ * the box together with the side the player stands on, and states whose
+ * player sides lie in the same region of free cells are expanded only once:
+ * expanding a state floods the region reachable by the player around the
+ * box and marks every side of the box inside it as visited. The plan found
+ * therefore uses the fewest pushes, and the walks between pushes are then
+ * filled in with {@link PathFinder}.
+ *
+ * Like {@link PathFinder}, the planner keeps its arrays between searches and
+ * only needs a new generation number to forget the previous one.
+ */
+public class PushPlanner {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final PathFinder walker = new PathFinder();
+
+    private int width;
+    private int generation;
+
+    /** Generation in which each (box cell, side) state was visited. */
+    private int[] visited = new int[0];
+
+    /** Generation in which each state was expanded or found equivalent to an expanded one. */
+    private int[] closed = new int[0];
+
+    /** State from which each state was reached, or -1 for the start. */
+    private int[] parent = new int[0];
+
+    /** States waiting to be expanded, in order. */
+    private int[] queue = new int[0];
+
+    /** Generation in which each cell was reached by the current flood. */
+    private int[] region = new int[0];
+    private int regionGeneration;
+    private int[] regionQueue = new int[0];
+
+    /**
+     * Plans the moves that take a box to a destination cell.
+     *
+     * @param level     the level, left untouched
+     * @param playerRow the row of the player
+     * @param playerCol the column of the player
+     * @param boxRow    the row of the box to move
+     * @param boxCol    the column of the box to move
+     * @param toRow     the row of the destination
+     * @param toCol     the column of the destination
+     * @return the directions to move in, walks and pushes included, empty if
+     *         the box is already there, or null if it cannot be pushed there
+     */
+    public Direction[] plan(Level level, int playerRow, int playerCol, int boxRow, int boxCol, int toRow,
+            int toCol) {
+        if (!level.isFloor(boxRow, boxCol)
+                || !(((FloorTile) level.getTile(boxRow, boxCol)).getEntity() instanceof Box)) {
+            return null;
+        }
+        if (boxRow == toRow && boxCol == toCol) {
+            return new Direction[0];
+        }
+        prepare(level);
+        int origin = boxRow * width + boxCol;
+        int target = toRow * width + toCol;
+        if (!isFree(level, target, origin, -1)) {
+            return null;
+        }
+
+        int head = 0;
+        int tail = 0;
+        int player = playerRow * width + playerCol;
+        int box = origin;
+        int state = -1;
+        do {
+            if (state >= 0) {
+                if (closed[state] == generation) {
+                    state = head < tail ? queue[head++] : -1;
+                    continue;
+                }
+                box = state >> 2;
+                player = box - step(DIRECTIONS[state & 3]);
+            }
+            flood(level, player, origin, box);
+            for (Direction direction : DIRECTIONS) {
+                if (isNeighbour(box, direction.opposite()) && isInRegion(box - step(direction))) {
+                    // Any state with the player in this region is the same state
+                    closed[box * 4 + direction.getCode()] = generation;
+                }
+            }
+            for (Direction direction : DIRECTIONS) {
+                int side = box - step(direction);
+                int next = box + step(direction);
+                if (!isNeighbour(box, direction.opposite()) || !isInRegion(side)
+                        || !isNeighbour(box, direction) || !isFree(level, next, origin, box)) {
+                    continue;
+                }
+                int pushedState = next * 4 + direction.getCode();
+                if (visited[pushedState] == generation) {
+                    continue;
+                }
+                visited[pushedState] = generation;
+                parent[pushedState] = state;
+                if (next == target) {
+                    return buildMoves(level, playerRow, playerCol, origin, pushedState);
+                }
+                queue[tail++] = pushedState;
+            }
+            state = head < tail ? queue[head++] : -1;
+        } while (state >= 0);
+        return null;
+    }
+
+    /**
+     * Turns the chain of pushes ending in the given state into moves,
+     * walking to the right side of the box before each push.
+     */
+    private Direction[] buildMoves(Level level, int playerRow, int playerCol, int origin, int last) {
+        List<Integer> pushes = new ArrayList<>();
+        for (int state = last; state >= 0; state = parent[state]) {
+            pushes.add(state);
+        }
+
+        List<Direction> moves = new ArrayList<>();
+        int player = playerRow * width + playerCol;
+        int box = origin;
+        for (int i = pushes.size() - 1; i >= 0; i--) {
+            Direction direction = DIRECTIONS[pushes.get(i) & 3];
+            int side = box - step(direction);
+            Direction[] walk = walker.findWalk(level, player / width, player % width, side / width,
+                    side % width, origin, box);
+            moves.addAll(Arrays.asList(walk));
+            moves.add(direction);
+            player = box;
+            box += step(direction);
+        }
+        return moves.toArray(new Direction[0]);
+    }
+
+    /**
+     * Marks every cell the player can reach while the box is on the given
+     * cell.
+     */
+    private void flood(Level level, int player, int origin, int box) {
+        regionGeneration++;
+        if (regionGeneration == Integer.MAX_VALUE) {
+            Arrays.fill(region, 0);
+            regionGeneration = 1;
+        }
+        int head = 0;
+        int tail = 0;
+        region[player] = regionGeneration;
+        regionQueue[tail++] = player;
+        while (head < tail) {
+            int cell = regionQueue[head++];
+            for (Direction direction : DIRECTIONS) {
+                int next = cell + step(direction);
+                if (!isNeighbour(cell, direction) || !isFree(level, next, origin, box)
+                        || region[next] == regionGeneration) {
+                    continue;
+                }
+                region[next] = regionGeneration;
+                regionQueue[tail++] = next;
+            }
+        }
+    }
+
+    private boolean isInRegion(int cell) {
+        return cell >= 0 && cell < region.length && region[cell] == regionGeneration;
+    }
+
+    /**
+     * Checks that a step from a cell stays on the same row or column.
+     */
+    private boolean isNeighbour(int cell, Direction direction) {
+        int col = cell % width + direction.getDx();
+        return col >= 0 && col < width;
+    }
+
+    private int step(Direction direction) {
+        return direction.getDy() * width + direction.getDx();
+    }
+
+    /**
+     * Checks whether a cell holds nothing but floor, the player, or the box
+     * being moved, which is assumed to be on {@code box} instead.
+     */
+    private boolean isFree(Level level, int cell, int origin, int box) {
+        int row = Math.floorDiv(cell, width);
+        int col = Math.floorMod(cell, width);
+        if (cell == box || !level.isFloor(row, col)) {
+            return false;
+        }
+        Entity entity = ((FloorTile) level.getTile(row, col)).getEntity();
+        return entity == null || entity instanceof Player || cell == origin;
+    }
+
+    /**
+     * Resizes the arrays to the level if needed and starts a new generation.
+     */
+    private void prepare(Level level) {
+        width = level.getWidth();
+        int cells = width * level.getHeight();
+        if (region.length < cells) {
+            visited = new int[cells * 4];
+            closed = new int[cells * 4];
+            parent = new int[cells * 4];
+            queue = new int[cells * 4];
+            region = new int[cells];
+            regionQueue = new int[cells];
+            generation = 0;
+            regionGeneration = 0;
+        }
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(visited, 0);
+            generation = 1;
+        }
+    }
+}
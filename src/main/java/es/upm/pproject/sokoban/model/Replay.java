@@ -0,0 +1,345 @@
+package es.upm.pproject.sokoban.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recording of the moves played on a level, used by the replay viewer.
+ *
+ * The recording is the stream of encoded moves of a {@link MoveLog} plus a
+ * keyframe (the board packed as in {@link GameSnapshot}) every
+ * {@code keyframeInterval} moves. Seeking to any move only needs the nearest
+ * keyframe and at most {@code keyframeInterval} moves on top of it, without
+ * keeping a full board copy per move.
+ *
+ * The keyframes are kept within a byte budget. Once they go over it, every
+ * other keyframe is dropped and the interval doubles, so a long session on
+ * a large board costs longer seeks instead of an unbounded heap.
+ *
+ * Undoing a move also removes it from the recording, so a replay shows the
+ * line of play that is currently on the board.
+ */
+public class Replay {
+
+    /** Default number of moves between two keyframes. */
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 64;
+
+    /** Default memory budget of the keyframes, in bytes. */
+    public static final long DEFAULT_KEYFRAME_BUDGET_BYTES = 4L * 1024 * 1024;
+
+    /** Estimated heap of a keyframe besides its cells: objects, array header and list slot. */
+    private static final int KEYFRAME_OVERHEAD_BYTES = 48;
+
+    private final int width;
+    private final int height;
+    private final long keyframeBudget;
+    private int keyframeInterval;
+    private long keyframeBytes;
+    private final MoveLog moves = new MoveLog();
+
+    /** Keyframe k holds the board after k * keyframeInterval moves. */
+    private final List<Keyframe> keyframes = new ArrayList<>();
+
+    /**
+     * Board state at a given point of the recording.
+     */
+    private static final class Keyframe {
+        private final byte[] cells;
+        private final int playerRow;
+        private final int playerCol;
+
+        private Keyframe(byte[] cells, int playerRow, int playerCol) {
+            this.cells = cells;
+            this.playerRow = playerRow;
+            this.playerCol = playerCol;
+        }
+    }
+
+    /**
+     * Starts a recording from the given board.
+     *
+     * @param initial          the board before the first move
+     * @param playerRow        the row of the player
+     * @param playerCol        the column of the player
+     * @param keyframeInterval number of moves between two keyframes
+     */
+    public Replay(Level initial, int playerRow, int playerCol, int keyframeInterval) {
+        this(initial, playerRow, playerCol, keyframeInterval, DEFAULT_KEYFRAME_BUDGET_BYTES);
+    }
+
+    /**
+     * Starts a recording from the given board, with the given memory budget
+     * for its keyframes.
+     *
+     * @param initial          the board before the first move
+     * @param playerRow        the row of the player
+     * @param playerCol        the column of the player
+     * @param keyframeInterval initial number of moves between two keyframes
+     * @param keyframeBudget   estimated memory the keyframes may use, in bytes
+     */
+    public Replay(Level initial, int playerRow, int playerCol, int keyframeInterval, long keyframeBudget) {
+        if (keyframeInterval <= 0) {
+            throw new IllegalArgumentException("Keyframe interval must be positive.");
+        }
+        this.width = initial.getWidth();
+        this.height = initial.getHeight();
+        this.keyframeInterval = keyframeInterval;
+        this.keyframeBudget = keyframeBudget;
+        addKeyframe(initial, playerRow, playerCol);
+    }
+
+    /**
+     * Rebuilds the recording of a level in progress from its current board
+     * and the moves that led to it, e.g. after loading a game.
+     *
+     * @param current          the current board, left untouched
+     * @param playerRow        the current row of the player
+     * @param playerCol        the current column of the player
+     * @param played           the moves played since the start, oldest first
+     * @param keyframeInterval number of moves between two keyframes
+     * @return the recording of the played moves
+     */
+    public static Replay rebuild(Level current, int playerRow, int playerCol, byte[] played,
+            int keyframeInterval) {
+        Level board = GameSnapshot.unpackCells(current.getWidth(), current.getHeight(),
+                GameSnapshot.packCells(current));
+        int row = playerRow;
+        int col = playerCol;
+        for (int i = played.length - 1; i >= 0; i--) {
+            Direction direction = Direction.fromCode(played[i]);
+            board.revertMove(row, col, played[i]);
+            row -= direction.getDy();
+            col -= direction.getDx();
+        }
+
+        Replay replay = new Replay(board, row, col, keyframeInterval);
+        for (byte move : played) {
+            Direction direction = Direction.fromCode(move);
+            board.applyMove(row, col, direction);
+            row += direction.getDy();
+            col += direction.getDx();
+            replay.record(move, board, row, col);
+        }
+        return replay;
+    }
+
+    /**
+     * Appends a move to the recording.
+     *
+     * @param move      the encoded move
+     * @param board     the board after the move, used to take keyframes
+     * @param playerRow the row of the player after the move
+     * @param playerCol the column of the player after the move
+     */
+    public void record(byte move, Level board, int playerRow, int playerCol) {
+        moves.add(move);
+        if (moves.size() % keyframeInterval == 0) {
+            addKeyframe(board, playerRow, playerCol);
+            // The first keyframe and one more are always kept
+            while (keyframeBytes > keyframeBudget && keyframes.size() > 2) {
+                thinKeyframes();
+            }
+        }
+    }
+
+    private void addKeyframe(Level board, int playerRow, int playerCol) {
+        keyframes.add(new Keyframe(GameSnapshot.packCells(board), playerRow, playerCol));
+        keyframeBytes += keyframeSize();
+    }
+
+    /**
+     * Drops every other keyframe and doubles the interval, so that keyframe
+     * k still holds the board after k * keyframeInterval moves.
+     */
+    private void thinKeyframes() {
+        int kept = 0;
+        for (int i = 0; i < keyframes.size(); i += 2) {
+            keyframes.set(kept++, keyframes.get(i));
+        }
+        keyframes.subList(kept, keyframes.size()).clear();
+        keyframeInterval *= 2;
+        keyframeBytes = (long) kept * keyframeSize();
+    }
+
+    private long keyframeSize() {
+        return (long) width * height + KEYFRAME_OVERHEAD_BYTES;
+    }
+
+    /**
+     * Removes the last move from the recording, after it was undone.
+     */
+    public void undo() {
+        if (moves.isEmpty()) {
+            return;
+        }
+        if (moves.size() % keyframeInterval == 0) {
+            keyframes.remove(keyframes.size() - 1);
+            keyframeBytes -= keyframeSize();
+        }
+        moves.removeLast();
+    }
+
+    /**
+     * Returns the number of recorded moves.
+     *
+     * @return the number of moves
+     */
+    public int size() {
+        return moves.size();
+    }
+
+    /**
+     * Returns the number of keyframes held, including the initial board.
+     *
+     * @return the number of keyframes
+     */
+    public int getKeyframeCount() {
+        return keyframes.size();
+    }
+
+    /**
+     * Returns the current number of moves between two keyframes, which
+     * doubles each time the keyframes go over their budget.
+     *
+     * @return the keyframe interval
+     */
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    /**
+     * Returns the estimated heap used by the recording: the moves and the
+     * keyframes.
+     *
+     * @return the estimated size in bytes
+     */
+    public long getMemoryUsage() {
+        return moves.size() + keyframeBytes;
+    }
+
+    /**
+     * Creates a cursor positioned at the start of the recording.
+     *
+     * @return a new cursor
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Playback position over a recording. The cursor owns a working board
+     * that is updated in place while stepping or seeking.
+     */
+    public final class Cursor {
+        private final Level board;
+        private int playerRow;
+        private int playerCol;
+        private int index;
+
+        private Cursor() {
+            Keyframe first = keyframes.get(0);
+            board = GameSnapshot.unpackCells(width, height, first.cells);
+            playerRow = first.playerRow;
+            playerCol = first.playerCol;
+        }
+
+        /**
+         * Returns the board at the current position. The same level instance
+         * is updated by every later step or seek.
+         *
+         * @return the working board
+         */
+        public Level getLevel() {
+            return board;
+        }
+
+        /**
+         * Returns the number of moves applied on the board.
+         *
+         * @return the current move index
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * Returns the number of moves of the recording.
+         *
+         * @return the length of the recording
+         */
+        public int length() {
+            return moves.size();
+        }
+
+        /**
+         * Applies the next recorded move.
+         *
+         * @return false if the end of the recording was already reached
+         */
+        public boolean step() {
+            if (index >= moves.size()) {
+                return false;
+            }
+            byte move = moves.get(index++);
+            Direction direction = Direction.fromCode(move);
+            board.applyMove(playerRow, playerCol, direction);
+            playerRow += direction.getDy();
+            playerCol += direction.getDx();
+            return true;
+        }
+
+        /**
+         * Moves the cursor to the given move index. Depending on which is
+         * shorter, the cursor steps forward, steps back reverting moves, or
+         * restores the nearest keyframe and fast-forwards from it.
+         *
+         * @param target the move index to seek to, clamped to the recording
+         */
+        public void seek(int target) {
+            target = Math.max(0, Math.min(target, moves.size()));
+            int keyframe = target / keyframeInterval;
+            int fromKeyframe = target - keyframe * keyframeInterval;
+            int distance = Math.abs(target - index);
+
+            if (fromKeyframe < distance) {
+                restore(keyframe);
+            }
+            while (index > target) {
+                byte move = moves.get(--index);
+                Direction direction = Direction.fromCode(move);
+                board.revertMove(playerRow, playerCol, move);
+                playerRow -= direction.getDy();
+                playerCol -= direction.getDx();
+            }
+            while (index < target) {
+                step();
+            }
+        }
+
+        /**
+         * Overwrites the entities of the working board with a keyframe.
+         */
+        private void restore(int keyframe) {
+            Keyframe frame = keyframes.get(keyframe);
+            for (int row = 0; row < height; row++) {
+                for (int col = 0; col < width; col++) {
+                    Tile tile = board.getTile(row, col);
+                    if (tile instanceof FloorTile) {
+                        FloorTile floor = (FloorTile) tile;
+                        byte cell = frame.cells[row * width + col];
+                        if ((cell & GameSnapshot.BOX) != 0) {
+                            floor.setEntity(floor.getEntity() instanceof Box ? floor.getEntity() : new Box());
+                        } else if ((cell & GameSnapshot.PLAYER) != 0) {
+                            floor.setEntity(floor.getEntity() instanceof Player ? floor.getEntity() : new Player());
+                        } else {
+                            floor.setEntity(null);
+                        }
+                    }
+                }
+            }
+            playerRow = frame.playerRow;
+            playerCol = frame.playerCol;
+            index = keyframe * keyframeInterval;
+        }
+    }
+}
@@ -27,6 +27,9 @@ public class SaveData implements Serializable {
 
     private int totalScore;
 
+    /** Moves made after the last snapshot of the history, encoded as in {@link MoveLog}. */
+    private byte[] moves;
+
     /**
      * Constructs a SaveData instance with the provided current state and movement
      * history.
@@ -65,6 +68,19 @@ public class SaveData implements Serializable {
         return history;
     }
 
+    /**
+     * Retrieves the saved moves that can be undone after loading.
+     *
+     * @return the encoded moves, or null for saves made before moves were stored
+     */
+    public byte[] getMoves() {
+        return moves;
+    }
+
+    public void setMoves(byte[] moves) {
+        this.moves = moves;
+    }
+
     public int getCurrentLevel() {
         return currentLevel;
     }
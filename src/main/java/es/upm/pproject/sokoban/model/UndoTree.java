@@ -0,0 +1,459 @@
+package es.upm.pproject.sokoban.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Branching undo/redo history of encoded moves.
+ *
+ * Moves are stored as the one-byte codes of {@link MoveLog}. The tree is made
+ * of segments: each node holds a run of consecutive moves, and branches only
+ * start at the end of a segment, so every line of play shares its common
+ * prefix with the others. Playing a different move after an undo splits the
+ * segment and opens a new branch instead of discarding the old line.
+ *
+ * The tree keeps an estimate of the memory it uses. When it goes over its
+ * budget, the least recently visited branches that are not part of the
+ * current line are dropped, and a node left with a single child is merged
+ * with it.
+ */
+public class UndoTree {
+
+    /** Default memory budget, in bytes. */
+    public static final long DEFAULT_BUDGET_BYTES = 1L << 20;
+
+    /** Estimated bytes taken by a node besides its moves. */
+    static final int NODE_OVERHEAD = 64;
+
+    private static final int INITIAL_SEGMENT = 16;
+
+    /**
+     * Segment of consecutive moves.
+     */
+    private static final class Node {
+        private Node parent;
+        private byte[] moves = new byte[INITIAL_SEGMENT];
+        private int length;
+        private List<Node> children;
+        private Node preferred;
+        private long lastUsed;
+
+        private Node(Node parent) {
+            this.parent = parent;
+        }
+
+        private boolean hasChildren() {
+            return children != null && !children.isEmpty();
+        }
+    }
+
+    private final Node root = new Node(null);
+
+    /** Current position: after the first {@code offset} moves of {@code node}. */
+    private Node node = root;
+    private int offset;
+
+    /** Number of moves between the root and the current position. */
+    private int depth;
+
+    private long budget;
+    private long usedBytes = NODE_OVERHEAD + INITIAL_SEGMENT;
+    private long clock;
+    private int nodeCount = 1;
+
+    /**
+     * Creates an empty tree with the default memory budget.
+     */
+    public UndoTree() {
+        this(DEFAULT_BUDGET_BYTES);
+    }
+
+    /**
+     * Creates an empty tree with the given memory budget.
+     *
+     * @param budgetBytes maximum estimated memory, in bytes
+     */
+    public UndoTree(long budgetBytes) {
+        this.budget = budgetBytes;
+    }
+
+    /**
+     * Records a move played at the current position. If the same move
+     * already follows the current position, it is simply redone.
+     *
+     * @param move the encoded move
+     */
+    public void record(byte move) {
+        if (offset < node.length) {
+            if (node.moves[offset] == move) {
+                offset++;
+                depth++;
+                touch(node);
+                return;
+            }
+            split(node, offset);
+        }
+
+        if (!node.hasChildren()) {
+            append(node, move);
+            offset++;
+        } else {
+            Node next = null;
+            for (Node child : node.children) {
+                if (child.moves[0] == move) {
+                    next = child;
+                    break;
+                }
+            }
+            if (next == null) {
+                next = new Node(node);
+                append(next, move);
+                node.children.add(next);
+                nodeCount++;
+                usedBytes += NODE_OVERHEAD;
+            }
+            node.preferred = next;
+            node = next;
+            offset = 1;
+        }
+        depth++;
+        touch(node);
+        enforceBudget();
+    }
+
+    /**
+     * Steps back over the last move of the current line.
+     *
+     * @return the move to revert, or {@link MoveLog#NONE} at the root
+     */
+    public byte undo() {
+        if (offset == 0) {
+            return MoveLog.NONE;
+        }
+        byte move = node.moves[--offset];
+        depth--;
+        if (offset == 0 && node != root) {
+            node.parent.preferred = node;
+            node = node.parent;
+            offset = node.length;
+        }
+        touch(node);
+        return move;
+    }
+
+    /**
+     * Steps forward along the preferred line, the most recently visited one.
+     *
+     * @return the move to apply again, or {@link MoveLog#NONE} at a leaf
+     */
+    public byte redo() {
+        if (offset < node.length) {
+            depth++;
+            return node.moves[offset++];
+        }
+        if (node.preferred == null) {
+            return MoveLog.NONE;
+        }
+        node = node.preferred;
+        offset = 1;
+        depth++;
+        touch(node);
+        return node.moves[0];
+    }
+
+    /**
+     * Returns the move that {@link #redo()} would apply, without moving.
+     *
+     * @return the next move, or {@link MoveLog#NONE} at a leaf
+     */
+    public byte peekRedo() {
+        if (offset < node.length) {
+            return node.moves[offset];
+        }
+        return node.preferred != null ? node.preferred.moves[0] : MoveLog.NONE;
+    }
+
+    /**
+     * Returns the number of lines that can be redone from the current position.
+     *
+     * @return 0 at a leaf, 1 inside a segment, the number of branches otherwise
+     */
+    public int getBranchCount() {
+        if (offset < node.length) {
+            return 1;
+        }
+        return node.hasChildren() ? node.children.size() : 0;
+    }
+
+    /**
+     * Selects the next branch to be followed by {@link #redo()} when several
+     * branches start at the current position.
+     *
+     * @return true if another branch was selected
+     */
+    public boolean nextBranch() {
+        if (getBranchCount() < 2) {
+            return false;
+        }
+        int index = node.children.indexOf(node.preferred);
+        node.preferred = node.children.get((index + 1) % node.children.size());
+        return true;
+    }
+
+    /**
+     * Returns the number of moves between the start and the current position.
+     *
+     * @return the depth of the current position
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the moves of the current line, from the start to the current
+     * position.
+     *
+     * @return the encoded moves, oldest first
+     */
+    public byte[] getCurrentLine() {
+        byte[] line = new byte[depth];
+        int end = depth;
+        int count = offset;
+        for (Node n = node; n != null; n = n.parent) {
+            end -= count;
+            System.arraycopy(n.moves, 0, line, end, count);
+            count = n.parent != null ? n.parent.length : 0;
+        }
+        return line;
+    }
+
+    /**
+     * Returns the estimated memory used by the tree.
+     *
+     * @return the estimated size in bytes
+     */
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * Returns the number of segments in the tree.
+     *
+     * @return the number of nodes
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Returns how many of the oldest moves can be detached from the tree:
+     * the moves of the first segment that lie before the current position.
+     * Branches never start inside that segment, so those moves are shared by
+     * every line of the tree.
+     *
+     * @return the number of detachable moves
+     */
+    public int getDetachableMoves() {
+        return node == root ? offset : root.length;
+    }
+
+    /**
+     * Drops the branches that leave the current line among its oldest moves,
+     * until at least {@code count} moves are detachable or the current
+     * position is reached. The first segment is merged with the next one of
+     * the current line each time.
+     *
+     * @param count number of moves that should become detachable
+     */
+    public void collapseOldest(int count) {
+        while (node != root && root.length < count) {
+            Node kept = node;
+            while (kept.parent != root) {
+                kept = kept.parent;
+            }
+            for (Node child : root.children) {
+                if (child != kept) {
+                    release(child);
+                }
+            }
+            root.children = new ArrayList<>();
+            root.children.add(kept);
+            merge(root);
+        }
+    }
+
+    /**
+     * Detaches the oldest moves of the tree, e.g. to store them elsewhere.
+     *
+     * @param count number of moves, at most {@link #getDetachableMoves()}
+     * @return the detached moves, oldest first
+     */
+    public byte[] detachOldest(int count) {
+        if (count < 0 || count > getDetachableMoves()) {
+            throw new IllegalArgumentException("Cannot detach " + count + " moves.");
+        }
+        byte[] oldest = Arrays.copyOf(root.moves, count);
+        System.arraycopy(root.moves, count, root.moves, 0, root.length - count);
+        root.length -= count;
+        if (node == root) {
+            offset -= count;
+        }
+        depth -= count;
+        return oldest;
+    }
+
+    /**
+     * Puts back moves detached with {@link #detachOldest(int)} in front of
+     * the oldest move of the tree.
+     *
+     * @param older the moves to put back, oldest first
+     */
+    public void prependOldest(byte[] older) {
+        if (root.length + older.length > root.moves.length) {
+            byte[] grown = new byte[Math.max(root.moves.length * 2, root.length + older.length)];
+            usedBytes += grown.length - root.moves.length;
+            System.arraycopy(root.moves, 0, grown, 0, root.length);
+            root.moves = grown;
+        }
+        System.arraycopy(root.moves, 0, root.moves, older.length, root.length);
+        System.arraycopy(older, 0, root.moves, 0, older.length);
+        root.length += older.length;
+        if (node == root) {
+            offset += older.length;
+        }
+        depth += older.length;
+    }
+
+    /**
+     * Changes the memory budget, dropping old branches if needed.
+     *
+     * @param budgetBytes maximum estimated memory, in bytes
+     */
+    public void setBudget(long budgetBytes) {
+        this.budget = budgetBytes;
+        enforceBudget();
+    }
+
+    private void touch(Node n) {
+        n.lastUsed = ++clock;
+    }
+
+    private void append(Node n, byte move) {
+        if (n.length == n.moves.length) {
+            usedBytes += n.moves.length;
+            n.moves = Arrays.copyOf(n.moves, n.moves.length * 2);
+        }
+        n.moves[n.length++] = move;
+    }
+
+    /**
+     * Splits a node so that a branch can start at the given offset.
+     */
+    private void split(Node n, int at) {
+        Node tail = new Node(n);
+        tail.moves = Arrays.copyOfRange(n.moves, at, Math.max(n.length, at + INITIAL_SEGMENT));
+        tail.length = n.length - at;
+        tail.children = n.children;
+        tail.preferred = n.preferred;
+        tail.lastUsed = n.lastUsed;
+        if (tail.children != null) {
+            for (Node child : tail.children) {
+                child.parent = tail;
+            }
+        }
+        n.length = at;
+        n.children = new ArrayList<>();
+        n.children.add(tail);
+        n.preferred = tail;
+        nodeCount++;
+        usedBytes += NODE_OVERHEAD + tail.moves.length;
+    }
+
+    /**
+     * Drops least recently used branches outside the current line until the
+     * tree fits its budget again.
+     */
+    private void enforceBudget() {
+        while (usedBytes > budget) {
+            Node victim = findOldestLeaf(root, null);
+            if (victim == null) {
+                return;
+            }
+            Node parent = victim.parent;
+            parent.children.remove(victim);
+            nodeCount--;
+            usedBytes -= NODE_OVERHEAD + victim.moves.length;
+            if (parent.preferred == victim) {
+                parent.preferred = parent.children.isEmpty() ? null : parent.children.get(0);
+            }
+            if (parent.children.size() == 1) {
+                merge(parent);
+            }
+        }
+    }
+
+    /**
+     * Finds the least recently used leaf that is not on the current line.
+     */
+    private Node findOldestLeaf(Node n, Node best) {
+        if (!n.hasChildren()) {
+            if (n != root && !isOnCurrentLine(n) && (best == null || n.lastUsed < best.lastUsed)) {
+                return n;
+            }
+            return best;
+        }
+        for (Node child : n.children) {
+            best = findOldestLeaf(child, best);
+        }
+        return best;
+    }
+
+    /**
+     * Discounts a dropped branch and everything below it.
+     */
+    private void release(Node n) {
+        nodeCount--;
+        usedBytes -= NODE_OVERHEAD + n.moves.length;
+        if (n.hasChildren()) {
+            for (Node child : n.children) {
+                release(child);
+            }
+        }
+    }
+
+    private boolean isOnCurrentLine(Node n) {
+        for (Node current = node; current != null; current = current.parent) {
+            if (current == n) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Merges a node with its only child, collapsing the branch point.
+     */
+    private void merge(Node n) {
+        Node child = n.children.get(0);
+        int oldLength = n.length;
+        usedBytes -= NODE_OVERHEAD + n.moves.length + child.moves.length;
+        n.moves = Arrays.copyOf(n.moves, oldLength + child.length + INITIAL_SEGMENT);
+        System.arraycopy(child.moves, 0, n.moves, oldLength, child.length);
+        n.length = oldLength + child.length;
+        usedBytes += n.moves.length;
+        n.children = child.children;
+        n.preferred = child.preferred;
+        n.lastUsed = Math.max(n.lastUsed, child.lastUsed);
+        if (n.children != null) {
+            for (Node grandChild : n.children) {
+                grandChild.parent = n;
+            }
+        }
+        nodeCount--;
+        if (node == child) {
+            node = n;
+            offset += oldLength;
+        }
+    }
+}
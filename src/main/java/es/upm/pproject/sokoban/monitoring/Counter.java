@@ -0,0 +1,85 @@
+package es.upm.pproject.sokoban.monitoring;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count of events, with the rate at which they happened over the last
+ * {@link #RATE_WINDOW} seconds.
+ *
+ * The total is a {@link LongAdder}, so threads that count at the same time
+ * do not contend. The rate is kept in a ring of one-second buckets that are
+ * cleared as time moves on; a bucket may miss an event counted at the very
+ * moment it is cleared, which is fine for a rate.
+ */
+public class Counter {
+
+    /** Seconds over which {@link #getRate()} is averaged. */
+    public static final int RATE_WINDOW = 5;
+
+    private static final int SLOTS = RATE_WINDOW + 1;
+
+    private final LongAdder total = new LongAdder();
+    private final AtomicLongArray buckets = new AtomicLongArray(SLOTS);
+    private final AtomicLongArray seconds = new AtomicLongArray(SLOTS);
+
+    /**
+     * Counts one event.
+     */
+    public void increment() {
+        add(1);
+    }
+
+    /**
+     * Counts several events.
+     *
+     * @param events the number of events
+     */
+    public void add(long events) {
+        total.add(events);
+        long second = System.nanoTime() / 1_000_000_000L;
+        int slot = (int) (second % SLOTS);
+        long stamp = seconds.get(slot);
+        if (stamp != second && seconds.compareAndSet(slot, stamp, second)) {
+            buckets.set(slot, 0);
+        }
+        buckets.addAndGet(slot, events);
+    }
+
+    /**
+     * Returns the number of events counted.
+     *
+     * @return the total count
+     */
+    public long get() {
+        return total.sum();
+    }
+
+    /**
+     * Returns the events per second over the last {@link #RATE_WINDOW}
+     * complete seconds.
+     *
+     * @return the rate, in events per second
+     */
+    public double getRate() {
+        long now = System.nanoTime() / 1_000_000_000L;
+        long events = 0;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            long age = now - seconds.get(slot);
+            if (age >= 1 && age <= RATE_WINDOW) {
+                events += buckets.get(slot);
+            }
+        }
+        return (double) events / RATE_WINDOW;
+    }
+
+    /**
+     * Forgets every counted event.
+     */
+    public void reset() {
+        total.reset();
+        for (int slot = 0; slot < SLOTS; slot++) {
+            buckets.set(slot, 0);
+        }
+    }
+}
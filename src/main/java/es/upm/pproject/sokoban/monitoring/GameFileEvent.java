@@ -0,0 +1,41 @@
+package es.upm.pproject.sokoban.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for saving or loading a game file. The duration of
+ * the event is the time of the whole save or load.
+ */
+@Name("es.upm.pproject.sokoban.GameFile")
+@Label("Save or Load")
+@Category({ "Sokoban", "I/O" })
+@Description("A game saved to or loaded from a file")
+@StackTrace(false)
+public class GameFileEvent extends Event {
+
+    /** Operation of an event committed when saving. */
+    public static final String SAVE = "save";
+
+    /** Operation of an event committed when loading. */
+    public static final String LOAD = "load";
+
+    @Label("Operation")
+    @Description("save or load")
+    public String operation;
+
+    @Label("Path")
+    public String path;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,44 @@
+package es.upm.pproject.sokoban.monitoring;
+
+import java.util.function.LongSupplier;
+
+/**
+ * A value that goes up and down, either set by the code that owns it or
+ * read from that code when the metrics are looked at.
+ */
+public class Gauge {
+
+    private volatile long value;
+    private volatile LongSupplier supplier;
+
+    /**
+     * Sets the value. It replaces any supplier.
+     *
+     * @param value the new value
+     */
+    public void set(long value) {
+        this.supplier = null;
+        this.value = value;
+    }
+
+    /**
+     * Reads the value from a supplier from now on, e.g. a getter of the
+     * object that owns it. The supplier is called from the thread that reads
+     * the metrics, so it must only read fields that are safe to read there.
+     *
+     * @param supplier the source of the value
+     */
+    public void setSupplier(LongSupplier supplier) {
+        this.supplier = supplier;
+    }
+
+    /**
+     * Returns the current value.
+     *
+     * @return the value
+     */
+    public long get() {
+        LongSupplier source = supplier;
+        return source != null ? source.getAsLong() : value;
+    }
+}
@@ -0,0 +1,68 @@
+package es.upm.pproject.sokoban.monitoring;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Statistics of a {@link LatencyHistogram} at one moment, in microseconds.
+ * JMX shows it as a composite value with one item per getter.
+ */
+public class HistogramSnapshot {
+
+    private final long count;
+    private final double meanMicros;
+    private final double p50Micros;
+    private final double p90Micros;
+    private final double p99Micros;
+    private final double maxMicros;
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param count      the number of recorded durations
+     * @param meanMicros the average duration
+     * @param p50Micros  the median
+     * @param p90Micros  the 90th percentile
+     * @param p99Micros  the 99th percentile
+     * @param maxMicros  the longest duration
+     */
+    @ConstructorProperties({ "count", "meanMicros", "p50Micros", "p90Micros", "p99Micros", "maxMicros" })
+    public HistogramSnapshot(long count, double meanMicros, double p50Micros, double p90Micros, double p99Micros,
+            double maxMicros) {
+        this.count = count;
+        this.meanMicros = meanMicros;
+        this.p50Micros = p50Micros;
+        this.p90Micros = p90Micros;
+        this.p99Micros = p99Micros;
+        this.maxMicros = maxMicros;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMeanMicros() {
+        return meanMicros;
+    }
+
+    public double getP50Micros() {
+        return p50Micros;
+    }
+
+    public double getP90Micros() {
+        return p90Micros;
+    }
+
+    public double getP99Micros() {
+        return p99Micros;
+    }
+
+    public double getMaxMicros() {
+        return maxMicros;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d samples, mean %.1f us, p50 %.1f us, p99 %.1f us, max %.1f us", count, meanMicros,
+                p50Micros, p99Micros, maxMicros);
+    }
+}
@@ -0,0 +1,27 @@
+package es.upm.pproject.sokoban.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a solved level.
+ */
+@Name("es.upm.pproject.sokoban.LevelCompleted")
+@Label("Level Completed")
+@Category({ "Sokoban", "Gameplay" })
+@Description("Every goal of the level holds a box")
+@StackTrace(false)
+public class LevelCompletedEvent extends Event {
+
+    @Label("Level")
+    @Description("Number of the level")
+    public int level;
+
+    @Label("Moves")
+    @Description("Moves made to solve the level")
+    public int moves;
+}
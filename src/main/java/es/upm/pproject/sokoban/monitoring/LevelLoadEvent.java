@@ -0,0 +1,49 @@
+package es.upm.pproject.sokoban.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a step of loading a level. Parsing and
+ * validation are separate calls, so each one commits its own event, with
+ * the step in {@link #phase} and its time as the event duration.
+ */
+@Name("es.upm.pproject.sokoban.LevelLoad")
+@Label("Level Load")
+@Category({ "Sokoban", "I/O" })
+@Description("A level parsed or validated")
+@StackTrace(false)
+public class LevelLoadEvent extends Event {
+
+    /** Phase of an event committed by the parser. */
+    public static final String PARSE = "parse";
+
+    /** Phase of an event committed by the validator. */
+    public static final String VALIDATE = "validate";
+
+    @Label("Phase")
+    @Description("parse or validate")
+    public String phase;
+
+    @Label("Level")
+    @Description("Resource the level was parsed from, when parsing")
+    public String source;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+
+    @Label("Boxes")
+    @Description("Boxes of the level, when validating")
+    public int boxes;
+
+    @Label("Success")
+    @Description("Whether the level was read and is valid")
+    public boolean success;
+}
@@ -0,0 +1,175 @@
+package es.upm.pproject.sokoban.monitoring;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Registry of the game's metrics: counters, gauges and latency histograms,
+ * looked up by name.
+ *
+ * Code that records a metric looks it up once, usually into a static field,
+ * and then only touches the metric itself, which never locks. The registry
+ * is published over JMX by {@link #registerMBean()}, which the application
+ * calls at startup; recording works the same whether or not it is
+ * published.
+ */
+public final class Metrics implements MetricsMXBean {
+
+    /** JMX name of the metrics. */
+    public static final String OBJECT_NAME = "es.upm.pproject.sokoban:type=Metrics";
+
+    /** Moves applied to the level, including walks and batches. */
+    public static final String MOVES = "moves";
+    /** Time to apply a move and request its repaint. */
+    public static final String MOVE_LATENCY = "move.latency";
+    /** Time from a key press to the end of the first paint showing its move. */
+    public static final String INPUT_LATENCY = "input.latency";
+    /** Time to paint the board. */
+    public static final String REPAINT_TIME = "board.repaint";
+    /** Time to parse a level file. */
+    public static final String LEVEL_PARSE = "level.parse";
+    /** Time to validate a level. */
+    public static final String LEVEL_VALIDATE = "level.validate";
+    /** Time to save a game. */
+    public static final String GAME_SAVE = "game.save";
+    /** Time to load a saved game. */
+    public static final String GAME_LOAD = "game.load";
+    /** Moves of the current line of the history. */
+    public static final String HISTORY_MOVES = "history.moves";
+    /** Estimated memory of the move history and the replay of the level, in bytes. */
+    public static final String HISTORY_BYTES = "history.bytes";
+    /** Sound effect voices in use. */
+    public static final String AUDIO_VOICES = "audio.voices";
+    /** Sound effects played. */
+    public static final String SFX_PLAYED = "audio.sfx.played";
+    /** Sound effects dropped or coalesced. */
+    public static final String SFX_DROPPED = "audio.sfx.dropped";
+    /** Sound effects cut short to free a voice for another one. */
+    public static final String SFX_STOLEN = "audio.sfx.stolen";
+    /** Music buffer underruns. */
+    public static final String MUSIC_UNDERRUNS = "audio.music.underruns";
+
+    /** Logger for the metrics. */
+    private static final Logger logger = LoggerFactory.getLogger(Metrics.class);
+
+    private static final Metrics INSTANCE = new Metrics();
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    /**
+     * Returns the registry of the application.
+     *
+     * @return the shared registry
+     */
+    public static Metrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the counter with the given name, creating it on first use.
+     *
+     * @param name the metric name
+     * @return the counter
+     */
+    public static Counter counter(String name) {
+        return INSTANCE.counters.computeIfAbsent(name, key -> new Counter());
+    }
+
+    /**
+     * Returns the gauge with the given name, creating it on first use.
+     *
+     * @param name the metric name
+     * @return the gauge
+     */
+    public static Gauge gauge(String name) {
+        return INSTANCE.gauges.computeIfAbsent(name, key -> new Gauge());
+    }
+
+    /**
+     * Makes a gauge read its value from a supplier, replacing the previous
+     * source of the gauge.
+     *
+     * @param name     the metric name
+     * @param supplier the source of the value
+     */
+    public static void gauge(String name, LongSupplier supplier) {
+        gauge(name).setSupplier(supplier);
+    }
+
+    /**
+     * Returns the latency histogram with the given name, creating it on
+     * first use.
+     *
+     * @param name the metric name
+     * @return the histogram
+     */
+    public static LatencyHistogram histogram(String name) {
+        return INSTANCE.histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    /**
+     * Publishes the metrics on the platform MBean server. Failures are logged
+     * and leave the metrics unpublished.
+     */
+    public static synchronized void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(INSTANCE, name);
+                logger.info(" Metrics published over JMX as {}", OBJECT_NAME);
+            }
+        } catch (JMException | SecurityException e) {
+            logger.warn(" Failed to publish the metrics over JMX: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> values = new TreeMap<>();
+        counters.forEach((name, counter) -> values.put(name, counter.get()));
+        return values;
+    }
+
+    @Override
+    public Map<String, Double> getRates() {
+        Map<String, Double> values = new TreeMap<>();
+        counters.forEach((name, counter) -> values.put(name, counter.getRate()));
+        return values;
+    }
+
+    @Override
+    public Map<String, Long> getGauges() {
+        Map<String, Long> values = new TreeMap<>();
+        gauges.forEach((name, gauge) -> values.put(name, gauge.get()));
+        return values;
+    }
+
+    @Override
+    public Map<String, HistogramSnapshot> getHistograms() {
+        Map<String, HistogramSnapshot> values = new TreeMap<>();
+        histograms.forEach((name, histogram) -> values.put(name, histogram.snapshot()));
+        return values;
+    }
+
+    @Override
+    public void reset() {
+        counters.values().forEach(Counter::reset);
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+}
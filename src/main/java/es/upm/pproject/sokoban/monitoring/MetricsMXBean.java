@@ -0,0 +1,44 @@
+package es.upm.pproject.sokoban.monitoring;
+
+import java.util.Map;
+
+/**
+ * Management interface of the game metrics, registered as
+ * {@value Metrics#OBJECT_NAME} so that JConsole or any JMX client can read
+ * them from the running game.
+ */
+public interface MetricsMXBean {
+
+    /**
+     * Returns the total of every counter.
+     *
+     * @return the counts, by metric name
+     */
+    Map<String, Long> getCounters();
+
+    /**
+     * Returns the recent rate of every counter.
+     *
+     * @return the events per second, by metric name
+     */
+    Map<String, Double> getRates();
+
+    /**
+     * Returns the current value of every gauge.
+     *
+     * @return the values, by metric name
+     */
+    Map<String, Long> getGauges();
+
+    /**
+     * Returns the statistics of every latency histogram.
+     *
+     * @return the snapshots, by metric name
+     */
+    Map<String, HistogramSnapshot> getHistograms();
+
+    /**
+     * Clears the counters and histograms. Gauges keep their values.
+     */
+    void reset();
+}
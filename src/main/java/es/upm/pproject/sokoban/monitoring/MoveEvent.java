@@ -0,0 +1,37 @@
+package es.upm.pproject.sokoban.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for moves applied to the level, one per key press
+ * or per batch of moves. Its duration covers applying the moves and
+ * requesting the repaint.
+ */
+@Name("es.upm.pproject.sokoban.Move")
+@Label("Move")
+@Category({ "Sokoban", "Gameplay" })
+@Description("Moves applied to the level")
+@StackTrace(false)
+public class MoveEvent extends Event {
+
+    @Label("Moves")
+    @Description("Number of moves applied, more than one for walks and batches")
+    public int moves;
+
+    @Label("Pushed")
+    @Description("Whether a box was pushed")
+    public boolean pushed;
+
+    @Label("Row")
+    @Description("Row of the player after the moves")
+    public int row;
+
+    @Label("Column")
+    @Description("Column of the player after the moves")
+    public int column;
+}
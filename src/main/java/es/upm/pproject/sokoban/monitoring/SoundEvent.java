@@ -0,0 +1,58 @@
+package es.upm.pproject.sokoban.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a sound effect handled by the mixer, or a music
+ * track started.
+ */
+@Name("es.upm.pproject.sokoban.Sound")
+@Label("Sound")
+@Category({ "Sokoban", "Audio" })
+@Description("A sound effect or music track")
+@StackTrace(false)
+public class SoundEvent extends Event {
+
+    /** The effect got a voice. */
+    public static final String PLAYED = "played";
+
+    /** The effect took the voice of a less important one. */
+    public static final String STOLEN = "stolen";
+
+    /** The effect was not played. */
+    public static final String DROPPED = "dropped";
+
+    /** The effect was merged into the previous request of the same effect. */
+    public static final String COALESCED = "coalesced";
+
+    /** A music track started decoding. */
+    public static final String TRACK = "track";
+
+    @Label("Sound")
+    @Description("Name of the effect or path of the track")
+    public String sound;
+
+    @Label("Outcome")
+    @Description("played, stolen, dropped, coalesced or track")
+    public String outcome;
+
+    /**
+     * Commits an event for a sound, if the event is being recorded.
+     *
+     * @param sound   the name of the effect or path of the track
+     * @param outcome what happened to it
+     */
+    public static void emit(String sound, String outcome) {
+        SoundEvent event = new SoundEvent();
+        if (event.isEnabled()) {
+            event.sound = sound;
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package es.upm.pproject.sokoban.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for an undo.
+ */
+@Name("es.upm.pproject.sokoban.Undo")
+@Label("Undo")
+@Category({ "Sokoban", "Gameplay" })
+@Description("Moves undone")
+@StackTrace(false)
+public class UndoEvent extends Event {
+
+    @Label("Moves")
+    @Description("Number of moves reverted, 0 when a snapshot was restored")
+    public int moves;
+
+    @Label("Snapshot")
+    @Description("Whether the undo restored a whole snapshot of the level")
+    public boolean snapshot;
+}
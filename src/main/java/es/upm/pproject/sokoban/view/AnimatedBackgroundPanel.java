@@ -2,21 +2,60 @@ package es.upm.pproject.sokoban.view;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.awt.image.BufferedImage;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Panel that displays a continuously animated background
  * for the main game window.
- * 
- * Uses a timer to shift the background image horizontally,
- * creating a smooth scrolling effect.
+ *
+ * Each frame is drawn once into an offscreen buffer; paints of the panel,
+ * including those caused by the components on top of it, only copy the
+ * buffer. The animation only repaints the parts of the panel not covered by
+ * the opaque occluder (the board), runs slower when the window is in the
+ * background or the frames take long to draw, and stops while the window is
+ * hidden or minimized.
  */
 public class AnimatedBackgroundPanel extends JPanel {
     private static final long serialVersionUID = 1L;
 
+    /** Delay between frames while the window is focused, in milliseconds. */
+    static final int FRAME_DELAY = 50;
+
+    /** Delay between frames while the window is in the background. */
+    static final int BACKGROUND_DELAY = 250;
+
+    /** Longest delay between frames when they are slow to draw. */
+    static final int MAX_DELAY = 500;
+
+    /** Animation time covered by one tick, whatever the frame rate. */
+    private static final int TICK_MILLIS = 50;
+
+    private static final int MAX_ALPHA = 80;
+    private static final Color[] CYAN = alphaTable(0, 255, 200);
+    private static final Color[] MAGENTA = alphaTable(255, 0, 128);
+    private static final Color GRID_COLOR = new Color(0, 255, 200, 60);
+
     private int tick = 0;
     private final Timer timer;
     private final int animationType;
+    private final long startTime = System.nanoTime();
+
+    private transient BufferedImage buffer;
+    private int bufferTick = -1;
+    private transient JComponent occluder;
+    private transient Window window;
+    private boolean windowFocused = true;
+    private final transient WindowAdapter windowListener = new WindowStateListener();
+    private final transient HierarchyListener showingListener = e -> {
+        if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) {
+            updateTimer();
+        }
+    };
 
     private static final int TYPE_EXPAND_CIRCLES = 0;
     private static final int TYPE_COLLAPSE_CIRCLES = 1;
@@ -24,136 +63,211 @@ public class AnimatedBackgroundPanel extends JPanel {
     private static final int TYPE_GRID_DESCEND = 3;
 
     /**
-     * Loads the background image and starts the animation timer.
+     * Picks an animation. The timer starts once the panel is shown.
      */
     public AnimatedBackgroundPanel() {
         setLayout(new BorderLayout());
-        setOpaque(false);
+        // Every pixel is copied from the buffer
+        setOpaque(true);
         setFocusable(false);
 
         animationType = ThreadLocalRandom.current().nextInt(4);
 
-        timer = new Timer(50, e -> {
-            tick = (tick + 1) % 12000;
-            repaint();
-        });
-        timer.start();
+        timer = new Timer(FRAME_DELAY, e -> nextFrame());
+        addHierarchyListener(showingListener);
+    }
+
+    /**
+     * Sets the opaque component drawn over the background whose area does not
+     * need to be repainted by the animation.
+     *
+     * @param occluder the component, or null to repaint the whole panel
+     */
+    public void setOccluder(JComponent occluder) {
+        this.occluder = occluder;
+    }
+
+    /**
+     * Returns whether the animation timer is running.
+     *
+     * @return true while the panel is animated
+     */
+    public boolean isAnimating() {
+        return timer.isRunning();
     }
 
     /**
-     * Paints the animated background image, looping seamlessly horizontally.
+     * Returns the current delay between frames.
+     *
+     * @return the delay, in milliseconds
      */
+    public int getFrameDelay() {
+        return timer.getDelay();
+    }
+
     @Override
-    protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
+    public void addNotify() {
+        super.addNotify();
+        window = SwingUtilities.getWindowAncestor(this);
+        if (window != null) {
+            window.addWindowListener(windowListener);
+            windowFocused = window.isActive();
+        }
+        updateTimer();
+    }
+
+    @Override
+    public void removeNotify() {
+        if (window != null) {
+            window.removeWindowListener(windowListener);
+            window = null;
+        }
+        timer.stop();
+        buffer = null;
+        super.removeNotify();
+    }
+
+    /**
+     * Runs the timer only while the panel can be seen.
+     */
+    private void updateTimer() {
+        boolean visible = isShowing() && (window == null || !(window instanceof Frame)
+                || (((Frame) window).getExtendedState() & Frame.ICONIFIED) == 0);
+        if (visible && !timer.isRunning()) {
+            timer.setDelay(windowFocused ? FRAME_DELAY : BACKGROUND_DELAY);
+            timer.start();
+        } else if (!visible) {
+            timer.stop();
+        }
+    }
+
+    /**
+     * Draws the next frame into the buffer and repaints what is visible of
+     * the background, then adapts the frame rate to the time it took.
+     */
+    private void nextFrame() {
+        long start = System.nanoTime();
+        tick = (int) ((System.nanoTime() - startTime) / 1_000_000 / TICK_MILLIS % 12000);
+        if (tick == bufferTick) {
+            return;
+        }
+        renderFrame();
+        Rectangle covered = getOccludedArea();
+        if (covered == null) {
+            repaint();
+        } else {
+            // Separate paints keep Swing from merging them into the whole panel
+            int width = getWidth();
+            int height = getHeight();
+            paintStrip(0, 0, width, covered.y);
+            paintStrip(0, covered.y + covered.height, width, height - covered.y - covered.height);
+            paintStrip(0, covered.y, covered.x, covered.height);
+            paintStrip(covered.x + covered.width, covered.y, width - covered.x - covered.width, covered.height);
+        }
 
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        int base = windowFocused ? FRAME_DELAY : BACKGROUND_DELAY;
+        timer.setDelay((int) Math.min(MAX_DELAY, Math.max(base, elapsed * 4)));
+    }
+
+    private void paintStrip(int x, int y, int width, int height) {
+        if (width > 0 && height > 0) {
+            paintImmediately(x, y, width, height);
+        }
+    }
+
+    /**
+     * Returns the area of the panel hidden by the occluder.
+     *
+     * @return the area, or null if nothing opaque covers the panel
+     */
+    private Rectangle getOccludedArea() {
+        if (occluder == null || !occluder.isShowing() || !occluder.isOpaque()) {
+            return null;
+        }
+        Rectangle area = SwingUtilities.convertRectangle(occluder.getParent(), occluder.getBounds(), this)
+                .intersection(new Rectangle(0, 0, getWidth(), getHeight()));
+        return area.isEmpty() ? null : area;
+    }
+
+    /**
+     * Draws the current tick into the offscreen buffer, creating it again if
+     * the panel was resized.
+     */
+    void renderFrame() {
+        int width = Math.max(1, getWidth());
+        int height = Math.max(1, getHeight());
+        if (buffer == null || buffer.getWidth() != width || buffer.getHeight() != height) {
+            buffer = SpriteCache.createCompatibleImage(width, height, Transparency.OPAQUE);
+        }
+        Graphics2D g2d = buffer.createGraphics();
+        g2d.setColor(Color.BLACK);
+        g2d.fillRect(0, 0, width, height);
         switch (animationType) {
             case TYPE_EXPAND_CIRCLES:
-                drawExpandingCircles(g);
+                drawCircles(g2d, width, height, false);
                 break;
             case TYPE_COLLAPSE_CIRCLES:
-                drawCollapsingCircles(g);
+                drawCircles(g2d, width, height, true);
                 break;
             case TYPE_GRID_ASCEND:
-                drawGrid(g, true);
+                drawGrid(g2d, width, height, true);
                 break;
             case TYPE_GRID_DESCEND:
-                drawGrid(g, false);
+                drawGrid(g2d, width, height, false);
                 break;
             default:
                 break;
         }
+        g2d.dispose();
+        bufferTick = tick;
     }
 
     /**
-     * Draws expanding concentric circles from the center,
-     * alternating colors with fading transparency based on radius.
+     * Copies the current frame of the animation.
      */
-    private void drawExpandingCircles(Graphics g) {
-        Graphics2D g2d = (Graphics2D) g.create();
-
-        int width = getWidth();
-        int height = getHeight();
-
-        g2d.setColor(new Color(0, 0, 0));
-        g2d.fillRect(0, 0, width, height);
-
-        int centerX = width / 2;
-        int centerY = height / 2;
-        int maxRadius = Math.max(width, height);
-        int spacing = 40;
-
-        for (int i = 0; i < maxRadius / spacing + 2; i++) {
-            int radius = ((i * spacing) + (tick * 3)) % (maxRadius + spacing);
-            int alpha = 80 - (radius * 80 / maxRadius);
-            if (alpha < 0)
-                alpha = 0;
-
-            Color color = (i % 2 == 0) ? new Color(0, 255, 200, alpha) : new Color(255, 0, 128, alpha);
-            g2d.setColor(color);
-
-            int diameter = radius * 2;
-            g2d.drawOval(centerX - radius, centerY - radius, diameter, diameter);
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (buffer == null || buffer.getWidth() != getWidth() || buffer.getHeight() != getHeight()) {
+            renderFrame();
         }
-
-        g2d.dispose();
+        g.drawImage(buffer, 0, 0, null);
     }
 
     /**
-     * Draws collapsing concentric circles toward the center,
+     * Draws concentric circles moving out from the center, or in towards it,
      * alternating colors with fading transparency based on radius.
      */
-    private void drawCollapsingCircles(Graphics g) {
-        Graphics2D g2d = (Graphics2D) g.create();
-
-        int width = getWidth();
-        int height = getHeight();
-
-        g2d.setColor(new Color(0, 0, 0));
-        g2d.fillRect(0, 0, width, height);
-
+    private void drawCircles(Graphics2D g2d, int width, int height, boolean collapsing) {
         int centerX = width / 2;
         int centerY = height / 2;
         int maxRadius = Math.max(width, height);
         int spacing = 40;
 
         for (int i = 0; i < maxRadius / spacing + 2; i++) {
-            int radius = maxRadius - ((i * spacing) + (tick * 3)) % (maxRadius + spacing);
-            if (radius < 0)
-                radius = 0;
-
-            int alpha = 80 - (radius * 80 / maxRadius);
-            if (alpha < 0)
-                alpha = 0;
+            int radius = ((i * spacing) + (tick * 3)) % (maxRadius + spacing);
+            if (collapsing) {
+                radius = Math.max(0, maxRadius - radius);
+            }
+            int alpha = Math.max(0, MAX_ALPHA - (radius * MAX_ALPHA / maxRadius));
 
-            Color color = (i % 2 == 0) ? new Color(0, 255, 200, alpha) : new Color(255, 0, 128, alpha);
-            g2d.setColor(color);
+            g2d.setColor((i % 2 == 0) ? CYAN[alpha] : MAGENTA[alpha]);
 
             int diameter = radius * 2;
             g2d.drawOval(centerX - radius, centerY - radius, diameter, diameter);
         }
-
-        g2d.dispose();
     }
 
     /**
      * Draws a grid of horizontal and vertical lines over a black background,
      * with horizontal lines moving vertically according to tick and direction.
      *
-     * @param g         Graphics context to draw on.
+     * @param g2d       Graphics context to draw on.
      * @param ascending true to move horizontal lines upward, false to move
      *                  downward.
      */
-    private void drawGrid(Graphics g, boolean ascending) {
-        Graphics2D g2d = (Graphics2D) g.create();
-
-        int width = getWidth();
-        int height = getHeight();
-
-        g2d.setColor(new Color(0, 0, 0));
-        g2d.fillRect(0, 0, width, height);
-
-        g2d.setColor(new Color(0, 255, 200, 60));
+    private void drawGrid(Graphics2D g2d, int width, int height, boolean ascending) {
+        g2d.setColor(GRID_COLOR);
 
         int spacing = 64;
         int offset = tick % spacing;
@@ -171,7 +285,45 @@ public class AnimatedBackgroundPanel extends JPanel {
         for (int x = 0; x < width; x += spacing) {
             g2d.drawLine(x, 0, x, height);
         }
+    }
 
-        g2d.dispose();
+    /**
+     * Builds the colors of a circle for every alpha it can take.
+     */
+    private static Color[] alphaTable(int red, int green, int blue) {
+        Color[] table = new Color[MAX_ALPHA + 1];
+        for (int alpha = 0; alpha <= MAX_ALPHA; alpha++) {
+            table[alpha] = new Color(red, green, blue, alpha);
+        }
+        return table;
+    }
+
+    /**
+     * Slows the animation down while the window is in the background and
+     * stops it while the window is minimized.
+     */
+    private class WindowStateListener extends WindowAdapter {
+        @Override
+        public void windowActivated(WindowEvent e) {
+            windowFocused = true;
+            timer.setDelay(FRAME_DELAY);
+            updateTimer();
+        }
+
+        @Override
+        public void windowDeactivated(WindowEvent e) {
+            windowFocused = false;
+            timer.setDelay(BACKGROUND_DELAY);
+        }
+
+        @Override
+        public void windowIconified(WindowEvent e) {
+            timer.stop();
+        }
+
+        @Override
+        public void windowDeiconified(WindowEvent e) {
+            updateTimer();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,118 @@
+package es.upm.pproject.sokoban.view;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+import java.util.StringJoiner;
+
+import javax.imageio.ImageIO;
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import es.upm.pproject.sokoban.controller.PcmDecoder;
+import es.upm.pproject.sokoban.controller.SoundEffectsController.Effect;
+
+/**
+ * Build step that turns the source assets into the files loaded at run time.
+ *
+ * Run by Maven after compiling, it packs the sprites into one atlas per
+ * requested cell size, writes the descriptor read by {@link AssetManager},
+ * and decodes the sound effects to WAV, so the game neither decodes the
+ * full-resolution images nor the MP3 effects when it starts.
+ *
+ * Usage: {@code AssetBuilder <output directory> <cell size>...}
+ */
+public final class AssetBuilder {
+
+    /** Logger for the build step. */
+    private static final Logger logger = LoggerFactory.getLogger(AssetBuilder.class);
+
+    private AssetBuilder() {
+    }
+
+    /**
+     * Builds the assets into the given classes directory.
+     *
+     * @param args the output directory followed by the atlas cell sizes
+     * @throws IOException if an asset cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: AssetBuilder <output directory> <cell size>...");
+        }
+        System.setProperty("java.awt.headless", "true");
+        int[] sizes = new int[args.length - 1];
+        for (int i = 1; i < args.length; i++) {
+            sizes[i - 1] = Integer.parseInt(args[i]);
+        }
+        Path output = Paths.get(args[0]);
+        buildAtlases(output, sizes);
+        decodeEffects(output);
+    }
+
+    /**
+     * Writes an atlas for each cell size and their shared descriptor.
+     *
+     * @param output the classes directory
+     * @param sizes  the cell sizes, in pixels
+     * @throws IOException if a source image is missing or a file cannot be
+     *                     written
+     */
+    static void buildAtlases(Path output, int[] sizes) throws IOException {
+        Properties descriptor = new Properties();
+        StringJoiner written = new StringJoiner(",");
+        for (int size : sizes) {
+            AssetManager assets = new AssetManager();
+            AssetManager.Atlas atlas = assets.decodeSources(size, Runnable::run).join();
+            if (assets.getFailedCount() > 0) {
+                throw new IOException(assets.getFailedCount() + " source images could not be read");
+            }
+            Path file = resolve(output, AssetManager.atlasPath(size));
+            Files.createDirectories(file.getParent());
+            ImageIO.write(atlas.getImage(), "png", file.toFile());
+            for (AssetManager.Sprite sprite : AssetManager.Sprite.values()) {
+                descriptor.setProperty(sprite.name(), String.valueOf(atlas.getSlot(sprite)));
+            }
+            written.add(String.valueOf(size));
+            logger.info(" Wrote {} ({} KB)", file, Files.size(file) / 1024);
+        }
+        descriptor.setProperty(AssetManager.SIZES_KEY, written.toString());
+        try (OutputStream out = Files.newOutputStream(resolve(output, AssetManager.ATLAS_DESCRIPTOR))) {
+            descriptor.store(out, "Sprite atlas generated by AssetBuilder");
+        }
+    }
+
+    /**
+     * Decodes every sound effect to a WAV file next to its MP3.
+     *
+     * @param output the classes directory
+     * @throws IOException if an effect is missing or cannot be decoded
+     */
+    static void decodeEffects(Path output) throws IOException {
+        for (Effect effect : Effect.values()) {
+            try (InputStream in = AssetBuilder.class.getClassLoader().getResourceAsStream(effect.getPath())) {
+                if (in == null) {
+                    throw new IOException("Sound effect not found: " + effect.getPath());
+                }
+                Path file = resolve(output, effect.getPcmPath());
+                Files.createDirectories(file.getParent());
+                try (AudioInputStream pcm = PcmDecoder.decode(in)) {
+                    AudioSystem.write(pcm, AudioFileFormat.Type.WAVE, file.toFile());
+                }
+                logger.info(" Wrote {} ({} KB)", file, Files.size(file) / 1024);
+            }
+        }
+    }
+
+    private static Path resolve(Path output, String resource) {
+        return output.resolve(resource.startsWith("/") ? resource.substring(1) : resource);
+    }
+}
@@ -0,0 +1,438 @@
+package es.upm.pproject.sokoban.view;
+
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Process-wide loader of the board images.
+ *
+ * The images are decoded in parallel on a small background pool as soon as
+ * {@link #load()} is called, which the application does before building its
+ * windows. Each image is scaled down to {@link #ATLAS_CELL} pixels and packed
+ * into a single texture atlas shared by every board panel, so the
+ * full-resolution images are only held while they are decoded.
+ *
+ * When the build has run {@link AssetBuilder}, the atlas is read ready-made
+ * from the classpath instead and the source images are not decoded at all.
+ */
+public final class AssetManager {
+
+    /**
+     * Size of each sprite in the atlas, in pixels: the largest zoom on a
+     * screen scaled 2x, so that sprites are only ever scaled down.
+     */
+    public static final int ATLAS_CELL = 256;
+
+    /** Directory of the atlas generated at build time. */
+    static final String ATLAS_DIRECTORY = "/atlas";
+
+    /** Descriptor of the prebuilt atlas: cell sizes and sprite positions. */
+    static final String ATLAS_DESCRIPTOR = ATLAS_DIRECTORY + "/atlas.properties";
+
+    /** Descriptor key listing the cell sizes of the prebuilt atlases. */
+    static final String SIZES_KEY = "sizes";
+
+    /** Number of floor textures. */
+    public static final int FLOOR_COUNT = 9;
+
+    /** Logger for asset loading. */
+    private static final Logger logger = LoggerFactory.getLogger(AssetManager.class);
+
+    private static final AssetManager INSTANCE = new AssetManager();
+
+    /**
+     * Images of the board, in atlas order.
+     */
+    public enum Sprite {
+        WALL("wall.gif"),
+        FLOOR1("floor1.png"),
+        FLOOR2("floor2.png"),
+        FLOOR3("floor3.png"),
+        FLOOR4("floor4.png"),
+        FLOOR5("floor5.png"),
+        FLOOR6("floor6.png"),
+        FLOOR7("floor7.png"),
+        FLOOR8("floor8.png"),
+        FLOOR9("floor9.png"),
+        GOAL("goal.png"),
+        PLAYER("player.png"),
+        BOX("box.png");
+
+        private final String path;
+
+        Sprite(String file) {
+            this.path = "/images/" + file;
+        }
+
+        /**
+         * Returns the floor texture with the given index.
+         *
+         * @param index the index, below {@link #FLOOR_COUNT}
+         * @return the floor sprite
+         */
+        public static Sprite floor(int index) {
+            return values()[FLOOR1.ordinal() + index];
+        }
+    }
+
+    /**
+     * Texture atlas holding every sprite in square cells.
+     */
+    public static final class Atlas {
+        private final BufferedImage image;
+        private final int cell;
+        private final int[] slots;
+        private final BufferedImage[] sprites;
+
+        Atlas(BufferedImage image, int cell, int[] slots) {
+            this.image = image;
+            this.cell = cell;
+            this.slots = slots.clone();
+            this.sprites = new BufferedImage[slots.length];
+            int columns = image.getWidth() / cell;
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i] >= 0) {
+                    sprites[i] = image.getSubimage((slots[i] % columns) * cell, (slots[i] / columns) * cell,
+                            cell, cell);
+                }
+            }
+        }
+
+        /**
+         * Returns the size of the atlas cells.
+         *
+         * @return the sprite size, in pixels
+         */
+        public int getCellSize() {
+            return cell;
+        }
+
+        /**
+         * Returns the position of a sprite in the atlas grid.
+         *
+         * @param sprite the sprite
+         * @return the cell index, row by row, or -1 if the sprite is missing
+         */
+        int getSlot(Sprite sprite) {
+            return slots[sprite.ordinal()];
+        }
+
+        BufferedImage getImage() {
+            return image;
+        }
+
+        /**
+         * Returns a sprite as a view on the atlas image.
+         *
+         * @param sprite the sprite
+         * @return the sprite image, or null if it could not be loaded
+         */
+        public BufferedImage getSprite(Sprite sprite) {
+            return sprites[sprite.ordinal()];
+        }
+
+        /**
+         * Returns the size of the atlas image.
+         *
+         * @return the number of bytes of pixel data
+         */
+        public long getSizeInBytes() {
+            return (long) image.getWidth() * image.getHeight() * Integer.BYTES;
+        }
+
+        /**
+         * Creates a sprite cache for a board panel from the atlas.
+         *
+         * @return a new sprite cache
+         */
+        public SpriteCache createSpriteCache() {
+            BufferedImage[] floors = new BufferedImage[FLOOR_COUNT];
+            for (int i = 0; i < FLOOR_COUNT; i++) {
+                floors[i] = getSprite(Sprite.floor(i));
+            }
+            return new SpriteCache(getSprite(Sprite.WALL), floors, getSprite(Sprite.GOAL),
+                    getSprite(Sprite.PLAYER), getSprite(Sprite.BOX));
+        }
+    }
+
+    private CompletableFuture<Atlas> loading;
+
+    private volatile long loadTimeNanos;
+    private volatile boolean prebuilt;
+    private final AtomicInteger failed = new AtomicInteger();
+    private final long[] decodeNanos = new long[Sprite.values().length];
+
+    /**
+     * Creates an asset manager of its own. The application uses the shared
+     * one returned by {@link #getInstance()}.
+     */
+    AssetManager() {
+    }
+
+    /**
+     * Returns the shared asset manager.
+     *
+     * @return the asset manager
+     */
+    public static AssetManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts loading the images in the background, unless it was already
+     * started. The atlas built with the application is used when it is
+     * available; otherwise the source images are decoded and packed.
+     *
+     * @return the atlas, completed when every image is loaded
+     */
+    public synchronized CompletableFuture<Atlas> load() {
+        if (loading != null) {
+            return loading;
+        }
+        long start = System.nanoTime();
+        Properties descriptor = readDescriptor();
+        ExecutorService pool;
+        if (descriptor != null) {
+            pool = newPool(1);
+            loading = CompletableFuture.supplyAsync(() -> readPrebuilt(descriptor), pool);
+        } else {
+            pool = newPool(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())));
+            loading = decodeSources(ATLAS_CELL, pool);
+        }
+        loading = loading.whenComplete((atlas, error) -> {
+            pool.shutdown();
+            loadTimeNanos = System.nanoTime() - start;
+            if (atlas != null) {
+                logger.info(" Loaded {} images {} in {} ms ({} ms of decoding, {} failed), atlas of {} KB",
+                        Sprite.values().length - failed.get(), prebuilt ? "from the prebuilt atlas" : "from sources",
+                        getLoadTimeMillis(), getDecodeTimeMillis(), failed.get(), atlas.getSizeInBytes() / 1024);
+            }
+        });
+        return loading;
+    }
+
+    /**
+     * Returns the atlas if it is already loaded, without waiting.
+     *
+     * @return the atlas, or null if it is still loading or was never requested
+     */
+    public synchronized Atlas getAtlasIfLoaded() {
+        return loading != null && loading.isDone() ? loading.join() : null;
+    }
+
+    /**
+     * Returns the atlas, starting the loading and waiting for it if needed.
+     *
+     * @return the atlas
+     */
+    public Atlas awaitAtlas() {
+        return load().join();
+    }
+
+    /**
+     * Returns whether the atlas was read from the files generated at build
+     * time rather than from the source images.
+     *
+     * @return true if the prebuilt atlas was used
+     */
+    public boolean isPrebuilt() {
+        return prebuilt;
+    }
+
+    /**
+     * Returns the time from the start of the loading to the atlas being ready.
+     *
+     * @return the load time in milliseconds, or 0 while loading
+     */
+    public long getLoadTimeMillis() {
+        return loadTimeNanos / 1_000_000;
+    }
+
+    /**
+     * Returns the time spent decoding and scaling images, summed over all
+     * threads. Comparing it with {@link #getLoadTimeMillis()} shows the gain
+     * of decoding in parallel.
+     *
+     * @return the total decode time in milliseconds
+     */
+    public long getDecodeTimeMillis() {
+        long total = 0;
+        synchronized (decodeNanos) {
+            for (long nanos : decodeNanos) {
+                total += nanos;
+            }
+        }
+        return total / 1_000_000;
+    }
+
+    /**
+     * Returns the number of images that could not be loaded.
+     *
+     * @return the number of failed images
+     */
+    public int getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * Decodes every source image on the given pool and packs them into an
+     * atlas with cells of the given size.
+     *
+     * @param cell the size of the atlas cells, in pixels
+     * @param pool the executor decoding the images
+     * @return the atlas, completed when every image is packed
+     */
+    CompletableFuture<Atlas> decodeSources(int cell, Executor pool) {
+        List<CompletableFuture<BufferedImage>> decoded = new ArrayList<>();
+        for (Sprite sprite : Sprite.values()) {
+            decoded.add(CompletableFuture.supplyAsync(() -> decode(sprite, cell), pool));
+        }
+        return CompletableFuture.allOf(decoded.toArray(new CompletableFuture<?>[0]))
+                .thenApplyAsync(ignored -> pack(decoded, cell), pool);
+    }
+
+    /**
+     * Decodes one image and scales it to the atlas cell size.
+     */
+    private BufferedImage decode(Sprite sprite, int cell) {
+        long start = System.nanoTime();
+        BufferedImage scaled = null;
+        try (InputStream in = AssetManager.class.getResourceAsStream(sprite.path)) {
+            if (in == null) {
+                throw new IOException("resource not found");
+            }
+            BufferedImage source = ImageIO.read(in);
+            if (source == null) {
+                throw new IOException("unsupported image format");
+            }
+            scaled = SpriteCache.scale(source, cell, true);
+        } catch (IOException e) {
+            failed.incrementAndGet();
+            logger.error(" Failed to load image {}: {}", sprite.path, e.getMessage());
+        }
+        synchronized (decodeNanos) {
+            decodeNanos[sprite.ordinal()] = System.nanoTime() - start;
+        }
+        return scaled;
+    }
+
+    /**
+     * Packs the decoded images into a square grid, in sprite order.
+     */
+    private static Atlas pack(List<CompletableFuture<BufferedImage>> decoded, int cell) {
+        int columns = (int) Math.ceil(Math.sqrt(decoded.size()));
+        int rows = (decoded.size() + columns - 1) / columns;
+        BufferedImage image = SpriteCache.createCompatibleImage(columns * cell, rows * cell,
+                Transparency.TRANSLUCENT);
+        int[] slots = new int[decoded.size()];
+        Graphics2D g2d = image.createGraphics();
+        for (int i = 0; i < decoded.size(); i++) {
+            BufferedImage sprite = decoded.get(i).join();
+            slots[i] = sprite != null ? i : -1;
+            if (sprite != null) {
+                g2d.drawImage(sprite, (i % columns) * cell, (i / columns) * cell, null);
+            }
+        }
+        g2d.dispose();
+        return new Atlas(image, cell, slots);
+    }
+
+    /**
+     * Reads the descriptor of the prebuilt atlas.
+     *
+     * @return the descriptor, or null if there is no prebuilt atlas with
+     *         cells of {@link #ATLAS_CELL} pixels
+     */
+    private static Properties readDescriptor() {
+        try (InputStream in = AssetManager.class.getResourceAsStream(ATLAS_DESCRIPTOR)) {
+            if (in == null) {
+                return null;
+            }
+            Properties descriptor = new Properties();
+            descriptor.load(in);
+            for (String size : descriptor.getProperty(SIZES_KEY, "").split(",")) {
+                if (size.trim().equals(String.valueOf(ATLAS_CELL))) {
+                    return descriptor;
+                }
+            }
+            logger.warn(" The prebuilt atlas has no {} px sprites, decoding the source images", ATLAS_CELL);
+        } catch (IOException e) {
+            logger.error(" Failed to read the atlas descriptor: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Reads the atlas generated at build time, falling back to the source
+     * images if it cannot be read.
+     */
+    private Atlas readPrebuilt(Properties descriptor) {
+        long start = System.nanoTime();
+        String path = atlasPath(ATLAS_CELL);
+        try (InputStream in = AssetManager.class.getResourceAsStream(path)) {
+            BufferedImage stored = in != null ? ImageIO.read(in) : null;
+            if (stored == null) {
+                throw new IOException("cannot read " + path);
+            }
+            // Copy into the screen's color model so Java2D can accelerate it
+            BufferedImage image = SpriteCache.createCompatibleImage(stored.getWidth(), stored.getHeight(),
+                    Transparency.TRANSLUCENT);
+            Graphics2D g2d = image.createGraphics();
+            g2d.drawImage(stored, 0, 0, null);
+            g2d.dispose();
+
+            int[] slots = new int[Sprite.values().length];
+            for (Sprite sprite : Sprite.values()) {
+                slots[sprite.ordinal()] = Integer.parseInt(descriptor.getProperty(sprite.name(), "-1").trim());
+                if (slots[sprite.ordinal()] < 0) {
+                    failed.incrementAndGet();
+                    logger.error(" Image {} is missing from the prebuilt atlas", sprite.path);
+                }
+            }
+            synchronized (decodeNanos) {
+                decodeNanos[0] = System.nanoTime() - start;
+            }
+            prebuilt = true;
+            return new Atlas(image, ATLAS_CELL, slots);
+        } catch (IOException | NumberFormatException e) {
+            logger.error(" Failed to read the prebuilt atlas, decoding the source images: {}", e.getMessage());
+            return decodeSources(ATLAS_CELL, Runnable::run).join();
+        }
+    }
+
+    /**
+     * Returns the resource path of the prebuilt atlas image with the given
+     * cell size.
+     *
+     * @param cell the cell size, in pixels
+     * @return the resource path
+     */
+    static String atlasPath(int cell) {
+        return ATLAS_DIRECTORY + "/atlas-" + cell + ".png";
+    }
+
+    private static ExecutorService newPool(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "sokoban-assets-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
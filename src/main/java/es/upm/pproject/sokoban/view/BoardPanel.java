@@ -1,26 +1,43 @@
 package es.upm.pproject.sokoban.view;
 
+import java.awt.BasicStroke;
 import java.awt.Color;
+import java.awt.Container;
 import java.awt.Dimension;
+import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.Toolkit;
+import java.awt.Transparency;
 import java.awt.event.ActionEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.awt.image.BufferedImage;
-import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Random;
+import java.util.function.Consumer;
 
 import javax.swing.AbstractAction;
 import javax.swing.ActionMap;
-import javax.swing.ImageIcon;
 import javax.swing.InputMap;
 import javax.swing.JComponent;
 import javax.swing.JDialog;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JViewport;
 import javax.swing.KeyStroke;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
 
 import es.upm.pproject.sokoban.controller.GameController;
+import es.upm.pproject.sokoban.controller.InputQueue;
 import es.upm.pproject.sokoban.model.*;
+import es.upm.pproject.sokoban.monitoring.LatencyHistogram;
+import es.upm.pproject.sokoban.monitoring.Metrics;
 
 /**
  * Panel responsible for rendering the Sokoban game board and handling
@@ -30,20 +47,64 @@ import es.upm.pproject.sokoban.model.*;
  * checking level completion, and communicates move count updates to the main
  * frame.
  */
-public class BoardPanel extends JPanel {
+public class BoardPanel extends JPanel implements Scrollable {
     private static final long serialVersionUID = 1L;
     private javax.swing.Timer levelCompleteTimer;
 
     private Level level;
     private GameController controller;
     private GameFrame gameFrame;
-    private static final int TILESIZE = 64;
+    /** Tile size at the default zoom, in pixels. */
+    public static final int DEFAULT_TILE_SIZE = 64;
 
-    private transient ImageIcon wallImage;
-    private transient BufferedImage[] floorImages;
-    private transient BufferedImage goalImage;
-    private transient BufferedImage playerImage;
-    private transient BufferedImage boxImage;
+    /** Tile sizes the zoom goes through, in pixels. */
+    static final int[] ZOOM_LEVELS = { 16, 24, 32, 48, 64, 96, 128 };
+
+    private int tileSize = DEFAULT_TILE_SIZE;
+
+    /** Scale factor of the screen the background chunks were drawn for. */
+    private double backgroundScale = 1;
+
+    /** Sprites scaled to the tile size, drawn without rescaling. */
+    private transient SpriteCache sprites;
+
+    /** Side of a background chunk, in tiles. */
+    private static final int CHUNK_TILES = 16;
+
+    /** Number of background chunks kept, enough to cover a large screen twice. */
+    private static final int MAX_CHUNKS = 48;
+
+    /**
+     * Walls and floors of the level, drawn once per chunk of
+     * {@link #CHUNK_TILES} tiles as it comes into view, keyed by
+     * {@code chunkRow * chunkColumns + chunkCol}. The least recently drawn
+     * chunks are dropped first.
+     */
+    private final transient Map<Integer, BufferedImage> backgroundChunks = new LinkedHashMap<Integer, BufferedImage>(
+            16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, BufferedImage> eldest) {
+            return size() > MAX_CHUNKS;
+        }
+    };
+    private int backgroundTileSize;
+
+    /** Tiles kept visible around the player when the view scrolls. */
+    private static final int FOLLOW_MARGIN = 2;
+
+    /** Largest area the board takes in the window; bigger levels scroll. */
+    private static final Dimension MAX_VIEWPORT = new Dimension(16 * 64, 11 * 64);
+
+    private transient MiniMapPanel miniMap;
+
+    /** Floor texture index of every cell, chosen when the level is loaded. */
+    private byte[] floorTextures;
+
+    private static final Color WALL_JOIN = new Color(0, 0, 0, 128);
+    private static final Color BOX_ON_GOAL = new Color(240, 240, 100, 180);
+    private static final BasicStroke BOX_ON_GOAL_STROKE = new BasicStroke(5);
 
     private static final Random RANDOM = new Random();
 
@@ -51,10 +112,85 @@ public class BoardPanel extends JPanel {
     private static final String DOWN = "moveDown";
     private static final String LEFT = "moveLeft";
     private static final String RIGHT = "moveRight";
+    private static final String UNDO = "undo";
+    private static final String REDO = "redo";
+    private static final String SWITCH_BRANCH = "switchBranch";
+    private static final String QUICK_SAVE = "quickSave";
+    private static final String QUICK_LOAD = "quickLoad";
+    private static final String ZOOM_IN = "zoomIn";
+    private static final String ZOOM_OUT = "zoomOut";
+    private static final String ZOOM_FIT = "zoomFit";
+    private static final String LATENCY_OVERLAY = "latencyOverlay";
+
+    /** Number of quick-save slots reachable from the keyboard (F5 to F8). */
+    private static final int QUICK_SLOT_KEYS = 4;
+
+    /** Delay between two steps of an animated walk, in milliseconds. */
+    private static final int WALK_STEP_DELAY = 30;
+
+    /** Whether click-to-walk moves are animated. */
+    private boolean walkAnimation = true;
+
+    /** Cells (row * width + col) the player goes through in the animated walk, or null. */
+    private int[] walkCells;
+    private int walkIndex;
+    private javax.swing.Timer walkTimer;
+
+    /** Delay between two frames of the move animation, about one frame at 60 Hz. */
+    private static final int FRAME_DELAY = 16;
+
+    /** Longest frame the animation catches up with, so a stall does not fast-forward it. */
+    private static final long MAX_FRAME_NANOS = 100_000_000L;
+
+    /** Moves requested from the keyboard, applied one at a time as the animation goes. */
+    private final transient InputQueue inputQueue = new InputQueue();
+    private final transient Direction[] pendingMoves = new Direction[inputQueue.capacity()];
+    private final javax.swing.Timer frameTimer = new javax.swing.Timer(FRAME_DELAY, e -> nextFrame());
+
+    /** Whether keyboard moves slide from cell to cell. */
+    private boolean moveAnimation = true;
+    private final transient MoveAnimator moveAnimator = new MoveAnimator();
+    private long lastFrameTime;
+
+    /** Time not yet consumed by animation steps, in nanoseconds. */
+    private long frameAccumulator;
+
+    /** Fraction of a step elapsed since the last animation step, used to interpolate. */
+    private double frameAlpha;
+
+    private final transient FrameStats frameStats = new FrameStats();
+    private final transient FrameStats paintStats = new FrameStats();
+
+    /** Time between paints, shown as the frame rate of the overlay. */
+    private final transient FrameStats paintIntervals = new FrameStats();
+    private long lastPaintTime;
+
+    /** Gap between paints beyond which the board was idle rather than slow. */
+    private static final long IDLE_PAINT_NANOS = 500_000_000L;
+    private static final LatencyHistogram REPAINT_TIME = Metrics.histogram(Metrics.REPAINT_TIME);
+    private static final LatencyHistogram INPUT_LATENCY = Metrics.histogram(Metrics.INPUT_LATENCY);
+
+    /** Longest wait of a key event in the event queue that is believed, in milliseconds. */
+    private static final long MAX_EVENT_WAIT_MILLIS = 1000;
+
+    /**
+     * Key press time of the oldest move applied but not painted yet, or
+     * {@link InputQueue#NO_TIME}.
+     */
+    private long unpaintedInputTime = InputQueue.NO_TIME;
+
+    /** Whether the input latency and frame rate are drawn over the board. */
+    private boolean latencyOverlay;
+
+    /** Area of the board last covered by the overlay. */
+    private final Rectangle overlayBounds = new Rectangle();
+
+    private static final Color OVERLAY_BACKGROUND = new Color(0, 0, 0, 160);
+    private static final int OVERLAY_MARGIN = 6;
 
     /**
      * Constructs the BoardPanel with the given level, controller, and main frame.
-     * Loads the necessary images and configures key bindings.
+     * Starts loading the shared images if needed and configures key bindings.
      * 
      * @param level      initial level to display.
      * @param controller game controller for logic and moves.
@@ -64,28 +200,13 @@ public class BoardPanel extends JPanel {
         this.level = level;
         this.controller = controller;
         this.gameFrame = gameFrame;
-        try {
-            wallImage = new ImageIcon(getClass().getResource("/images/wall.gif"));
-            floorImages = new BufferedImage[] {
-                    loadImage("/images/floor1.png"),
-                    loadImage("/images/floor2.png"),
-                    loadImage("/images/floor3.png"),
-                    loadImage("/images/floor4.png"),
-                    loadImage("/images/floor5.png"),
-                    loadImage("/images/floor6.png"),
-                    loadImage("/images/floor7.png"),
-                    loadImage("/images/floor8.png"),
-                    loadImage("/images/floor9.png")
-            };
-            goalImage = loadImage("/images/goal.png");
-            playerImage = loadImage("/images/player.png");
-            boxImage = loadImage("/images/box.png");
-        } catch (IOException e) {
-        }
-        setPreferredSize(new Dimension(level.getWidth() * TILESIZE, level.getHeight() * TILESIZE));
+        AssetManager.getInstance().load();
+        assignFloorTextures();
+        setPreferredSize(new Dimension(level.getWidth() * tileSize, level.getHeight() * tileSize));
         setFocusable(true);
 
         setupKeyBindings();
+        addMouseListener(new BoardMouseListener());
     }
 
     /**
@@ -113,64 +234,484 @@ public class BoardPanel extends JPanel {
         actionMap.put(DOWN, new MoveAction(0, 1));
         actionMap.put(LEFT, new MoveAction(-1, 0));
         actionMap.put(RIGHT, new MoveAction(1, 0));
+
+        inputMap.put(KeyStroke.getKeyStroke("ctrl Z"), UNDO);
+        inputMap.put(KeyStroke.getKeyStroke("ctrl Y"), REDO);
+        inputMap.put(KeyStroke.getKeyStroke("ctrl B"), SWITCH_BRANCH);
+        actionMap.put(UNDO, new HistoryAction(GameController::undoMove));
+        actionMap.put(REDO, new HistoryAction(GameController::redoMove));
+        actionMap.put(SWITCH_BRANCH, new HistoryAction(GameController::switchBranch));
+
+        // Ctrl+Plus and Ctrl+Minus zoom, Ctrl+0 fits the level in the window
+        inputMap.put(KeyStroke.getKeyStroke("ctrl EQUALS"), ZOOM_IN);
+        inputMap.put(KeyStroke.getKeyStroke("ctrl PLUS"), ZOOM_IN);
+        inputMap.put(KeyStroke.getKeyStroke("ctrl ADD"), ZOOM_IN);
+        inputMap.put(KeyStroke.getKeyStroke("ctrl MINUS"), ZOOM_OUT);
+        inputMap.put(KeyStroke.getKeyStroke("ctrl SUBTRACT"), ZOOM_OUT);
+        inputMap.put(KeyStroke.getKeyStroke("ctrl 0"), ZOOM_FIT);
+        actionMap.put(ZOOM_IN, new ZoomAction(this::zoomIn));
+        actionMap.put(ZOOM_OUT, new ZoomAction(this::zoomOut));
+        actionMap.put(ZOOM_FIT, new ZoomAction(this::fitToWindow));
+
+        // F3 shows or hides the input latency overlay
+        inputMap.put(KeyStroke.getKeyStroke("F3"), LATENCY_OVERLAY);
+        actionMap.put(LATENCY_OVERLAY, new AbstractAction() {
+            private static final long serialVersionUID = 1L;
+
+            public void actionPerformed(ActionEvent e) {
+                setLatencyOverlay(!latencyOverlay);
+            }
+        });
+
+        // F5-F8 quick-save into slots 1-4, Shift+F5-F8 quick-load them
+        for (int slot = 0; slot < QUICK_SLOT_KEYS; slot++) {
+            final int index = slot;
+            String key = "F" + (slot + 5);
+            inputMap.put(KeyStroke.getKeyStroke(key), QUICK_SAVE + slot);
+            inputMap.put(KeyStroke.getKeyStroke("shift " + key), QUICK_LOAD + slot);
+            actionMap.put(QUICK_SAVE + slot, new AbstractAction() {
+                private static final long serialVersionUID = 1L;
+
+                public void actionPerformed(ActionEvent e) {
+                    if (gameFrame != null) {
+                        gameFrame.quickSave(index);
+                    }
+                }
+            });
+            actionMap.put(QUICK_LOAD + slot, new AbstractAction() {
+                private static final long serialVersionUID = 1L;
+
+                public void actionPerformed(ActionEvent e) {
+                    if (gameFrame != null) {
+                        gameFrame.quickLoad(index);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Walks the player to the clicked floor cell, or pushes a dragged box to
+     * the cell where it is dropped.
+     */
+    private class BoardMouseListener extends MouseAdapter {
+        /** Cell of the box being dragged, or null. */
+        private int[] dragged;
+
+        @Override
+        public void mousePressed(MouseEvent e) {
+            requestFocusInWindow();
+            dragged = null;
+            if (controller == null || !SwingUtilities.isLeftMouseButton(e)) {
+                return;
+            }
+            drainInput();
+            int row = e.getY() / tileSize;
+            int col = e.getX() / tileSize;
+            if (level.isFloor(row, col) && ((FloorTile) level.getTile(row, col)).getEntity() instanceof Box) {
+                dragged = new int[] { row, col };
+                return;
+            }
+            int fromRow = controller.getPlayerRow();
+            int fromCol = controller.getPlayerCol();
+            Direction[] route = controller.walkTo(row, col);
+            if (route == null || route.length == 0) {
+                return;
+            }
+            updateMoveCount();
+            if (walkAnimation) {
+                animateWalk(fromRow, fromCol, route);
+            }
+        }
+
+        @Override
+        public void mouseReleased(MouseEvent e) {
+            if (dragged == null || controller == null) {
+                return;
+            }
+            int[] box = dragged;
+            dragged = null;
+            stopWalkAnimation();
+            Direction[] plan = controller.pushBoxTo(box[0], box[1], e.getY() / tileSize, e.getX() / tileSize);
+            if (plan != null && plan.length > 0) {
+                updateMoveCount();
+            }
+        }
+
+        private void updateMoveCount() {
+            if (gameFrame != null) {
+                gameFrame.updateMoveCount(controller.getMoveCount());
+            }
+            followPlayer();
+        }
+    }
+
+    /**
+     * Shows the player going through every cell of a walk that was already
+     * applied to the level. Walks never push boxes, so only the player sprite
+     * needs to be drawn somewhere else while the animation runs.
+     */
+    private void animateWalk(int fromRow, int fromCol, Direction[] route) {
+        stopWalkAnimation();
+        int width = level.getWidth();
+        walkCells = new int[route.length + 1];
+        walkCells[0] = fromRow * width + fromCol;
+        for (int i = 0; i < route.length; i++) {
+            walkCells[i + 1] = walkCells[i] + route[i].getDy() * width + route[i].getDx();
+        }
+        walkIndex = 0;
+        walkTimer = new javax.swing.Timer(WALK_STEP_DELAY, e -> {
+            if (walkCells == null) {
+                return;
+            }
+            int previous = walkCells[walkIndex++];
+            int current = walkCells[walkIndex];
+            if (walkIndex >= walkCells.length - 1) {
+                // The player now stands where the level has it
+                walkTimer.stop();
+                walkTimer = null;
+                walkCells = null;
+            }
+            repaintCells(previous / width, previous % width, current / width, current % width);
+        });
+        walkTimer.start();
+        repaint();
+    }
+
+    /**
+     * Stops the walk animation, if any, so the player is drawn where it is.
+     */
+    private void stopWalkAnimation() {
+        if (walkTimer != null) {
+            walkTimer.stop();
+            walkTimer = null;
+        }
+        if (walkCells != null) {
+            walkCells = null;
+            repaint();
+        }
+    }
+
+    /**
+     * Enables or disables the animation of click-to-walk moves.
+     *
+     * @param enabled true to animate walks
+     */
+    public void setWalkAnimation(boolean enabled) {
+        this.walkAnimation = enabled;
+        if (!enabled) {
+            stopWalkAnimation();
+        }
     }
 
     /**
-     * Class to move the player in a specified direction.
+     * Class to change the zoom, resizing the window to the new board size.
+     */
+    private class ZoomAction extends AbstractAction {
+        private static final long serialVersionUID = 1L;
+        private final transient Runnable zoom;
+
+        public ZoomAction(Runnable zoom) {
+            this.zoom = zoom;
+        }
+
+        public void actionPerformed(ActionEvent e) {
+            finishMoveAnimation();
+            zoom.run();
+            java.awt.Window window = SwingUtilities.getWindowAncestor(BoardPanel.this);
+            if (window != null) {
+                window.pack();
+            }
+        }
+    }
+
+    /**
+     * Class to navigate the move history (undo, redo, switch branch).
+     */
+    private class HistoryAction extends AbstractAction {
+        private static final long serialVersionUID = 1L;
+        private final transient Consumer<GameController> operation;
+
+        public HistoryAction(Consumer<GameController> operation) {
+            this.operation = operation;
+        }
+
+        public void actionPerformed(ActionEvent e) {
+            if (controller == null) {
+                return;
+            }
+            stopWalkAnimation();
+            drainInput();
+            operation.accept(controller);
+            if (gameFrame != null) {
+                gameFrame.updateMoveCount(controller.getMoveCount());
+            }
+            repaint();
+            followPlayer();
+        }
+    }
+
+    /**
+     * Class to move the player in a specified direction. The move is only
+     * queued; the frame loop applies it when the previous move has finished
+     * sliding.
      */
     private class MoveAction extends AbstractAction {
         private static final long serialVersionUID = 1L;
-        private final int dx;
-        private final int dy;
+        private final Direction direction;
 
         public MoveAction(int dx, int dy) {
-            this.dx = dx;
-            this.dy = dy;
+            this.direction = Direction.of(dx, dy);
         }
 
         public void actionPerformed(ActionEvent e) {
-            boolean moved = controller.movePlayer(dx, dy);
-            if (moved) {
-                repaint();
-                if (gameFrame != null) {
-                    gameFrame.updateMoveCount(controller.getMoveCount());
-                }
-                if (level.isLevelCompleted()) {
-                    if (levelCompleteTimer != null && levelCompleteTimer.isRunning()) {
-                        return;
-                    }
+            if (controller == null) {
+                return;
+            }
+            stopWalkAnimation();
+            inputQueue.offer(direction, pressTime(e));
+            if (!moveAnimator.isRunning()) {
+                // Nothing to wait for: move now rather than on the next frame
+                startNextMove();
+            }
+            if (!frameTimer.isRunning()) {
+                lastFrameTime = System.nanoTime();
+                frameAccumulator = 0;
+                frameTimer.start();
+            }
+        }
+    }
 
-                    JOptionPane pane = new JOptionPane("Thanks for playing!", JOptionPane.INFORMATION_MESSAGE);
-                    JDialog dialog = pane.createDialog(BoardPanel.this, "Sokoban");
-                    dialog.setModal(false);
-                    dialog.addWindowListener(new java.awt.event.WindowAdapter() {
-                        @Override
-                        public void windowClosed(java.awt.event.WindowEvent e) {
-                            BoardPanel.this.requestFocusInWindow();
-                        }
-
-                        @Override
-                        public void windowClosing(java.awt.event.WindowEvent e) {
-                            BoardPanel.this.requestFocusInWindow();
-                        }
-                    });
-                    dialog.setVisible(true);
-
-                    levelCompleteTimer = new javax.swing.Timer(4000, ev -> {
-                        dialog.setVisible(false);
-                        dialog.dispose();
-                        if (gameFrame != null) {
-                            gameFrame.loadNextLevel();
-                        }
-                        BoardPanel.this.requestFocusInWindow();
-                        levelCompleteTimer.stop();
-                        levelCompleteTimer = null;
-                    });
-                    levelCompleteTimer.setRepeats(false);
-                    levelCompleteTimer.start();
-                }
+    /**
+     * Returns when the key of an action was pressed, in
+     * {@link System#nanoTime()} units. The event only has a wall-clock time
+     * in milliseconds, so the time it waited in the event queue is taken
+     * from the current time.
+     */
+    private static long pressTime(ActionEvent e) {
+        long now = System.nanoTime();
+        long waited = System.currentTimeMillis() - e.getWhen();
+        if (e.getWhen() <= 0 || waited < 0 || waited > MAX_EVENT_WAIT_MILLIS) {
+            // Synthetic event or a clock change
+            return now;
+        }
+        return now - waited * 1_000_000L;
+    }
+
+    /**
+     * Remembers that a key press changed the level, so that the next paint
+     * records how long it took to show it. Of several presses shown in the
+     * same paint, only the oldest is recorded.
+     */
+    private void inputApplied(long time) {
+        if (unpaintedInputTime == InputQueue.NO_TIME) {
+            unpaintedInputTime = time;
+        }
+    }
+
+    /**
+     * Runs one frame of the move animation. The animation advances in fixed
+     * steps for the time elapsed since the previous frame; each time a slide
+     * ends, the next queued move is applied. The timer stops once nothing
+     * moves and nothing is queued.
+     */
+    private void nextFrame() {
+        long now = System.nanoTime();
+        long frame = now - lastFrameTime;
+        lastFrameTime = now;
+        frameStats.record(frame);
+
+        frameAccumulator += Math.min(frame, MAX_FRAME_NANOS);
+        while (frameAccumulator >= MoveAnimator.STEP_NANOS) {
+            frameAccumulator -= MoveAnimator.STEP_NANOS;
+            moveAnimator.update();
+            if (!moveAnimator.isRunning()) {
+                repaintAnimatedCells();
+                startNextMove();
             }
         }
+        frameAlpha = (double) frameAccumulator / MoveAnimator.STEP_NANOS;
+
+        if (moveAnimator.isRunning()) {
+            repaintAnimatedCells();
+        } else if (inputQueue.size() == 0) {
+            frameTimer.stop();
+        }
+    }
+
+    /**
+     * Applies the oldest queued move that is not blocked and starts sliding
+     * it. The more moves wait behind it, the faster it slides.
+     */
+    private void startNextMove() {
+        if (controller == null) {
+            inputQueue.clear();
+            return;
+        }
+        Level played = level;
+        int width = played.getWidth();
+        while (inputQueue.size() > 0) {
+            long time = inputQueue.peekTime();
+            Direction direction = inputQueue.poll();
+            int row = controller.getPlayerRow();
+            int col = controller.getPlayerCol();
+            int aheadRow = row + direction.getDy();
+            int aheadCol = col + direction.getDx();
+            boolean push = played.isFloor(aheadRow, aheadCol)
+                    && ((FloorTile) played.getTile(aheadRow, aheadCol)).getEntity() instanceof Box;
+            pendingMoves[0] = direction;
+            if (controller.playMoves(pendingMoves, 1) == 0) {
+                continue;
+            }
+            if (level != played) {
+                // The move completed the level and the next one is already shown
+                return;
+            }
+            inputApplied(time);
+            if (moveAnimation) {
+                int from = row * width + col;
+                int to = aheadRow * width + aheadCol;
+                int step = to - from;
+                moveAnimator.start(from, to, push ? to : -1, push ? to + step : -1, inputQueue.size());
+                frameAlpha = 0;
+            }
+            if (gameFrame != null) {
+                gameFrame.updateMoveCount(controller.getMoveCount());
+            }
+            followPlayer();
+            if (level.isLevelCompleted()) {
+                inputQueue.clear();
+                showGameCompleted();
+            }
+            return;
+        }
+    }
+
+    /**
+     * Repaints the cells covered by the sliding player and box.
+     */
+    private void repaintAnimatedCells() {
+        int width = level.getWidth();
+        int from = moveAnimator.getPlayerFrom();
+        int to = moveAnimator.getBoxTo() >= 0 ? moveAnimator.getBoxTo() : moveAnimator.getPlayerTo();
+        if (from >= 0 && to >= 0) {
+            repaintCells(from / width, from % width, to / width, to % width);
+        }
+    }
+
+    /**
+     * Ends the slide in progress, if any, so every sprite is drawn where the
+     * level has it.
+     */
+    private void finishMoveAnimation() {
+        if (moveAnimator.isRunning()) {
+            moveAnimator.finish();
+            repaintAnimatedCells();
+        }
+    }
+
+    /**
+     * Enables or disables the sliding of keyboard moves.
+     *
+     * @param enabled true to animate moves
+     */
+    public void setMoveAnimation(boolean enabled) {
+        this.moveAnimation = enabled;
+        if (!enabled) {
+            finishMoveAnimation();
+        }
+    }
+
+    /**
+     * Returns the time between frames of the move animation.
+     *
+     * @return the frame time statistics
+     */
+    public FrameStats getFrameStats() {
+        return frameStats;
+    }
+
+    /**
+     * Returns the time spent painting the board.
+     *
+     * @return the paint time statistics
+     */
+    public FrameStats getPaintStats() {
+        return paintStats;
+    }
+
+    /**
+     * Returns the time between paints of the board, leaving out idle gaps.
+     *
+     * @return the paint interval statistics
+     */
+    public FrameStats getPaintIntervals() {
+        return paintIntervals;
+    }
+
+    /**
+     * Ends the animation and applies every queued move at once, then updates
+     * the move counter and checks for the end of the level once. Used before
+     * actions that need the level up to date, such as undo.
+     */
+    private void drainInput() {
+        finishMoveAnimation();
+        long time = inputQueue.peekTime();
+        int count = inputQueue.drainTo(pendingMoves);
+        if (count == 0) {
+            frameTimer.stop();
+            return;
+        }
+        Level played = level;
+        if (controller == null || controller.playMoves(pendingMoves, count) == 0 || level != played) {
+            return;
+        }
+        inputApplied(time);
+        if (gameFrame != null) {
+            gameFrame.updateMoveCount(controller.getMoveCount());
+        }
+        followPlayer();
+        if (level.isLevelCompleted()) {
+            showGameCompleted();
+        }
+    }
+
+    /**
+     * Shows the final message for a few seconds before moving on.
+     */
+    private void showGameCompleted() {
+        if (levelCompleteTimer != null && levelCompleteTimer.isRunning()) {
+            return;
+        }
+
+        JOptionPane pane = new JOptionPane("Thanks for playing!", JOptionPane.INFORMATION_MESSAGE);
+        JDialog dialog = pane.createDialog(BoardPanel.this, "Sokoban");
+        dialog.setModal(false);
+        dialog.addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosed(java.awt.event.WindowEvent e) {
+                BoardPanel.this.requestFocusInWindow();
+            }
+
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent e) {
+                BoardPanel.this.requestFocusInWindow();
+            }
+        });
+        dialog.setVisible(true);
+
+        levelCompleteTimer = new javax.swing.Timer(4000, ev -> {
+            dialog.setVisible(false);
+            dialog.dispose();
+            if (gameFrame != null) {
+                gameFrame.loadNextLevel();
+            }
+            BoardPanel.this.requestFocusInWindow();
+            levelCompleteTimer.stop();
+            levelCompleteTimer = null;
+        });
+        levelCompleteTimer.setRepeats(false);
+        levelCompleteTimer.start();
     }
 
     /**
@@ -178,10 +719,124 @@ public class BoardPanel extends JPanel {
      */
     @Override
     protected void paintComponent(Graphics g) {
+        long start = System.nanoTime();
         super.paintComponent(g);
         Graphics2D g2d = (Graphics2D) g;
         drawBackground(g2d);
-        drawTiles(g2d);
+        if (sprites == null && !loadSprites()) {
+            return;
+        }
+        double scale = g2d.getDeviceConfiguration().getDefaultTransform().getScaleX();
+        sprites.setTileSize(tileSize, scale);
+        Rectangle clip = g2d.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        drawBackgroundChunks(g2d, clip, scale);
+        drawEntities(g2d, clip);
+        if (walkCells != null) {
+            int cell = walkCells[walkIndex];
+            int width = level.getWidth();
+            g2d.drawImage(sprites.getPlayer(), (cell % width) * tileSize, (cell / width) * tileSize, null);
+        }
+        if (moveAnimator.isRunning()) {
+            double progress = moveAnimator.interpolate(frameAlpha);
+            if (moveAnimator.getBoxTo() >= 0) {
+                drawSliding(g2d, sprites.getBox(), moveAnimator.getBoxFrom(), moveAnimator.getBoxTo(), progress);
+            }
+            drawSliding(g2d, sprites.getPlayer(), moveAnimator.getPlayerFrom(), moveAnimator.getPlayerTo(),
+                    progress);
+            // Push the frame out now instead of whenever the window system flushes
+            Toolkit.getDefaultToolkit().sync();
+        }
+        long end = System.nanoTime();
+        paintStats.record(end - start);
+        if (lastPaintTime != 0 && end - lastPaintTime <= IDLE_PAINT_NANOS) {
+            paintIntervals.record(end - lastPaintTime);
+        }
+        lastPaintTime = end;
+        REPAINT_TIME.record(end - start);
+        if (unpaintedInputTime != InputQueue.NO_TIME) {
+            INPUT_LATENCY.record(end - unpaintedInputTime);
+            unpaintedInputTime = InputQueue.NO_TIME;
+            if (latencyOverlay) {
+                repaint(overlayBounds);
+            }
+        }
+        if (latencyOverlay) {
+            drawOverlay(g2d);
+        }
+    }
+
+    /**
+     * Draws the input latency percentiles and the recent paint rate in the
+     * top left corner of the part of the board in view.
+     */
+    private void drawOverlay(Graphics2D g2d) {
+        String text = String.format("input p50 %.1f ms  p99 %.1f ms  %.0f fps",
+                INPUT_LATENCY.getPercentile(0.5) / 1e6, INPUT_LATENCY.getPercentile(0.99) / 1e6, paintIntervals.getFps());
+        FontMetrics metrics = g2d.getFontMetrics();
+        Rectangle visible = getVisibleRect();
+        overlayBounds.setBounds(visible.x, visible.y, metrics.stringWidth(text) + 2 * OVERLAY_MARGIN,
+                metrics.getHeight() + 2 * OVERLAY_MARGIN);
+        g2d.setColor(OVERLAY_BACKGROUND);
+        g2d.fill(overlayBounds);
+        g2d.setColor(Color.WHITE);
+        g2d.drawString(text, overlayBounds.x + OVERLAY_MARGIN,
+                overlayBounds.y + OVERLAY_MARGIN + metrics.getAscent());
+    }
+
+    /**
+     * Shows or hides the input latency and frame rate over the board.
+     *
+     * @param enabled true to show the overlay
+     */
+    public void setLatencyOverlay(boolean enabled) {
+        latencyOverlay = enabled;
+        Container parent = getParent();
+        if (parent instanceof JViewport) {
+            // Blitting would drag the overlay along when the view scrolls
+            ((JViewport) parent).setScrollMode(enabled ? JViewport.SIMPLE_SCROLL_MODE : JViewport.BLIT_SCROLL_MODE);
+        }
+        repaint();
+    }
+
+    /**
+     * Returns whether the input latency overlay is shown.
+     *
+     * @return true if the overlay is shown
+     */
+    public boolean isLatencyOverlay() {
+        return latencyOverlay;
+    }
+
+    /**
+     * Draws a sprite part of the way between two neighbouring cells.
+     */
+    private void drawSliding(Graphics2D g2d, Image sprite, int from, int to, double progress) {
+        int width = level.getWidth();
+        int x = (from % width) * tileSize;
+        int y = (from / width) * tileSize;
+        int dx = (to % width) * tileSize - x;
+        int dy = (to / width) * tileSize - y;
+        g2d.drawImage(sprite, x + (int) Math.round(dx * progress), y + (int) Math.round(dy * progress), null);
+    }
+
+    /**
+     * Takes the sprites from the shared atlas once it is loaded, or asks for
+     * a repaint when it is.
+     *
+     * @return true if the sprites are available
+     */
+    private boolean loadSprites() {
+        AssetManager assets = AssetManager.getInstance();
+        AssetManager.Atlas atlas = assets.getAtlasIfLoaded();
+        if (atlas == null) {
+            assets.load().thenRun(() -> SwingUtilities.invokeLater(this::repaint));
+            return false;
+        }
+        sprites = atlas.createSpriteCache();
+        return true;
     }
 
     private void drawBackground(Graphics2D g2d) {
@@ -189,78 +844,328 @@ public class BoardPanel extends JPanel {
         g2d.fillRect(0, 0, getWidth(), getHeight());
     }
 
-    private void drawTiles(Graphics2D g2d) {
-        for (int row = 0; row < level.getHeight(); row++) {
-            for (int col = 0; col < level.getWidth(); col++) {
+    /**
+     * Copies the walls and floors inside the clip area from the cached
+     * chunks, drawing the chunks that are not cached yet. Walls and floors
+     * never change while a level is played, so only the entities are drawn
+     * on every paint, and only the chunks in view are ever drawn.
+     */
+    private void drawBackgroundChunks(Graphics2D g2d, Rectangle clip, double scale) {
+        if (backgroundTileSize != tileSize || backgroundScale != scale) {
+            backgroundChunks.clear();
+            backgroundTileSize = tileSize;
+            backgroundScale = scale;
+        }
+        int chunkSize = CHUNK_TILES * tileSize;
+        int chunkColumns = (level.getWidth() + CHUNK_TILES - 1) / CHUNK_TILES;
+        int chunkRows = (level.getHeight() + CHUNK_TILES - 1) / CHUNK_TILES;
+        int firstRow = Math.max(0, clip.y / chunkSize);
+        int firstCol = Math.max(0, clip.x / chunkSize);
+        int lastRow = Math.min(chunkRows - 1, (clip.y + clip.height - 1) / chunkSize);
+        int lastCol = Math.min(chunkColumns - 1, (clip.x + clip.width - 1) / chunkSize);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                int chunkRow = row;
+                int chunkCol = col;
+                BufferedImage chunk = backgroundChunks.computeIfAbsent(row * chunkColumns + col,
+                        key -> renderChunk(chunkRow, chunkCol, scale));
+                // Drawn at the screen's resolution, so the screen scale maps it back 1:1
+                g2d.drawImage(chunk, col * chunkSize, row * chunkSize,
+                        (int) Math.round(chunk.getWidth() / scale), (int) Math.round(chunk.getHeight() / scale), null);
+            }
+        }
+    }
+
+    /**
+     * Draws the walls and floors of one chunk into an offscreen image with
+     * the resolution of the screen.
+     */
+    private BufferedImage renderChunk(int chunkRow, int chunkCol, double scale) {
+        int firstRow = chunkRow * CHUNK_TILES;
+        int firstCol = chunkCol * CHUNK_TILES;
+        int rows = Math.min(CHUNK_TILES, level.getHeight() - firstRow);
+        int cols = Math.min(CHUNK_TILES, level.getWidth() - firstCol);
+        BufferedImage chunk = SpriteCache.createCompatibleImage((int) Math.round(cols * tileSize * scale),
+                (int) Math.round(rows * tileSize * scale), Transparency.OPAQUE);
+        Graphics2D g2d = chunk.createGraphics();
+        g2d.setColor(Color.BLACK);
+        g2d.fillRect(0, 0, chunk.getWidth(), chunk.getHeight());
+        g2d.scale(scale, scale);
+        g2d.translate(-firstCol * tileSize, -firstRow * tileSize);
+        for (int row = firstRow; row < firstRow + rows; row++) {
+            for (int col = firstCol; col < firstCol + cols; col++) {
                 drawTile(g2d, row, col);
             }
         }
+        g2d.dispose();
+        return chunk;
+    }
+
+    /**
+     * Returns whether a keyboard move is sliding.
+     *
+     * @return true while the move animation runs
+     */
+    boolean isMoveAnimating() {
+        return moveAnimator.isRunning();
+    }
+
+    /**
+     * Returns the number of background chunks currently cached.
+     *
+     * @return the number of cached chunks
+     */
+    int getCachedChunkCount() {
+        return backgroundChunks.size();
     }
 
     private void drawTile(Graphics2D g2d, int row, int col) {
         Tile tile = level.getTile(row, col);
-        int x = col * TILESIZE;
-        int y = row * TILESIZE;
+        int x = col * tileSize;
+        int y = row * tileSize;
 
         if (tile instanceof WallTile) {
-            g2d.drawImage(wallImage.getImage(), x, y, TILESIZE, TILESIZE, null);
+            g2d.drawImage(sprites.getWall(), x, y, null);
 
             // Detectar muros vecinos y pintar uniones
             boolean right = isWall(row, col + 1);
             boolean down = isWall(row + 1, col);
 
-            g2d.setColor(new Color(0, 0, 0, 128)); // negro semitransparente para suavizar uniones
+            g2d.setColor(WALL_JOIN); // negro semitransparente para suavizar uniones
 
             if (right) {
-                g2d.fillRect(x + TILESIZE - 1, y, 2, TILESIZE); // unión horizontal
+                g2d.fillRect(x + tileSize - 1, y, 2, tileSize); // unión horizontal
             }
             if (down) {
-                g2d.fillRect(x, y + TILESIZE - 1, TILESIZE, 2); // unión vertical
+                g2d.fillRect(x, y + tileSize - 1, tileSize, 2); // unión vertical
             }
         } else if (tile instanceof FloorTile) {
-            FloorTile floor = (FloorTile) tile;
-            boolean isGoal = floor.isGoal();
-            if (isGoal) {
-                g2d.drawImage(goalImage, x, y, TILESIZE, TILESIZE, null);
-            } else {
-                int rIndex = RANDOM.nextInt(9);
-                g2d.drawImage(floorImages[rIndex], x, y, TILESIZE, TILESIZE, null);
+            if (((FloorTile) tile).isGoal()) {
+                g2d.drawImage(sprites.getGoal(), x, y, null);
+            } else if (sprites.getFloorCount() > 0) {
+                g2d.drawImage(sprites.getFloor(floorTextures[row * level.getWidth() + col]), x, y, null);
+            }
+        }
+    }
+
+    /**
+     * Draws the player and the boxes found inside the clip area.
+     */
+    private void drawEntities(Graphics2D g2d, Rectangle clip) {
+        int firstRow = 0;
+        int firstCol = 0;
+        int lastRow = level.getHeight() - 1;
+        int lastCol = level.getWidth() - 1;
+        if (clip != null) {
+            firstRow = Math.max(firstRow, clip.y / tileSize);
+            firstCol = Math.max(firstCol, clip.x / tileSize);
+            lastRow = Math.min(lastRow, (clip.y + clip.height - 1) / tileSize);
+            lastCol = Math.min(lastCol, (clip.x + clip.width - 1) / tileSize);
+        }
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                Tile tile = level.getTile(row, col);
+                if (moveAnimator.isRunning() && row * level.getWidth() + col == moveAnimator.getBoxTo()) {
+                    // Drawn on its way by paintComponent
+                    continue;
+                }
+                if (tile instanceof FloorTile) {
+                    FloorTile floor = (FloorTile) tile;
+                    drawEntity(g2d, floor.getEntity(), col * tileSize, row * tileSize, floor.isGoal());
+                }
             }
-            drawEntity(g2d, floor.getEntity(), x, y, isGoal);
         }
     }
 
     private void drawEntity(Graphics2D g2d, Entity entity, int x, int y, boolean isGoal) {
         if (entity instanceof Player) {
-            g2d.drawImage(playerImage, x, y, TILESIZE, TILESIZE, null);
+            if (walkCells != null || moveAnimator.isRunning()) {
+                // Drawn on its way by paintComponent
+                return;
+            }
+            g2d.drawImage(sprites.getPlayer(), x, y, null);
         } else if (entity instanceof Box) {
-            g2d.drawImage(boxImage, x, y, TILESIZE, TILESIZE, null);
+            g2d.drawImage(sprites.getBox(), x, y, null);
             if (isGoal) {
                 // Pinta un borde dorado o un overlay semitransparente
-                g2d.setColor(new Color(240, 240, 100, 180)); // Dorado semitransparente
-                g2d.setStroke(new java.awt.BasicStroke(5));
-                g2d.drawRect(x + 4, y + 4, TILESIZE - 8, TILESIZE - 8);
+                g2d.setColor(BOX_ON_GOAL);
+                g2d.setStroke(BOX_ON_GOAL_STROKE);
+                g2d.drawRect(x + 4, y + 4, tileSize - 8, tileSize - 8);
             }
         }
     }
 
     /**
-     * Método auxiliar para verificar si una celda es un muro.
+     * Repaints only the cells of a rectangular area of the board, such as
+     * the cells changed by a move.
+     *
+     * @param fromRow a corner row of the area
+     * @param fromCol a corner column of the area
+     * @param toRow   the opposite corner row
+     * @param toCol   the opposite corner column
      */
-    private boolean isWall(int row, int col) {
-        if (row < 0 || row >= level.getHeight() || col < 0 || col >= level.getWidth()) return false;
-        return level.getTile(row, col) instanceof WallTile;
+    public void repaintCells(int fromRow, int fromCol, int toRow, int toCol) {
+        int top = Math.min(fromRow, toRow);
+        int left = Math.min(fromCol, toCol);
+        int rows = Math.abs(toRow - fromRow) + 1;
+        int cols = Math.abs(toCol - fromCol) + 1;
+        repaint(new Rectangle(left * tileSize, top * tileSize, cols * tileSize, rows * tileSize));
+        if (miniMap != null) {
+            miniMap.cellsChanged(top, left, top + rows - 1, left + cols - 1);
+        }
     }
 
     /**
-     * Loads an image from resources by filename.
-     * 
-     * @param filename image file name.
-     * @return BufferedImage loaded image.
-     * @throws IOException if loading fails.
+     * Repaints the whole board, and the minimap, after changes to any number
+     * of cells such as an undo.
      */
-    private BufferedImage loadImage(String path) throws IOException {
-        return javax.imageio.ImageIO.read(getClass().getResourceAsStream(path));
+    public void refreshBoard() {
+        repaint();
+        if (miniMap != null) {
+            miniMap.levelChanged();
+        }
+    }
+
+    /**
+     * Scrolls the view, if the board is in one, so that the player and the
+     * cells around it are visible.
+     */
+    private void followPlayer() {
+        if (controller == null) {
+            return;
+        }
+        int margin = FOLLOW_MARGIN * tileSize;
+        scrollRectToVisible(new Rectangle(controller.getPlayerCol() * tileSize - margin,
+                controller.getPlayerRow() * tileSize - margin, tileSize + 2 * margin, tileSize + 2 * margin));
+    }
+
+    /**
+     * Sets the minimap that shows the whole level next to the board.
+     *
+     * @param miniMap the minimap, or null
+     */
+    void setMiniMap(MiniMapPanel miniMap) {
+        this.miniMap = miniMap;
+    }
+
+    /**
+     * Returns the size of a tile on screen.
+     *
+     * @return the tile size, in pixels
+     */
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * Zooms the board to the given tile size, keeping the player in view.
+     * Sprites for the new size are scaled once, the first time it is used.
+     *
+     * @param size the tile size, clamped to the zoom levels
+     */
+    public void setTileSize(int size) {
+        int clamped = Math.max(ZOOM_LEVELS[0], Math.min(ZOOM_LEVELS[ZOOM_LEVELS.length - 1], size));
+        if (clamped == tileSize) {
+            return;
+        }
+        tileSize = clamped;
+        setPreferredSize(new Dimension(level.getWidth() * tileSize, level.getHeight() * tileSize));
+        revalidate();
+        repaint();
+        if (miniMap != null) {
+            miniMap.levelChanged();
+        }
+        SwingUtilities.invokeLater(this::followPlayer);
+    }
+
+    /**
+     * Zooms in to the next zoom level.
+     */
+    public void zoomIn() {
+        for (int size : ZOOM_LEVELS) {
+            if (size > tileSize) {
+                setTileSize(size);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Zooms out to the previous zoom level.
+     */
+    public void zoomOut() {
+        for (int i = ZOOM_LEVELS.length - 1; i >= 0; i--) {
+            if (ZOOM_LEVELS[i] < tileSize) {
+                setTileSize(ZOOM_LEVELS[i]);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Zooms to the largest zoom level at which the whole level fits in the
+     * area the board can take, or the smallest level if it never fits.
+     */
+    public void fitToWindow() {
+        int size = ZOOM_LEVELS[0];
+        for (int candidate : ZOOM_LEVELS) {
+            if (level.getWidth() * candidate <= MAX_VIEWPORT.width
+                    && level.getHeight() * candidate <= MAX_VIEWPORT.height) {
+                size = candidate;
+            }
+        }
+        setTileSize(size);
+    }
+
+    /**
+     * Limits the board to {@link #MAX_VIEWPORT} when it is in a scroll pane;
+     * larger levels scroll.
+     */
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        Dimension size = getPreferredSize();
+        return new Dimension(Math.min(size.width, MAX_VIEWPORT.width), Math.min(size.height, MAX_VIEWPORT.height));
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return tileSize;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        int visible = orientation == SwingConstants.HORIZONTAL ? visibleRect.width : visibleRect.height;
+        return Math.max(tileSize, visible - tileSize);
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return false;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+
+    /**
+     * Picks the floor texture of every cell once, when the level is loaded,
+     * so the floor looks the same on every paint and can be cached.
+     */
+    private void assignFloorTextures() {
+        floorTextures = new byte[level.getWidth() * level.getHeight()];
+        for (int i = 0; i < floorTextures.length; i++) {
+            floorTextures[i] = (byte) RANDOM.nextInt(AssetManager.FLOOR_COUNT);
+        }
+        backgroundChunks.clear();
+    }
+
+    /**
+     * Método auxiliar para verificar si una celda es un muro.
+     */
+    private boolean isWall(int row, int col) {
+        if (row < 0 || row >= level.getHeight() || col < 0 || col >= level.getWidth()) return false;
+        return level.getTile(row, col) instanceof WallTile;
     }
 
     /**
@@ -269,9 +1174,25 @@ public class BoardPanel extends JPanel {
      * @param level new level to load.
      */
     public void setLevel(Level level) {
+        stopWalkAnimation();
+        moveAnimator.finish();
+        inputQueue.clear();
+        boolean sameSize = this.level.getWidth() == level.getWidth() && this.level.getHeight() == level.getHeight();
         this.level = level;
-        setPreferredSize(new Dimension(level.getWidth() * TILESIZE, level.getHeight() * TILESIZE));
+        if (sameSize) {
+            // Same board restored (undo, load): keep the floor as it looked
+            backgroundChunks.clear();
+        } else {
+            assignFloorTextures();
+        }
+        setPreferredSize(new Dimension(level.getWidth() * tileSize, level.getHeight() * tileSize));
+        revalidate();
         repaint();
+        if (miniMap != null) {
+            miniMap.levelChanged();
+        }
+        // After the scroll pane has taken the new size
+        SwingUtilities.invokeLater(this::followPlayer);
         requestFocusInWindow();
     }
 
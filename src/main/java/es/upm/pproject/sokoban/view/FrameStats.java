@@ -0,0 +1,116 @@
+package es.upm.pproject.sokoban.view;
+
+import java.util.Arrays;
+
+/**
+ * Running statistics of frame times: count, average, worst frame and the
+ * frame rate. The frame rate is measured over the last {@link #WINDOW}
+ * frames, so that it follows the current pacing; the other figures cover
+ * every frame since the last reset. Meant to be updated from the event
+ * dispatch thread.
+ */
+public class FrameStats {
+
+    /** Number of recent frames the frame rate is measured over. */
+    public static final int WINDOW = 60;
+
+    private final long[] recent = new long[WINDOW];
+    private int recentIndex;
+    private int recentCount;
+    private long recentNanos;
+
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+    private long lastNanos;
+
+    /**
+     * Adds one frame.
+     *
+     * @param nanos the duration of the frame, in nanoseconds
+     */
+    public void record(long nanos) {
+        count++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+        lastNanos = nanos;
+        recentNanos += nanos - recent[recentIndex];
+        recent[recentIndex] = nanos;
+        recentIndex = (recentIndex + 1) % WINDOW;
+        recentCount = Math.min(recentCount + 1, WINDOW);
+    }
+
+    /**
+     * Forgets every recorded frame.
+     */
+    public void reset() {
+        count = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+        lastNanos = 0;
+        Arrays.fill(recent, 0);
+        recentIndex = 0;
+        recentCount = 0;
+        recentNanos = 0;
+    }
+
+    /**
+     * Returns the number of recorded frames.
+     *
+     * @return the frame count
+     */
+    public long getFrameCount() {
+        return count;
+    }
+
+    /**
+     * Returns the average frame time.
+     *
+     * @return the average, in milliseconds, or 0 without frames
+     */
+    public double getAverageMillis() {
+        return count == 0 ? 0 : totalNanos / 1e6 / count;
+    }
+
+    /**
+     * Returns the longest recorded frame.
+     *
+     * @return the worst frame time, in milliseconds
+     */
+    public double getMaxMillis() {
+        return maxNanos / 1e6;
+    }
+
+    /**
+     * Returns the duration of the last frame.
+     *
+     * @return the last frame time, in milliseconds
+     */
+    public double getLastMillis() {
+        return lastNanos / 1e6;
+    }
+
+    /**
+     * Returns the frame rate over the last {@link #WINDOW} frames.
+     *
+     * @return frames per second, or 0 without frames
+     */
+    public double getFps() {
+        return recentNanos == 0 ? 0 : recentCount * 1e9 / recentNanos;
+    }
+
+    /**
+     * Returns the frame rate matching the average frame time.
+     *
+     * @return frames per second, or 0 without frames
+     */
+    public double getAverageFps() {
+        return totalNanos == 0 ? 0 : count * 1e9 / totalNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d frames, %.1f fps, avg %.2f ms, max %.2f ms", count, getAverageFps(),
+                getAverageMillis(), getMaxMillis());
+    }
+}
@@ -3,15 +3,23 @@ package es.upm.pproject.sokoban.view;
 import java.awt.*;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 
 import javax.swing.*;
 import es.upm.pproject.sokoban.controller.GameController;
+import es.upm.pproject.sokoban.controller.MoveJournal;
 import es.upm.pproject.sokoban.controller.MusicController;
+import es.upm.pproject.sokoban.controller.QuickSaveSlots;
 import es.upm.pproject.sokoban.exceptions.InvalidLevelException;
+import es.upm.pproject.sokoban.model.GameSnapshot;
 import es.upm.pproject.sokoban.model.Level;
 import es.upm.pproject.sokoban.model.LevelParser;
 import es.upm.pproject.sokoban.model.LevelValidator;
+import es.upm.pproject.sokoban.model.Replay;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Main window (JFrame) for the Sokoban game.
@@ -33,6 +41,7 @@ import es.upm.pproject.sokoban.model.LevelValidator;
 public class GameFrame extends JFrame {
     private static final long serialVersionUID = 1L;
     private static final String ERROR_TITLE = "Error";
+    private static final Logger logger = LoggerFactory.getLogger(GameFrame.class);
     private JLabel moveCountLabel;
     private BoardPanel boardPanel;
     private MusicController musicController = new MusicController(Arrays.asList(
@@ -43,6 +52,11 @@ public class GameFrame extends JFrame {
     private int i = 1;
     private boolean gameFinished = false;
     private static int totalMoves = 0;
+    /** Directory of the autosave journal and the quick-save slots. */
+    private final transient Path home;
+    private transient MoveJournal journal;
+    private transient Replay lastCompletedReplay;
+    private final transient QuickSaveSlots quickSaveSlots;
 
     /**
      * Constructs the main game frame, loads the first level,
@@ -51,11 +65,29 @@ public class GameFrame extends JFrame {
      * @throws InvalidLevelException if the initial level parsing fails.
      */
     public GameFrame() throws InvalidLevelException {
+        this(MoveJournal.homeDirectory());
+    }
+
+    /**
+     * Constructs the main game frame, keeping the autosave journal and the
+     * quick-save slots in the given directory instead of the default one.
+     * 
+     * @param home the directory of the autosave files.
+     * @throws InvalidLevelException if the initial level parsing fails.
+     */
+    public GameFrame(Path home) throws InvalidLevelException {
+        this.home = home;
+        this.quickSaveSlots = new QuickSaveSlots(home, QuickSaveSlots.DEFAULT_SLOTS);
+        Runtime.getRuntime().addShutdownHook(new Thread(quickSaveSlots::close));
         try {
+            MoveJournal.Recovery recovery = openJournal();
             Level level = LevelParser.parse("level1.txt");
             LevelValidator.validate(level);
             musicController.startMusic();
             initializeUI(level);
+            if (recovery != null) {
+                restoreFromJournal(recovery);
+            }
         } catch (IOException e) {
             JOptionPane.showMessageDialog(this, "Error cargando nivel: " + e.getMessage(), ERROR_TITLE,
                     JOptionPane.ERROR_MESSAGE);
@@ -72,8 +104,7 @@ public class GameFrame extends JFrame {
         moveCountLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
 
         boardPanel = new BoardPanel(level, null, this);
-        GameController controller = new GameController(level, boardPanel, this);
-        boardPanel.setController(controller);
+        attachController(new GameController(level, boardPanel, this));
 
         AnimatedBackgroundPanel animatedBackground = new AnimatedBackgroundPanel();
 
@@ -106,6 +137,11 @@ public class GameFrame extends JFrame {
                     updateMoveCount(boardPanel.getController().getMoveCount());
                     repaint();
                 },
+                e -> {
+                    boardPanel.getController().redoMove();
+                    updateMoveCount(boardPanel.getController().getMoveCount());
+                    repaint();
+                },
                 e -> {
                     JFileChooser fileChooser = new JFileChooser();
                     int result = fileChooser.showSaveDialog(this);
@@ -122,6 +158,10 @@ public class GameFrame extends JFrame {
                         GameController loadedController = GameController.loadGame(file, boardPanel, this);
                         if (loadedController != null) {
                             boardPanel.setController(loadedController);
+                            if (journal != null) {
+                                loadedController.setJournal(journal);
+                                journal.beginSavedGame(file.toPath());
+                            }
                             updateMoveCount(loadedController.getMoveCount());
                             i = loadedController.getSavedLevel();
                             updateMoveCount(loadedController.getMoveCount());
@@ -133,14 +173,24 @@ public class GameFrame extends JFrame {
                         }
                     }
                 },
+                e -> showReplay(),
                 e -> System.exit(0),
                 musicController
         );
         menuBar.setAlignmentX(Component.CENTER_ALIGNMENT);
 
+        // Large levels scroll with the player; the minimap shows the whole level
+        JScrollPane boardScroll = new JScrollPane(boardPanel);
+        boardScroll.setBorder(BorderFactory.createEmptyBorder());
+        boardScroll.setOpaque(false);
+        boardScroll.getViewport().setBackground(Color.BLACK);
+        MiniMapPanel miniMap = new MiniMapPanel(boardPanel);
+        boardScroll.getViewport().addChangeListener(e -> miniMap.repaint());
+
         JPanel boardWrapper = new JPanel(new FlowLayout(FlowLayout.CENTER, 0, 0));
         boardWrapper.setOpaque(false);
-        boardWrapper.add(boardPanel);
+        boardWrapper.add(boardScroll);
+        boardWrapper.add(miniMap);
 
         contentPanel.add(menuBar);
         contentPanel.add(Box.createRigidArea(new Dimension(0, 10)));
@@ -149,6 +199,7 @@ public class GameFrame extends JFrame {
         contentPanel.add(boardWrapper);
 
         animatedBackground.add(contentPanel, BorderLayout.CENTER);
+        animatedBackground.setOccluder(boardScroll.getViewport());
 
         setTitle("Sokoban");
         setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
@@ -167,6 +218,7 @@ public class GameFrame extends JFrame {
         if (gameFinished)
             return;
 
+        lastCompletedReplay = boardPanel.getController().getReplay();
         try {
             i++;
             Level nextLevel = LevelParser.parse("level" + i + ".txt");
@@ -179,9 +231,7 @@ public class GameFrame extends JFrame {
                 return;
             }
             boardPanel.setLevel(nextLevel);
-            GameController newController = new GameController(nextLevel, boardPanel, this);
-            newController.setSavedLevel(i);
-            boardPanel.setController(newController);
+            attachController(new GameController(nextLevel, boardPanel, this));
             updateMoveCount(0);
             pack();
         } catch (IOException | InvalidLevelException ex) {
@@ -189,6 +239,9 @@ public class GameFrame extends JFrame {
             if (musicController != null) {
                 musicController.stopMusic();
             }
+            if (journal != null) {
+                journal.clear();
+            }
             JOptionPane.showMessageDialog(this, "Congrats, you completed the game!\nScore: " + totalMoves, "Sokoban",
                     JOptionPane.INFORMATION_MESSAGE);
             dispose();
@@ -207,8 +260,7 @@ public class GameFrame extends JFrame {
             totalMoves = 0;
             Level level = LevelParser.parse("level1.txt");
             boardPanel.setLevel(level);
-            GameController controller = new GameController(level, boardPanel, this);
-            boardPanel.setController(controller);
+            attachController(new GameController(level, boardPanel, this));
             updateMoveCount(0);
             pack();
         } catch (IOException e) {
@@ -226,8 +278,7 @@ public class GameFrame extends JFrame {
         try {
             Level level = LevelParser.parse("level" + i + ".txt");
             boardPanel.setLevel(level);
-            GameController controller = new GameController(level, boardPanel, this);
-            boardPanel.setController(controller);
+            attachController(new GameController(level, boardPanel, this));
             updateMoveCount(0);
             pack();
         } catch (IOException e) {
@@ -236,6 +287,142 @@ public class GameFrame extends JFrame {
         }
     }
 
+    /**
+     * Sets the controller of a freshly started level and records the start
+     * of the level in the autosave journal.
+     * 
+     * @param controller the controller of the level being started.
+     */
+    private void attachController(GameController controller) {
+        controller.setSavedLevel(i);
+        boardPanel.setController(controller);
+        if (journal != null) {
+            controller.setJournal(journal);
+            journal.beginLevel(i, totalMoves);
+        }
+    }
+
+    /**
+     * Reads the progress left in the autosave journal by the previous session
+     * and opens the journal for the current one.
+     * 
+     * @return the recovered progress, or null if there is nothing to restore.
+     */
+    private MoveJournal.Recovery openJournal() {
+        Path path = home.resolve(MoveJournal.FILE_NAME);
+        MoveJournal.Recovery recovery = null;
+        try {
+            recovery = MoveJournal.recover(path);
+        } catch (IOException e) {
+            logger.warn(" Could not read the autosave journal: {}", e.getMessage());
+        }
+        try {
+            journal = new MoveJournal(path, MoveJournal.DEFAULT_SYNC_INTERVAL_MILLIS);
+            Runtime.getRuntime().addShutdownHook(new Thread(journal::close));
+        } catch (IOException e) {
+            logger.warn(" Autosave disabled, could not open the journal: {}", e.getMessage());
+        }
+        return recovery;
+    }
+
+    /**
+     * Restores the level recorded in the autosave journal and replays the
+     * moves made on it, leaving the player exactly where they left off.
+     * 
+     * @param recovery the progress recovered from the journal.
+     */
+    private void restoreFromJournal(MoveJournal.Recovery recovery) {
+        GameController controller;
+        if (recovery.getSaveFile() != null) {
+            if (!Files.exists(recovery.getSaveFile())) {
+                return;
+            }
+            controller = GameController.loadGame(recovery.getSaveFile().toFile(), boardPanel, this);
+            if (controller == null) {
+                return;
+            }
+            i = controller.getSavedLevel();
+            boardPanel.setController(controller);
+            if (journal != null) {
+                controller.setJournal(journal);
+                journal.beginSavedGame(recovery.getSaveFile());
+            }
+        } else {
+            Level level;
+            try {
+                level = LevelParser.parse("level" + recovery.getLevelNumber() + ".txt");
+                LevelValidator.validate(level);
+            } catch (IOException | InvalidLevelException e) {
+                logger.warn(" Journaled level {} could not be restored: {}", recovery.getLevelNumber(),
+                        e.getMessage());
+                return;
+            }
+            i = recovery.getLevelNumber();
+            totalMoves = recovery.getTotalScore();
+            boardPanel.setLevel(level);
+            controller = new GameController(level, boardPanel, this);
+            attachController(controller);
+        }
+        controller.replayJournal(recovery.getOps());
+        updateMoveCount(controller.getMoveCount());
+        pack();
+        logger.info(" Progress restored from the autosave journal (level {}).", i);
+    }
+
+    /**
+     * Opens the replay viewer with the moves of the current level, or with
+     * the last completed level if no move has been played yet.
+     */
+    private void showReplay() {
+        Replay replay = boardPanel.getController().getReplay();
+        if (replay.size() == 0 && lastCompletedReplay != null) {
+            replay = lastCompletedReplay;
+        }
+        new ReplayDialog(this, replay).setVisible(true);
+        boardPanel.requestFocusInWindow();
+    }
+
+    /**
+     * Stores the current game in a quick-save slot.
+     * 
+     * @param slot the slot index, starting at 0.
+     */
+    public void quickSave(int slot) {
+        if (gameFinished || slot < 0 || slot >= quickSaveSlots.size()) {
+            return;
+        }
+        quickSaveSlots.save(slot, boardPanel.getController().snapshot());
+    }
+
+    /**
+     * Restores the game stored in a quick-save slot, if any.
+     * 
+     * @param slot the slot index, starting at 0.
+     */
+    public void quickLoad(int slot) {
+        if (gameFinished || slot < 0 || slot >= quickSaveSlots.size()) {
+            return;
+        }
+        GameSnapshot snapshot = quickSaveSlots.get(slot);
+        if (snapshot == null) {
+            logger.info(" Quick-save slot {} is empty.", slot + 1);
+            return;
+        }
+        boardPanel.getController().restore(snapshot);
+        i = snapshot.getLevelNumber();
+        updateMoveCount(snapshot.getMoveCount());
+        pack();
+    }
+
+    /**
+     * Disposes the frame once the pending quick-saves are written.
+     */
+    @Override
+    public void dispose() {
+        quickSaveSlots.close();
+        super.dispose();
+    }
+
     /**
      * Returns the BoardPanel instance.
      * 
@@ -10,7 +10,8 @@ import java.awt.event.ActionListener;
 /**
  * Custom menu bar with styled buttons for game controls.
  * 
- * Provides buttons for New Game, Restart, Undo, Save, Load, and Exit actions.
+ * Provides buttons for New Game, Restart, Undo, Redo, Save, Load, Replay, and
+ * Exit actions.
  * Buttons use a retro style and color scheme.
  */
 public class MenuBar extends JMenuBar {
@@ -26,16 +27,20 @@ public class MenuBar extends JMenuBar {
      * @param onNewGame ActionListener for "New Game" button.
      * @param onRestart ActionListener for "Restart" button.
      * @param onUndo    ActionListener for "Undo" button.
+     * @param onRedo    ActionListener for "Redo" button.
      * @param onSave    ActionListener for "Save" button.
      * @param onLoad    ActionListener for "Load" button.
+     * @param onReplay  ActionListener for "Replay" button.
      * @param onExit    ActionListener for "Exit" button.
      */
     public MenuBar(
             ActionListener onNewGame,
             ActionListener onRestart,
             ActionListener onUndo,
+            ActionListener onRedo,
             ActionListener onSave,
             ActionListener onLoad,
+            ActionListener onReplay,
             ActionListener onExit,
             MusicController musicController) {
 
@@ -53,10 +58,14 @@ public class MenuBar extends JMenuBar {
         buttonPanel.add(Box.createRigidArea(new Dimension(10, 0)));
         buttonPanel.add(createStyledButton("Undo", onUndo));
         buttonPanel.add(Box.createRigidArea(new Dimension(10, 0)));
+        buttonPanel.add(createStyledButton("Redo", onRedo));
+        buttonPanel.add(Box.createRigidArea(new Dimension(10, 0)));
         buttonPanel.add(createStyledButton("Save", onSave));
         buttonPanel.add(Box.createRigidArea(new Dimension(10, 0)));
         buttonPanel.add(createStyledButton("Load", onLoad));
         buttonPanel.add(Box.createRigidArea(new Dimension(10, 0)));
+        buttonPanel.add(createStyledButton("Replay", onReplay));
+        buttonPanel.add(Box.createRigidArea(new Dimension(10, 0)));
         buttonPanel.add(createStyledButton("Exit", onExit));
         buttonPanel.add(Box.createRigidArea(new Dimension(10, 0)));
         JButton musicButton = createStyledButton(musicController.isPlaying() ? "Música: ON" : "Música: OFF", null);
@@ -0,0 +1,193 @@
+package es.upm.pproject.sokoban.view;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Insets;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+
+import javax.swing.BorderFactory;
+import javax.swing.JComponent;
+
+import es.upm.pproject.sokoban.model.Box;
+import es.upm.pproject.sokoban.model.Entity;
+import es.upm.pproject.sokoban.model.FloorTile;
+import es.upm.pproject.sokoban.model.Level;
+import es.upm.pproject.sokoban.model.Player;
+import es.upm.pproject.sokoban.model.Tile;
+
+/**
+ * Overview of the whole level for boards too large for the window.
+ *
+ * The level is kept as an image with one pixel per cell, updated only for
+ * the cells the board repaints, and scaled to at most {@link #MAX_SIZE}
+ * pixels when painted, with the part of the level in view outlined.
+ * Clicking or dragging on the minimap scrolls the board there. The minimap
+ * hides itself when the whole level fits in the view.
+ */
+public class MiniMapPanel extends JComponent {
+    private static final long serialVersionUID = 1L;
+
+    /** Largest side of the minimap, in pixels. */
+    static final int MAX_SIZE = 160;
+
+    /** Largest number of pixels per cell, for small levels. */
+    private static final int MAX_CELL_PIXELS = 8;
+
+    static final int WALL = 0x5a5a5a;
+    static final int FLOOR = 0x202020;
+    static final int GOAL = 0x8a7a20;
+    static final int BOX = 0xb06a30;
+    static final int BOX_ON_GOAL = 0x40c040;
+    static final int PLAYER = 0x00ffc8;
+
+    private static final Color VIEW_OUTLINE = Color.WHITE;
+
+    private final transient BoardPanel board;
+    private transient Level level;
+    private transient BufferedImage cells;
+    private double scale = 1;
+
+    /**
+     * Creates the minimap of a board and attaches it to the board.
+     *
+     * @param board the board shown
+     */
+    public MiniMapPanel(BoardPanel board) {
+        this.board = board;
+        setOpaque(false);
+        setBorder(BorderFactory.createEmptyBorder(0, 10, 0, 0));
+        MouseAdapter scroller = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                scrollTo(e.getX(), e.getY());
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                scrollTo(e.getX(), e.getY());
+            }
+        };
+        addMouseListener(scroller);
+        addMouseMotionListener(scroller);
+        board.setMiniMap(this);
+        levelChanged();
+    }
+
+    /**
+     * Draws the level of the board again, e.g. after a level change or an
+     * undo.
+     */
+    public void levelChanged() {
+        level = board.getLevel();
+        int width = Math.max(1, level.getWidth());
+        int height = Math.max(1, level.getHeight());
+        if (cells == null || cells.getWidth() != width || cells.getHeight() != height) {
+            cells = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+        updateCells(0, 0, level.getHeight() - 1, level.getWidth() - 1);
+
+        scale = Math.min(MAX_CELL_PIXELS, (double) MAX_SIZE / Math.max(width, height));
+        Insets insets = getInsets();
+        setPreferredSize(new Dimension((int) Math.ceil(width * scale) + insets.left + insets.right,
+                (int) Math.ceil(height * scale) + insets.top + insets.bottom));
+        Dimension view = board.getPreferredScrollableViewportSize();
+        Dimension full = board.getPreferredSize();
+        setVisible(view.width < full.width || view.height < full.height);
+        revalidate();
+        repaint();
+    }
+
+    /**
+     * Updates the cells of a rectangular area after they changed.
+     *
+     * @param fromRow the first row
+     * @param fromCol the first column
+     * @param toRow   the last row
+     * @param toCol   the last column
+     */
+    void cellsChanged(int fromRow, int fromCol, int toRow, int toCol) {
+        if (board.getLevel() != level) {
+            levelChanged();
+            return;
+        }
+        updateCells(fromRow, fromCol, toRow, toCol);
+        if (isVisible()) {
+            repaint();
+        }
+    }
+
+    private void updateCells(int fromRow, int fromCol, int toRow, int toCol) {
+        for (int row = Math.max(0, fromRow); row <= Math.min(level.getHeight() - 1, toRow); row++) {
+            for (int col = Math.max(0, fromCol); col <= Math.min(level.getWidth() - 1, toCol); col++) {
+                cells.setRGB(col, row, colorOf(level.getTile(row, col)));
+            }
+        }
+    }
+
+    /**
+     * Returns the color of a cell on the minimap.
+     */
+    static int colorOf(Tile tile) {
+        if (!(tile instanceof FloorTile)) {
+            return WALL;
+        }
+        FloorTile floor = (FloorTile) tile;
+        Entity entity = floor.getEntity();
+        if (entity instanceof Player) {
+            return PLAYER;
+        }
+        if (entity instanceof Box) {
+            return floor.isGoal() ? BOX_ON_GOAL : BOX;
+        }
+        return floor.isGoal() ? GOAL : FLOOR;
+    }
+
+    /**
+     * Returns the color drawn for a cell.
+     *
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @return the RGB color
+     */
+    int getCellColor(int row, int col) {
+        return cells.getRGB(col, row) & 0xffffff;
+    }
+
+    /**
+     * Centers the view of the board on the cell under a point of the
+     * minimap.
+     */
+    private void scrollTo(int x, int y) {
+        Insets insets = getInsets();
+        int tile = board.getTileSize();
+        Rectangle visible = board.getVisibleRect();
+        int centerX = (int) ((x - insets.left) / scale * tile);
+        int centerY = (int) ((y - insets.top) / scale * tile);
+        board.scrollRectToVisible(new Rectangle(centerX - visible.width / 2, centerY - visible.height / 2,
+                visible.width, visible.height));
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2d = (Graphics2D) g.create();
+        Insets insets = getInsets();
+        g2d.translate(insets.left, insets.top);
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        int width = (int) Math.ceil(cells.getWidth() * scale);
+        int height = (int) Math.ceil(cells.getHeight() * scale);
+        g2d.drawImage(cells, 0, 0, width, height, null);
+
+        Rectangle visible = board.getVisibleRect();
+        double toMap = scale / board.getTileSize();
+        g2d.setColor(VIEW_OUTLINE);
+        g2d.drawRect((int) (visible.x * toMap), (int) (visible.y * toMap),
+                Math.max(1, (int) (visible.width * toMap) - 1), Math.max(1, (int) (visible.height * toMap) - 1));
+        g2d.dispose();
+    }
+}
@@ -0,0 +1,102 @@
+package es.upm.pproject.sokoban.view;
+
+/**
+ * Slides the player, and the box it pushes, from one cell to the next.
+ *
+ * The level is updated as soon as a move is made; the animator only tells
+ * the board where to draw the two sprites in the meantime. It advances in
+ * fixed steps of {@link #STEP_NANOS}, whatever the frame rate, and the board
+ * interpolates between the last two steps when it paints, so the movement
+ * looks the same on slow and fast frames. When moves are waiting behind the
+ * current one the slide runs faster, which keeps fast typing from lagging
+ * behind the keyboard.
+ *
+ * Cells are indexes {@code row * width + col}.
+ */
+class MoveAnimator {
+
+    /** Duration of one animation step, in nanoseconds (120 steps per second). */
+    static final long STEP_NANOS = 1_000_000_000L / 120;
+
+    /** Time a move takes to slide when no other move waits, in nanoseconds. */
+    static final long MOVE_NANOS = 120_000_000L;
+
+    private int playerFrom = -1;
+    private int playerTo = -1;
+    private int boxFrom = -1;
+    private int boxTo = -1;
+
+    private double progress = 1;
+    private double previousProgress = 1;
+    private double speed = 1;
+
+    /**
+     * Starts sliding a move that was just applied to the level.
+     *
+     * @param playerFrom the cell the player left
+     * @param playerTo   the cell the player is now on
+     * @param boxFrom    the cell the pushed box left, or -1 without a push
+     * @param boxTo      the cell the pushed box is now on, or -1
+     * @param backlog    the number of moves waiting after this one
+     */
+    void start(int playerFrom, int playerTo, int boxFrom, int boxTo, int backlog) {
+        this.playerFrom = playerFrom;
+        this.playerTo = playerTo;
+        this.boxFrom = boxFrom;
+        this.boxTo = boxTo;
+        this.speed = 1.0 + backlog;
+        this.progress = 0;
+        this.previousProgress = 0;
+    }
+
+    /**
+     * Advances the slide by one fixed step.
+     */
+    void update() {
+        previousProgress = progress;
+        progress = Math.min(1, progress + speed * STEP_NANOS / MOVE_NANOS);
+    }
+
+    /**
+     * Ends the slide at once, e.g. before an undo or a level change.
+     */
+    void finish() {
+        progress = 1;
+        previousProgress = 1;
+    }
+
+    /**
+     * Returns whether a move is still sliding.
+     *
+     * @return true until the slide reaches its end
+     */
+    boolean isRunning() {
+        return previousProgress < 1;
+    }
+
+    /**
+     * Returns the position of the slide between the last two steps.
+     *
+     * @param alpha the time elapsed since the last step, as a fraction of a step
+     * @return the fraction of the move covered, from 0 to 1
+     */
+    double interpolate(double alpha) {
+        return previousProgress + (progress - previousProgress) * alpha;
+    }
+
+    int getPlayerFrom() {
+        return playerFrom;
+    }
+
+    int getPlayerTo() {
+        return playerTo;
+    }
+
+    int getBoxFrom() {
+        return boxFrom;
+    }
+
+    int getBoxTo() {
+        return boxTo;
+    }
+}
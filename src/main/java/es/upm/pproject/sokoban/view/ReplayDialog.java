@@ -0,0 +1,141 @@
+package es.upm.pproject.sokoban.view;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.awt.Frame;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JComboBox;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JSlider;
+import javax.swing.Timer;
+import javax.swing.WindowConstants;
+
+import es.upm.pproject.sokoban.model.Replay;
+
+/**
+ * Modal dialog that plays back the recording of a level.
+ *
+ * Playback runs on a Swing timer at a selectable speed, and the slider seeks
+ * to any move through {@link Replay.Cursor#seek(int)}, which restores the
+ * nearest keyframe instead of replaying every move from the start.
+ */
+public class ReplayDialog extends JDialog {
+    private static final long serialVersionUID = 1L;
+
+    /** Delay between two moves at normal speed, in milliseconds. */
+    private static final int BASE_DELAY = 200;
+
+    private static final String[] SPEED_LABELS = { "0.5x", "1x", "2x", "4x", "8x" };
+    private static final double[] SPEEDS = { 0.5, 1, 2, 4, 8 };
+
+    private final transient Replay.Cursor cursor;
+    private final BoardPanel boardPanel;
+    private final JSlider slider;
+    private final JLabel positionLabel;
+    private final JButton playButton;
+    private final Timer timer;
+
+    /** True while the slider is being moved by the playback itself. */
+    private boolean updatingSlider;
+
+    /**
+     * Creates the replay dialog for the given recording.
+     *
+     * @param owner  the frame owning the dialog.
+     * @param replay the recording to play back.
+     */
+    public ReplayDialog(Frame owner, Replay replay) {
+        super(owner, "Replay", true);
+        this.cursor = replay.cursor();
+
+        boardPanel = new BoardPanel(cursor.getLevel(), null, null);
+        positionLabel = new JLabel();
+        positionLabel.setFont(new Font("Monospaced", Font.PLAIN, 14));
+        positionLabel.setForeground(Color.WHITE);
+
+        slider = new JSlider(0, cursor.length(), 0);
+        slider.setOpaque(false);
+        slider.addChangeListener(e -> {
+            if (!updatingSlider) {
+                seek(slider.getValue());
+            }
+        });
+
+        timer = new Timer(BASE_DELAY, e -> step());
+        playButton = new JButton("Play");
+        playButton.addActionListener(e -> togglePlayback());
+
+        JComboBox<String> speedBox = new JComboBox<>(SPEED_LABELS);
+        speedBox.setSelectedIndex(1);
+        speedBox.addActionListener(e -> {
+            int delay = (int) (BASE_DELAY / SPEEDS[speedBox.getSelectedIndex()]);
+            timer.setDelay(delay);
+            timer.setInitialDelay(delay);
+        });
+
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 5));
+        controls.setBackground(Color.BLACK);
+        controls.add(playButton);
+        controls.add(speedBox);
+        controls.add(positionLabel);
+
+        JPanel content = new JPanel(new BorderLayout(0, 5));
+        content.setBackground(Color.BLACK);
+        content.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        content.add(boardPanel, BorderLayout.CENTER);
+        content.add(slider, BorderLayout.NORTH);
+        content.add(controls, BorderLayout.SOUTH);
+
+        setContentPane(content);
+        setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosed(java.awt.event.WindowEvent e) {
+                timer.stop();
+            }
+        });
+        updatePosition();
+        pack();
+        setLocationRelativeTo(owner);
+    }
+
+    private void togglePlayback() {
+        if (timer.isRunning()) {
+            timer.stop();
+            playButton.setText("Play");
+        } else {
+            if (cursor.getIndex() >= cursor.length()) {
+                seek(0);
+            }
+            timer.start();
+            playButton.setText("Pause");
+        }
+    }
+
+    private void step() {
+        if (!cursor.step()) {
+            timer.stop();
+            playButton.setText("Play");
+        }
+        updatePosition();
+    }
+
+    private void seek(int index) {
+        cursor.seek(index);
+        updatePosition();
+    }
+
+    private void updatePosition() {
+        updatingSlider = true;
+        slider.setValue(cursor.getIndex());
+        updatingSlider = false;
+        positionLabel.setText("Move " + cursor.getIndex() + " / " + cursor.length());
+        boardPanel.repaint();
+    }
+}
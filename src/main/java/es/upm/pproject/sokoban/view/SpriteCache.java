@@ -0,0 +1,298 @@
+package es.upm.pproject.sokoban.view;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BaseMultiResolutionImage;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Board sprites scaled once to the current tile size.
+ *
+ * The source images are much larger than a tile, and drawing them with a
+ * target size rescales them on every paint. This cache keeps a copy of each
+ * sprite at the tile size, in an image compatible with the screen's color
+ * model so that Java2D can keep it in video memory, and only scales them
+ * again when the tile size changes.
+ *
+ * Every source is reduced through a chain of half-size copies (mipmaps),
+ * built as they are first needed, and each tile size is scaled in a single
+ * step from the closest larger level of the chain. The sprites of the last
+ * {@link #MAX_SETS} tile sizes are kept so that zooming back and forth does
+ * not scale them again. On screens with a scale factor above 1, each sprite
+ * is a {@link java.awt.image.MultiResolutionImage} that also holds a copy at
+ * the screen's resolution, which Java2D draws instead of upscaling the tile.
+ */
+public class SpriteCache {
+
+    /** Number of tile sizes whose sprites are kept. */
+    public static final int MAX_SETS = 3;
+
+    private final Image wallSource;
+    private final Image[] floorSources;
+    private final Image goalSource;
+    private final Image playerSource;
+    private final Image boxSource;
+
+    /** Half-size chains of every source, in the order wall, floors, goal, player, box. */
+    private final List<List<BufferedImage>> mipmaps = new ArrayList<>();
+
+    /** Sprites per tile size and screen scale, least recently used first. */
+    private final Map<String, SpriteSet> sets = new LinkedHashMap<String, SpriteSet>(8, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SpriteSet> eldest) {
+            return size() > MAX_SETS;
+        }
+    };
+
+    private int tileSize;
+    private double deviceScale = 1;
+    private SpriteSet current;
+
+    /**
+     * Sprites at one tile size.
+     */
+    private static final class SpriteSet {
+        private Image wall;
+        private Image[] floors;
+        private Image goal;
+        private Image player;
+        private Image box;
+    }
+
+    /**
+     * Creates a cache over the given source images. Missing images are
+     * allowed and give null sprites.
+     *
+     * @param wall   the wall image
+     * @param floors the floor textures
+     * @param goal   the goal image
+     * @param player the player image
+     * @param box    the box image
+     */
+    public SpriteCache(Image wall, Image[] floors, Image goal, Image player, Image box) {
+        this.wallSource = wall;
+        this.floorSources = floors.clone();
+        this.goalSource = goal;
+        this.playerSource = player;
+        this.boxSource = box;
+        for (int i = 0; i < floors.length + 4; i++) {
+            mipmaps.add(null);
+        }
+        this.current = new SpriteSet();
+        this.current.floors = new Image[floors.length];
+    }
+
+    /**
+     * Scales every sprite to the given tile size, unless they already have
+     * that size.
+     *
+     * @param size the tile size, in pixels
+     */
+    public void setTileSize(int size) {
+        setTileSize(size, 1);
+    }
+
+    /**
+     * Scales every sprite to the given tile size for a screen with the given
+     * scale factor, unless they already have that size. Sprites scaled
+     * before for one of the last sizes are reused.
+     *
+     * @param size  the tile size, in logical pixels
+     * @param scale the screen scale factor, 1 on ordinary screens
+     */
+    public void setTileSize(int size, double scale) {
+        if (size == tileSize && scale == deviceScale) {
+            return;
+        }
+        tileSize = size;
+        deviceScale = scale;
+        current = sets.computeIfAbsent(size + "@" + scale, key -> createSet(size, scale));
+    }
+
+    private SpriteSet createSet(int size, double scale) {
+        SpriteSet set = new SpriteSet();
+        set.wall = sprite(0, wallSource, size, scale, false);
+        set.floors = new Image[floorSources.length];
+        for (int i = 0; i < floorSources.length; i++) {
+            set.floors[i] = sprite(1 + i, floorSources[i], size, scale, false);
+        }
+        int next = 1 + floorSources.length;
+        set.goal = sprite(next, goalSource, size, scale, true);
+        set.player = sprite(next + 1, playerSource, size, scale, true);
+        set.box = sprite(next + 2, boxSource, size, scale, true);
+        return set;
+    }
+
+    /**
+     * Scales one source to a tile, adding a copy at the screen's resolution
+     * when the screen is scaled.
+     */
+    private Image sprite(int index, Image source, int size, double scale, boolean translucent) {
+        BufferedImage base = fromMipmap(index, source, size, translucent);
+        int deviceSize = (int) Math.round(size * scale);
+        if (base == null || deviceSize <= size) {
+            return base;
+        }
+        return new BaseMultiResolutionImage(base, fromMipmap(index, source, deviceSize, translucent));
+    }
+
+    /**
+     * Scales a source in one step from the smallest level of its chain that
+     * is not smaller than the tile.
+     */
+    private BufferedImage fromMipmap(int index, Image source, int size, boolean translucent) {
+        if (source == null || source.getWidth(null) <= 0 || source.getHeight(null) <= 0) {
+            return null;
+        }
+        List<BufferedImage> chain = mipmaps.get(index);
+        if (chain == null) {
+            chain = new ArrayList<>();
+            chain.add(draw(source, source.getWidth(null), source.getHeight(null), Transparency.TRANSLUCENT));
+            mipmaps.set(index, chain);
+        }
+        BufferedImage level = chain.get(chain.size() - 1);
+        while (level.getWidth() / 2 >= size && level.getHeight() / 2 >= size) {
+            level = draw(level, level.getWidth() / 2, level.getHeight() / 2, Transparency.TRANSLUCENT);
+            chain.add(level);
+        }
+        level = chain.get(0);
+        for (BufferedImage candidate : chain) {
+            if (candidate.getWidth() >= size && candidate.getHeight() >= size) {
+                level = candidate;
+            }
+        }
+        return draw(level, size, size, translucent ? Transparency.TRANSLUCENT : Transparency.OPAQUE);
+    }
+
+    /**
+     * Returns the tile size the sprites are scaled to.
+     *
+     * @return the tile size, in pixels, or 0 before the first scaling
+     */
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * Returns the number of tile sizes whose sprites are cached.
+     *
+     * @return the number of cached sprite sets
+     */
+    public int getCachedSetCount() {
+        return sets.size();
+    }
+
+    /**
+     * Returns the wall sprite.
+     *
+     * @return the scaled wall, or null if the image is missing
+     */
+    public Image getWall() {
+        return current.wall;
+    }
+
+    /**
+     * Returns one of the floor textures.
+     *
+     * @param index the texture index, below {@link #getFloorCount()}
+     * @return the scaled floor texture, or null if the image is missing
+     */
+    public Image getFloor(int index) {
+        return current.floors[index];
+    }
+
+    /**
+     * Returns the number of floor textures.
+     *
+     * @return the number of floor textures
+     */
+    public int getFloorCount() {
+        return floorSources.length;
+    }
+
+    /**
+     * Returns the goal sprite.
+     *
+     * @return the scaled goal, or null if the image is missing
+     */
+    public Image getGoal() {
+        return current.goal;
+    }
+
+    /**
+     * Returns the player sprite.
+     *
+     * @return the scaled player, or null if the image is missing
+     */
+    public Image getPlayer() {
+        return current.player;
+    }
+
+    /**
+     * Returns the box sprite.
+     *
+     * @return the scaled box, or null if the image is missing
+     */
+    public Image getBox() {
+        return current.box;
+    }
+
+    /**
+     * Scales an image down to a square tile. Large images are halved step by
+     * step, which keeps bilinear filtering from skipping most source pixels.
+     */
+    static BufferedImage scale(Image source, int size, boolean translucent) {
+        if (source == null) {
+            return null;
+        }
+        int width = source.getWidth(null);
+        int height = source.getHeight(null);
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+
+        Image current = source;
+        while (width / 2 >= size && height / 2 >= size) {
+            width /= 2;
+            height /= 2;
+            current = draw(current, width, height, Transparency.TRANSLUCENT);
+        }
+        return draw(current, size, size, translucent ? Transparency.TRANSLUCENT : Transparency.OPAQUE);
+    }
+
+    private static BufferedImage draw(Image source, int width, int height, int transparency) {
+        BufferedImage target = createCompatibleImage(width, height, transparency);
+        Graphics2D g2d = target.createGraphics();
+        g2d.setComposite(AlphaComposite.Src);
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2d.drawImage(source, 0, 0, width, height, null);
+        g2d.dispose();
+        return target;
+    }
+
+    /**
+     * Creates an image in the screen's color model, or a plain ARGB image
+     * when there is no screen.
+     */
+    static BufferedImage createCompatibleImage(int width, int height, int transparency) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration config = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDefaultConfiguration();
+            return config.createCompatibleImage(width, height, transparency);
+        }
+        return new BufferedImage(width, height,
+                transparency == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+    }
+}
@@ -0,0 +1,113 @@
+package es.upm.pproject.sokoban.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import es.upm.pproject.sokoban.controller.SoundEffectsController.Effect;
+
+class EffectMixerTest {
+
+    private static final int CHUNK_BYTES = EffectMixer.CHUNK_FRAMES * EffectMixer.FORMAT.getFrameSize();
+
+    private static short[][] constantEffects(int frames, short value) {
+        short[][] samples = new short[Effect.values().length][];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = new short[frames * 2];
+            Arrays.fill(samples[i], value);
+        }
+        return samples;
+    }
+
+    private static int sampleAt(byte[] out, int index) {
+        return (short) ((out[2 * index] & 0xff) | (out[2 * index + 1] << 8));
+    }
+
+    @Test
+    void testMonoIsResampledToStereo() throws Exception {
+        AudioFormat mono = new AudioFormat(22050, 16, 1, true, false);
+        byte[] data = new byte[100 * 2];
+        for (int i = 0; i < 100; i++) {
+            data[2 * i] = (byte) (i * 100);
+            data[2 * i + 1] = (byte) ((i * 100) >> 8);
+        }
+        AudioInputStream audio = new AudioInputStream(new ByteArrayInputStream(data), mono, 100);
+
+        short[] samples = EffectMixer.toMixFormat(audio);
+
+        assertEquals(200 * 2, samples.length, "Doubling the rate doubles the frames.");
+        assertEquals(samples[0], samples[1], "Both channels carry the mono signal.");
+        assertEquals(100, samples[4], "Even frames keep the source samples.");
+        assertEquals(50, samples[2], "Odd frames are interpolated.");
+    }
+
+    @Test
+    void testVoicesAreMixedAndClamped() {
+        EffectMixer mixer = new EffectMixer(constantEffects(EffectMixer.CHUNK_FRAMES, (short) 20000));
+        byte[] out = new byte[CHUNK_BYTES];
+        assertFalse(mixer.render(out), "Nothing plays before an effect is requested.");
+
+        mixer.play(Effect.MOVE, 0);
+        assertTrue(mixer.render(out));
+        assertEquals(20000, sampleAt(out, 0));
+
+        mixer.play(Effect.MOVE, EffectMixer.MIN_RETRIGGER_NANOS);
+        mixer.play(Effect.PUSH, EffectMixer.MIN_RETRIGGER_NANOS);
+        assertTrue(mixer.render(out));
+        assertEquals(Short.MAX_VALUE, sampleAt(out, 0), "The sum of two voices is clamped.");
+        assertFalse(mixer.render(out), "Voices are freed when their effect ends.");
+        assertEquals(3, mixer.getPlayedCount());
+    }
+
+    @Test
+    void testRapidRequestsAreCoalesced() {
+        EffectMixer mixer = new EffectMixer(constantEffects(EffectMixer.CHUNK_FRAMES * 100, (short) 1));
+        long step = EffectMixer.MIN_RETRIGGER_NANOS / 4;
+        for (int i = 0; i < 100; i++) {
+            mixer.play(Effect.MOVE, i * step);
+        }
+        assertTrue(mixer.render(new byte[CHUNK_BYTES]));
+
+        assertEquals(75, mixer.getCoalescedCount(), "Only one request per interval is queued.");
+        assertEquals(Effect.MOVE.getMaxVoices(), mixer.getActiveVoices());
+        assertEquals(25 - Effect.MOVE.getMaxVoices(), mixer.getDroppedCount());
+    }
+
+    @Test
+    void testGoalStealsVoicesOfLowerPriority() {
+        EffectMixer mixer = new EffectMixer(constantEffects(EffectMixer.CHUNK_FRAMES * 4, (short) 1));
+        byte[] out = new byte[CHUNK_BYTES];
+        long time = 0;
+        for (int i = 0; i < EffectMixer.VOICES; i++) {
+            mixer.play(Effect.GOAL, time);
+            time += EffectMixer.MIN_RETRIGGER_NANOS;
+        }
+        assertTrue(mixer.render(out));
+        assertEquals(EffectMixer.VOICES, mixer.getActiveVoices());
+
+        mixer.play(Effect.MOVE, time);
+        mixer.render(out);
+        assertEquals(1, mixer.getDroppedCount(), "A busy pool drops less important effects.");
+
+        EffectMixer pushes = new EffectMixer(constantEffects(EffectMixer.CHUNK_FRAMES * 4, (short) 1));
+        pushes.play(Effect.MOVE, 0);
+        pushes.play(Effect.PUSH, 0);
+        pushes.play(Effect.MOVE, EffectMixer.MIN_RETRIGGER_NANOS);
+        pushes.play(Effect.PUSH, EffectMixer.MIN_RETRIGGER_NANOS);
+        pushes.render(out);
+        for (int i = 0; i < EffectMixer.VOICES; i++) {
+            pushes.play(Effect.GOAL, (i + 2) * EffectMixer.MIN_RETRIGGER_NANOS);
+        }
+        pushes.render(out);
+
+        assertEquals(4, pushes.getStolenCount(), "Goals take the voices of moves and pushes.");
+        assertEquals(EffectMixer.VOICES, pushes.getActiveVoices());
+        assertEquals(0, pushes.getDroppedCount());
+    }
+}
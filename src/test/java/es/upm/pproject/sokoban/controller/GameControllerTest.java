@@ -5,8 +5,10 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.awt.GraphicsEnvironment;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 
 import es.upm.pproject.sokoban.exceptions.InvalidLevelException;
 import es.upm.pproject.sokoban.model.*;
@@ -19,6 +21,9 @@ class GameControllerTest {
     private Level level;
     private BoardPanel panel;
 
+    @TempDir
+    Path home;
+
     @BeforeAll
     public static void setupHeadlessMode() {
         System.setProperty("java.awt.headless", "true");
@@ -42,7 +47,7 @@ class GameControllerTest {
         GameFrame gameFrame = null;
         try {
             if (!GraphicsEnvironment.isHeadless()) {
-                gameFrame = new GameFrame();
+                gameFrame = new GameFrame(home);
             }
             controller = new GameController(level, panel, gameFrame);
         } catch (InvalidLevelException e) {
@@ -137,6 +142,78 @@ class GameControllerTest {
         assertEquals(3, controller.getMoveCount());
     }
 
+    @Test
+    void testReplayJournal() {
+        byte[] ops = { Direction.UP.getCode(), Direction.LEFT.getCode(), MoveJournal.OP_UNDO,
+                Direction.RIGHT.getCode() };
+        controller.replayJournal(ops);
+        assertEquals(2, controller.getMoveCount());
+        assertTrue(((FloorTile) panel.getLevel().getTile(0, 2)).getEntity() instanceof Player);
+    }
+
+    @Test
+    void testRedoAndSwitchBranch() {
+        controller.movePlayer(0, -1);
+        controller.undoMove();
+        controller.movePlayer(1, 0);
+        assertEquals(1, controller.getMoveCount());
+
+        controller.undoMove();
+        assertTrue(controller.redoMove());
+        assertTrue(((FloorTile) panel.getLevel().getTile(1, 2)).getEntity() instanceof Player);
+        assertFalse(controller.redoMove(), "Nothing should be left to redo.");
+
+        assertTrue(controller.switchBranch());
+        assertTrue(((FloorTile) panel.getLevel().getTile(0, 1)).getEntity() instanceof Player);
+        assertNull(((FloorTile) panel.getLevel().getTile(1, 2)).getEntity());
+        assertEquals(1, controller.getMoveCount());
+    }
+
+    @Test
+    void testWalkIsUndoneAndRedoneAsOneBatch() {
+        Direction[] route = controller.walkTo(0, 0);
+        assertNotNull(route);
+        assertEquals(2, route.length);
+        assertEquals(2, controller.getMoveCount());
+        assertTrue(((FloorTile) panel.getLevel().getTile(0, 0)).getEntity() instanceof Player);
+
+        controller.undoMove();
+        assertEquals(0, controller.getMoveCount(), "A single undo should revert the whole walk.");
+        assertTrue(((FloorTile) panel.getLevel().getTile(1, 1)).getEntity() instanceof Player);
+
+        assertTrue(controller.redoMove());
+        assertEquals(2, controller.getMoveCount(), "A single redo should replay the whole walk.");
+        assertEquals(0, controller.getPlayerRow());
+        assertEquals(0, controller.getPlayerCol());
+    }
+
+    @Test
+    void testPlayMovesKeepsSeparateEntries() {
+        level.setTile(0, 1, new WallTile());
+        Direction[] moves = { Direction.UP, Direction.LEFT, Direction.UP, Direction.DOWN };
+        assertEquals(3, controller.playMoves(moves, moves.length), "The blocked move should be skipped.");
+        assertEquals(3, controller.getMoveCount());
+
+        controller.undoMove();
+        assertEquals(2, controller.getMoveCount(), "Each queued move should be undone on its own.");
+    }
+
+    @Test
+    void testSnapshotAndRestore() {
+        controller.movePlayer(0, -1);
+        GameSnapshot snapshot = controller.snapshot();
+        controller.movePlayer(1, 0);
+        assertEquals(2, controller.getMoveCount());
+
+        controller.restore(snapshot);
+        assertEquals(1, controller.getMoveCount());
+        assertTrue(((FloorTile) panel.getLevel().getTile(0, 1)).getEntity() instanceof Player);
+
+        controller.undoMove();
+        assertEquals(0, controller.getMoveCount());
+        assertTrue(((FloorTile) panel.getLevel().getTile(1, 1)).getEntity() instanceof Player);
+    }
+
     @Test
     void testSaveGameAndLoadGameStatic() throws IOException, ClassNotFoundException {
         File tempFile = File.createTempFile("sokoban_test", ".save");
@@ -0,0 +1,87 @@
+package es.upm.pproject.sokoban.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import es.upm.pproject.sokoban.model.Direction;
+
+class InputQueueTest {
+
+    @Test
+    void testDrainKeepsOrder() {
+        InputQueue queue = new InputQueue();
+        queue.offer(Direction.UP);
+        queue.offer(Direction.LEFT);
+        queue.offer(Direction.UP);
+
+        Direction[] out = new Direction[queue.capacity()];
+        assertEquals(3, queue.drainTo(out));
+        assertArrayEquals(new Direction[] { Direction.UP, Direction.LEFT, Direction.UP },
+                Arrays.copyOf(out, 3));
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void testPollTakesOldestFirst() {
+        InputQueue queue = new InputQueue(8, 2);
+        queue.offer(Direction.LEFT);
+        queue.offer(Direction.RIGHT);
+        queue.offer(Direction.RIGHT);
+
+        assertEquals(Direction.LEFT, queue.poll());
+        assertEquals(Direction.RIGHT, queue.poll());
+        assertTrue(queue.offer(Direction.RIGHT), "A polled move no longer counts as a repeat.");
+        assertEquals(2, queue.size());
+        queue.drainTo(new Direction[8]);
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void testExcessRepeatsAreDropped() {
+        InputQueue queue = new InputQueue(8, 2);
+        for (int i = 0; i < 10; i++) {
+            queue.offer(Direction.RIGHT);
+        }
+        assertEquals(2, queue.size(), "Only two identical moves in a row should wait.");
+        assertEquals(8, queue.getDroppedCount());
+
+        assertTrue(queue.offer(Direction.DOWN), "A different direction is still accepted.");
+        queue.drainTo(new Direction[8]);
+        assertTrue(queue.offer(Direction.RIGHT), "Repeats are counted again after a drain.");
+    }
+
+    @Test
+    void testCapacityIsBounded() {
+        InputQueue queue = new InputQueue(4, 1);
+        Direction[] directions = Direction.values();
+        for (int i = 0; i < 6; i++) {
+            queue.offer(directions[i % 4]);
+        }
+        assertEquals(4, queue.size());
+        assertEquals(2, queue.getDroppedCount());
+
+        queue.clear();
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void testTimesFollowTheirMoves() {
+        InputQueue queue = new InputQueue(4, 2);
+        assertEquals(InputQueue.NO_TIME, queue.peekTime());
+        queue.offer(Direction.UP, 100);
+        queue.offer(Direction.UP, 200);
+        assertFalse(queue.offer(Direction.UP, 300), "A dropped move must not keep its time.");
+        queue.offer(Direction.LEFT, 400);
+
+        assertEquals(100, queue.peekTime());
+        queue.poll();
+        assertEquals(200, queue.peekTime());
+        queue.poll();
+        assertEquals(400, queue.peekTime());
+        queue.clear();
+        assertEquals(InputQueue.NO_TIME, queue.peekTime());
+    }
+}
@@ -0,0 +1,100 @@
+package es.upm.pproject.sokoban.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import es.upm.pproject.sokoban.model.Direction;
+
+class MoveJournalTest {
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempFile("sokoban_journal", ".journal");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void testMovesAndUndosAreRecovered() throws IOException {
+        MoveJournal journal = new MoveJournal(file, 10);
+        journal.beginLevel(3, 42);
+        journal.recordMove(Direction.UP);
+        journal.recordMove(Direction.LEFT);
+        journal.recordUndo();
+        journal.close();
+
+        MoveJournal.Recovery recovery = MoveJournal.recover(file);
+        assertNotNull(recovery);
+        assertEquals(3, recovery.getLevelNumber());
+        assertEquals(42, recovery.getTotalScore());
+        assertNull(recovery.getSaveFile());
+        assertArrayEquals(new byte[] { Direction.UP.getCode(), Direction.LEFT.getCode(), MoveJournal.OP_UNDO },
+                recovery.getOps());
+    }
+
+    @Test
+    void testNewLevelTruncatesPreviousLevel() throws IOException {
+        MoveJournal journal = new MoveJournal(file, 10);
+        journal.beginLevel(1, 0);
+        journal.recordMove(Direction.DOWN);
+        journal.beginLevel(2, 7);
+        journal.recordMove(Direction.RIGHT);
+        journal.close();
+
+        MoveJournal.Recovery recovery = MoveJournal.recover(file);
+        assertEquals(2, recovery.getLevelNumber());
+        assertArrayEquals(new byte[] { Direction.RIGHT.getCode() }, recovery.getOps());
+        assertEquals(10, Files.size(file), "Only the last level should be kept on disk.");
+    }
+
+    @Test
+    void testTornRecordAtTheEndIsIgnored() throws IOException {
+        MoveJournal journal = new MoveJournal(file, 10);
+        journal.beginLevel(1, 0);
+        journal.recordMove(Direction.UP);
+        journal.close();
+        Files.write(file, new byte[] { MoveJournal.OP_LEVEL, 0, 0 }, StandardOpenOption.APPEND);
+
+        MoveJournal.Recovery recovery = MoveJournal.recover(file);
+        assertEquals(1, recovery.getLevelNumber());
+        assertArrayEquals(new byte[] { Direction.UP.getCode() }, recovery.getOps());
+    }
+
+    @Test
+    void testClearedJournalHasNothingToRecover() throws IOException {
+        MoveJournal journal = new MoveJournal(file, 10);
+        journal.beginLevel(1, 0);
+        journal.clear();
+        journal.close();
+
+        assertNull(MoveJournal.recover(file));
+    }
+
+    @Test
+    void testHomePropertyMovesTheJournal() {
+        String previous = System.getProperty(MoveJournal.HOME_PROPERTY);
+        System.setProperty(MoveJournal.HOME_PROPERTY, file.getParent().toString());
+        try {
+            assertEquals(file.getParent().resolve(MoveJournal.FILE_NAME), MoveJournal.defaultPath());
+        } finally {
+            if (previous == null) {
+                System.clearProperty(MoveJournal.HOME_PROPERTY);
+            } else {
+                System.setProperty(MoveJournal.HOME_PROPERTY, previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package es.upm.pproject.sokoban.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+class PcmRingBufferTest {
+
+    @Test
+    void testSamplesWrapAround() {
+        PcmRingBuffer buffer = new PcmRingBuffer(6);
+        assertEquals(8, buffer.capacity(), "The capacity is rounded up to a power of two.");
+
+        short[] out = new short[8];
+        assertEquals(5, buffer.write(new short[] { 1, 2, 3, 4, 5 }, 0, 5));
+        assertEquals(4, buffer.read(out, 0, 4));
+        assertEquals(6, buffer.write(new short[] { 6, 7, 8, 9, 10, 11 }, 0, 6));
+        assertEquals(7, buffer.available());
+
+        assertEquals(7, buffer.read(out, 0, 8));
+        assertArrayEquals(new short[] { 5, 6, 7, 8, 9, 10, 11 }, Arrays.copyOf(out, 7));
+        assertEquals(0, buffer.read(out, 0, 8), "An empty buffer gives no samples.");
+    }
+
+    @Test
+    void testFullBufferTakesWhatFits() {
+        PcmRingBuffer buffer = new PcmRingBuffer(4);
+        assertEquals(4, buffer.write(new short[6], 0, 6));
+        assertEquals(0, buffer.free());
+        assertEquals(0, buffer.write(new short[1], 0, 1));
+    }
+}
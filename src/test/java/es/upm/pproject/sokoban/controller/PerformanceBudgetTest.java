@@ -0,0 +1,190 @@
+package es.upm.pproject.sokoban.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import es.upm.pproject.sokoban.exceptions.InvalidLevelException;
+import es.upm.pproject.sokoban.model.LevelParser;
+import es.upm.pproject.sokoban.model.TestLevels;
+import es.upm.pproject.sokoban.view.BoardPanel;
+
+/**
+ * Time, allocation and size budgets of the model hot paths, so that a
+ * regression fails the build instead of waiting for the next benchmark run.
+ *
+ * Times are the best of several rounds, which keeps a busy machine from
+ * failing the build, and the budgets are several times the figures measured
+ * when they were set. Allocations are counted for the test thread only.
+ * Logging is lowered to warnings meanwhile: the info lines of every move
+ * would otherwise cost ten times the move itself and hide a regression of
+ * the model under console output.
+ */
+class PerformanceBudgetTest {
+
+    /** Side of the board the moves are timed on. */
+    private static final int BOARD_SIZE = 100;
+
+    /** Timed moves per round. */
+    private static final int MOVES = 10_000;
+
+    /** Rounds of every timed operation. */
+    private static final int ROUNDS = 5;
+
+    /** Budget of one move, in microseconds; about 6 when set. */
+    private static final double MOVE_MICROS = 40;
+
+    /** Budget of the memory allocated by one move, in bytes; about 280 when set. */
+    private static final long MOVE_BYTES = 1024;
+
+    /** Levels in the pack parsed in one round. */
+    private static final int PACK_LEVELS = 1_000;
+
+    /** Budget of parsing the pack, in milliseconds; about 80 when set. */
+    private static final long PACK_MILLIS = 750;
+
+    /** Moves in the saved history. */
+    private static final int HISTORY_MOVES = 10_000;
+
+    /** Budget of the save file of the history, in kilobytes; about 90 when set. */
+    private static final long SAVE_KILOBYTES = 256;
+
+    /** Budget of the history in the save file, in bytes per move; 1 when set. */
+    private static final long SAVE_BYTES_PER_MOVE = 2;
+
+    /** System property that keeps the board panels off screen. */
+    private static final String HEADLESS = "java.awt.headless";
+
+    /** Value of the headless property before the tests, or null. */
+    private static String headless;
+
+    /** Root logger level before the tests. */
+    private static Level logLevel;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    static void setUp() {
+        headless = System.setProperty(HEADLESS, "true");
+        logLevel = setLogLevel(Level.WARN);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (headless == null) {
+            System.clearProperty(HEADLESS);
+        } else {
+            System.setProperty(HEADLESS, headless);
+        }
+        setLogLevel(logLevel);
+    }
+
+    @Test
+    void testMoveStaysWithinBudget() throws InvalidLevelException {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+                "Allocations are counted through the HotSpot thread bean.");
+        GameController controller = openRoomController();
+        walk(controller, MOVES);
+
+        long best = Long.MAX_VALUE;
+        long allocated = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long bytes = allocatedBytes();
+            long start = System.nanoTime();
+            walk(controller, MOVES);
+            best = Math.min(best, System.nanoTime() - start);
+            allocated = Math.min(allocated, allocatedBytes() - bytes);
+        }
+
+        double micros = best / 1e3 / MOVES;
+        assertTrue(micros <= MOVE_MICROS,
+                String.format("A move took %.2f us, over the budget of %.0f us.", micros, MOVE_MICROS));
+        assertTrue(allocated / MOVES <= MOVE_BYTES, "A move allocated " + allocated / MOVES
+                + " bytes, over the budget of " + MOVE_BYTES + " bytes.");
+    }
+
+    @Test
+    void testParsingALevelPackStaysWithinBudget() throws IOException, InvalidLevelException {
+        // There is no pack format: the shipped levels are parsed in turn
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < PACK_LEVELS; i++) {
+                assertNotNull(LevelParser.parse("level" + (i % 6 + 1) + ".txt"));
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        long millis = best / 1_000_000;
+        assertTrue(millis <= PACK_MILLIS, "Parsing " + PACK_LEVELS + " levels took " + millis
+                + " ms, over the budget of " + PACK_MILLIS + " ms.");
+    }
+
+    @Test
+    void testSavedHistoryStaysWithinBudget() throws InvalidLevelException {
+        GameController controller = openRoomController();
+        File empty = tempDir.resolve("empty.sav").toFile();
+        GameController.saveGame(empty, controller);
+        walk(controller, HISTORY_MOVES);
+        File file = tempDir.resolve("history.sav").toFile();
+        GameController.saveGame(file, controller);
+
+        assertTrue(file.length() <= SAVE_KILOBYTES * 1024, "The save of " + HISTORY_MOVES + " moves takes "
+                + file.length() / 1024 + " KB, over the budget of " + SAVE_KILOBYTES + " KB.");
+        long history = file.length() - empty.length();
+        assertTrue(history <= HISTORY_MOVES * SAVE_BYTES_PER_MOVE, "The history takes " + history
+                + " bytes of the save, over the budget of " + SAVE_BYTES_PER_MOVE + " bytes per move.");
+    }
+
+    /**
+     * Walks the player around a square inside the room, one step at a time.
+     */
+    private static void walk(GameController controller, int moves) {
+        int[][] steps = { { 1, 0 }, { 0, 1 }, { -1, 0 }, { 0, -1 } };
+        for (int i = 0; i < moves; i++) {
+            int[] step = steps[(i / 8) % steps.length];
+            assertTrue(controller.movePlayer(step[0], step[1]), "Every step of the walk must be possible.");
+        }
+    }
+
+    /**
+     * Returns the controller of a square room surrounded by walls with the
+     * player in the middle and no boxes.
+     */
+    private static GameController openRoomController() throws InvalidLevelException {
+        int middle = BOARD_SIZE / 2;
+        BoardPanel board = new BoardPanel(TestLevels.walledRoom(BOARD_SIZE, BOARD_SIZE, middle, middle), null, null);
+        return new GameController(board.getLevel(), board, null);
+    }
+
+    /**
+     * Sets the level of the root logger and returns the one it had.
+     */
+    private static Level setLogLevel(Level level) {
+        Logger root = Logger.getRootLogger();
+        Level previous = root.getLevel();
+        root.setLevel(level);
+        return previous;
+    }
+
+    /**
+     * Returns the bytes allocated so far by the current thread.
+     */
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
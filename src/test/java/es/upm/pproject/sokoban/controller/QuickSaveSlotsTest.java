@@ -0,0 +1,86 @@
+package es.upm.pproject.sokoban.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import es.upm.pproject.sokoban.exceptions.InvalidLevelException;
+import es.upm.pproject.sokoban.model.Direction;
+import es.upm.pproject.sokoban.model.GameSnapshot;
+import es.upm.pproject.sokoban.model.LevelParser;
+import es.upm.pproject.sokoban.model.MoveLog;
+
+class QuickSaveSlotsTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testSavedSlotsAreReloadedFromDisk() throws IOException, InvalidLevelException {
+        GameSnapshot first = snapshot(1);
+        GameSnapshot third = snapshot(3);
+        QuickSaveSlots slots = new QuickSaveSlots(directory, QuickSaveSlots.DEFAULT_SLOTS);
+        slots.save(0, first);
+        slots.save(2, third);
+        assertSame(first, slots.get(0), "A saved slot is available at once.");
+        // Waits for the background writes
+        slots.close();
+
+        assertTrue(Files.exists(directory.resolve("quicksave-1.bin")));
+        assertFalse(Files.exists(directory.resolve("quicksave-1.bin.tmp")), "The temporary file must be renamed.");
+        QuickSaveSlots reloaded = new QuickSaveSlots(directory, QuickSaveSlots.DEFAULT_SLOTS);
+        reloaded.close();
+        assertEquals(first, reloaded.get(0));
+        assertNull(reloaded.get(1));
+        assertEquals(third, reloaded.get(2));
+    }
+
+    @Test
+    void testSavesAfterCloseStayInMemory() throws IOException, InvalidLevelException {
+        GameSnapshot first = snapshot(1);
+        QuickSaveSlots slots = new QuickSaveSlots(directory, QuickSaveSlots.DEFAULT_SLOTS);
+        slots.close();
+        slots.close();
+        assertDoesNotThrow(() -> slots.save(0, first));
+        assertSame(first, slots.get(0));
+        assertFalse(Files.exists(directory.resolve("quicksave-1.bin")));
+    }
+
+    @Test
+    void testTornSlotFilesAreIgnored() throws IOException, InvalidLevelException {
+        GameSnapshot first = snapshot(1);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        first.writeTo(new DataOutputStream(bytes));
+        byte[] valid = bytes.toByteArray();
+        Files.write(directory.resolve("quicksave-1.bin"), valid);
+        // Cut short by a crash during a write that did not go through the temporary file
+        Files.write(directory.resolve("quicksave-2.bin"), Arrays.copyOf(valid, valid.length - 3));
+        // Garbage in the length of the moves
+        byte[] corrupt = valid.clone();
+        Arrays.fill(corrupt, corrupt.length - 6, corrupt.length - 2, (byte) 0x7f);
+        Files.write(directory.resolve("quicksave-3.bin"), corrupt);
+        // A write interrupted before its rename leaves the previous slot file
+        Files.write(directory.resolve("quicksave-4.bin.tmp"), Arrays.copyOf(valid, 10));
+
+        QuickSaveSlots slots = new QuickSaveSlots(directory, QuickSaveSlots.DEFAULT_SLOTS);
+        slots.close();
+        assertEquals(first, slots.get(0), "Slots after a torn one must still be read.");
+        assertNull(slots.get(1));
+        assertNull(slots.get(2));
+        assertNull(slots.get(3));
+    }
+
+    private static GameSnapshot snapshot(int levelNumber) throws IOException, InvalidLevelException {
+        byte[] moves = { MoveLog.encode(Direction.RIGHT, true), MoveLog.encode(Direction.UP, false) };
+        return GameSnapshot.capture(LevelParser.parse("level" + levelNumber + ".txt"), 0, 0, moves.length, moves,
+                levelNumber, 7);
+    }
+}
@@ -0,0 +1,50 @@
+package es.upm.pproject.sokoban.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+class TrackDecoderTest {
+
+    @Test
+    void testTrackIsDecodedFrameByFrame() throws Exception {
+        TrackDecoder track = TrackDecoder.load(SoundEffectsController.Effect.GOAL.getPath());
+        int frames = 0;
+        int samples = 0;
+        int count;
+        while ((count = track.decodeFrame()) >= 0) {
+            assertEquals(0, count % 2, "Samples are interleaved stereo.");
+            frames++;
+            samples += count;
+        }
+        assertTrue(frames > 1);
+        assertTrue(samples > 0);
+    }
+
+    @Test
+    void testResamplingJoinsFrames() {
+        TrackDecoder track = new TrackDecoder("test", new byte[0]);
+        short[] ramp = new short[8];
+        for (int i = 0; i < ramp.length; i++) {
+            ramp[i] = (short) (i * 100);
+        }
+        int first = track.convert(ramp, ramp.length, 1, EffectMixer.SAMPLE_RATE / 2);
+        short last = track.getSamples()[first - 2];
+        short[] next = new short[] { 800, 900, 1000, 1100 };
+        track.convert(next, next.length, 1, EffectMixer.SAMPLE_RATE / 2);
+        short[] joined = track.getSamples();
+
+        assertEquals(14 * 2, first, "Half the rate gives two frames per source frame.");
+        assertEquals(650, last);
+        assertEquals(700, joined[0], "The last source sample is carried to the next frame.");
+        assertEquals(750, joined[2], "The next frame continues the interpolation.");
+        assertEquals(joined[0], joined[1], "Mono is copied to both channels.");
+    }
+
+    @Test
+    void testMissingTrackFails() {
+        assertThrows(IOException.class, () -> TrackDecoder.load("music/missing.mp3"));
+    }
+}
@@ -0,0 +1,97 @@
+package es.upm.pproject.sokoban.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import es.upm.pproject.sokoban.exceptions.InvalidLevelException;
+
+class GameSnapshotTest {
+
+    @Test
+    void testCaptureAndRestoreBoard() throws IOException, InvalidLevelException {
+        Level level = LevelParser.parse("level1.txt");
+        byte[] moves = { MoveLog.encode(Direction.RIGHT, true) };
+        GameSnapshot snapshot = GameSnapshot.capture(level, 4, 2, 1, moves, 1, 10);
+
+        Level restored = snapshot.toLevel();
+        assertEquals(level.toString(), restored.toString(), "Restored board should match the original.");
+        assertArrayEquals(moves, snapshot.getMoves());
+        assertEquals(4, snapshot.getPlayerRow());
+        assertEquals(2, snapshot.getPlayerCol());
+        assertEquals(10, snapshot.getTotalScore());
+    }
+
+    @Test
+    void testSnapshotIsNotAffectedByLaterMoves() throws IOException, InvalidLevelException {
+        Level level = LevelParser.parse("level1.txt");
+        GameSnapshot snapshot = GameSnapshot.capture(level, 4, 2, 0, new byte[0], 1, 0);
+        String before = level.toString();
+
+        level.applyMove(4, 2, Direction.UP);
+        assertEquals(before, snapshot.toLevel().toString());
+    }
+
+    @Test
+    void testBinaryRoundTrip() throws IOException, InvalidLevelException {
+        Level level = LevelParser.parse("level1.txt");
+        GameSnapshot snapshot = GameSnapshot.capture(level, 4, 2, 3,
+                new byte[] { 0, 1, MoveLog.encode(Direction.LEFT, true) }, 2, 25);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        snapshot.writeTo(new DataOutputStream(bytes));
+        GameSnapshot read = GameSnapshot.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(snapshot, read);
+    }
+
+    @Test
+    void testReadingGarbageFails() {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4 }));
+        assertThrows(IOException.class, () -> GameSnapshot.readFrom(in));
+    }
+
+    @Test
+    void testCorruptSizesAndPositionsFail() throws IOException, InvalidLevelException {
+        Level level = LevelParser.parse("level1.txt");
+        GameSnapshot snapshot = GameSnapshot.capture(level, 4, 2, 1, new byte[] { 0 }, 1, 0);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        snapshot.writeTo(new DataOutputStream(bytes));
+        byte[] valid = bytes.toByteArray();
+        int cells = level.getWidth() * level.getHeight();
+
+        // Width and height whose product overflows an int
+        assertUnreadable(valid, 4, 0x10000, 0x10001);
+        // Player row past the bottom of the board
+        assertUnreadable(valid, 12 + cells, level.getHeight());
+        // Negative and huge lengths of the moves
+        assertUnreadable(valid, 12 + cells + 20, -1);
+        assertUnreadable(valid, 12 + cells + 20, Integer.MAX_VALUE);
+        // Truncated file
+        byte[] torn = Arrays.copyOf(valid, valid.length / 2);
+        assertThrows(IOException.class,
+                () -> GameSnapshot.readFrom(new DataInputStream(new ByteArrayInputStream(torn)), torn.length));
+    }
+
+    /**
+     * Overwrites ints of a valid snapshot and checks that it can no longer
+     * be read.
+     */
+    private static void assertUnreadable(byte[] valid, int offset, int... values) {
+        ByteBuffer corrupt = ByteBuffer.wrap(valid.clone());
+        for (int i = 0; i < values.length; i++) {
+            corrupt.putInt(offset + 4 * i, values[i]);
+        }
+        byte[] data = corrupt.array();
+        assertThrows(IOException.class,
+                () -> GameSnapshot.readFrom(new DataInputStream(new ByteArrayInputStream(data)), data.length));
+    }
+}
@@ -58,4 +58,27 @@ public class LevelTest {
         assertTrue(output.contains("#")); // meta
         assertTrue(output.contains("Level 2x2")); // título
     }
+
+    @Test
+    void testApplyAndRevertPush() {
+        // jugador en (0,1), caja en (1,1), destino fuera del tablero
+        Level row = new Level(3, 1);
+        FloorTile playerTile = new FloorTile(false);
+        playerTile.setEntity(new Player());
+        FloorTile boxTile = new FloorTile(false);
+        boxTile.setEntity(new Box());
+        row.setTile(0, 0, playerTile);
+        row.setTile(0, 1, boxTile);
+        row.setTile(0, 2, new FloorTile(true));
+
+        byte move = row.applyMove(0, 0, Direction.RIGHT);
+        assertTrue(MoveLog.isPush(move));
+        assertTrue(row.isLevelCompleted());
+        assertEquals(MoveLog.NONE, row.applyMove(0, 1, Direction.RIGHT), "Box against the border cannot move.");
+
+        row.revertMove(0, 1, move);
+        assertTrue(((FloorTile) row.getTile(0, 0)).getEntity() instanceof Player);
+        assertTrue(((FloorTile) row.getTile(0, 1)).getEntity() instanceof Box);
+        assertNull(((FloorTile) row.getTile(0, 2)).getEntity());
+    }
 }
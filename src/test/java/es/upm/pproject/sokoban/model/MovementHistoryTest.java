@@ -27,4 +27,74 @@ class MovementHistoryTest {
         history.clear();
         assertTrue(history.isEmpty(), "History should be empty after clear().");
     }
+
+    @Test
+    void testRecordAndUndoMoves() {
+        MovementHistory history = new MovementHistory();
+        byte push = MoveLog.encode(Direction.LEFT, true);
+        history.recordMove(MoveLog.encode(Direction.UP, false));
+        history.recordMove(push);
+
+        assertFalse(history.isEmpty(), "History with recorded moves should not be empty.");
+        assertEquals(push, history.undoMove());
+        assertEquals(Direction.UP, Direction.fromCode(history.undoMove()));
+        assertEquals(MoveLog.NONE, history.undoMove(), "No moves should be left to undo.");
+    }
+
+    @Test
+    void testLongSessionStaysBounded() {
+        MovementHistory history = new MovementHistory();
+        history.setLimits(4096, 512);
+        Direction[] directions = Direction.values();
+        for (int i = 0; i < 100_000; i++) {
+            history.recordMove(MoveLog.encode(directions[i % 4], i % 7 == 0));
+        }
+
+        assertEquals(100_000, history.getMoveCount());
+        assertTrue(history.getSpilledMoveCount() > 90_000, "Old moves should be spilled to disk.");
+        assertTrue(history.getMemoryUsage() < 64 * 1024, "Memory usage should stay bounded: "
+                + history.getMemoryUsage());
+
+        byte[] all = history.getMoves();
+        assertEquals(100_000, all.length);
+        assertEquals(MoveLog.encode(Direction.UP, true), all[0]);
+
+        for (int i = 99_999; i >= 0; i--) {
+            assertEquals(MoveLog.encode(directions[i % 4], i % 7 == 0), history.undoMove(),
+                    "Undo should cross the spilled chunks seamlessly at move " + i);
+        }
+        assertEquals(MoveLog.NONE, history.undoMove());
+        assertEquals(0, history.getSpilledMoveCount());
+    }
+
+    @Test
+    void testBranchNearTheStartIsSpilledToo() {
+        MovementHistory history = new MovementHistory();
+        history.setLimits(100, 10);
+        history.recordMove(MoveLog.encode(Direction.UP, false));
+        history.recordMove(MoveLog.encode(Direction.LEFT, false));
+        history.undoMove();
+        history.recordMove(MoveLog.encode(Direction.RIGHT, false));
+        for (int i = 0; i < 5000; i++) {
+            history.recordMove(MoveLog.encode(Direction.DOWN, false));
+        }
+
+        assertEquals(5002, history.getMoveCount());
+        assertTrue(history.getSpilledMoveCount() >= 4900, "The cap must hold past a branch.");
+        byte[] all = history.getMoves();
+        assertEquals(MoveLog.encode(Direction.UP, false), all[0]);
+        assertEquals(MoveLog.encode(Direction.RIGHT, false), all[1]);
+        assertEquals(MoveLog.encode(Direction.DOWN, false), all[5001]);
+    }
+
+    @Test
+    void testSnapshotCap() {
+        MovementHistory history = new MovementHistory();
+        history.setMaxSnapshots(2);
+        for (int i = 0; i < 5; i++) {
+            history.push(new GameState(new Level(2, 2), 1, 1, i));
+        }
+        assertEquals(2, history.getAll().size(), "Only the most recent snapshots should be kept.");
+        assertEquals(4, history.pop().getMoveCount());
+    }
 }
@@ -0,0 +1,63 @@
+package es.upm.pproject.sokoban.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PathFinderTest {
+
+    private Level level;
+    private final PathFinder finder = new PathFinder();
+
+    /**
+     * Builds a 5x5 room whose middle row is a wall with a gap on the right,
+     * with the player in the top left corner.
+     */
+    @BeforeEach
+    void setUp() {
+        level = new Level(5, 5);
+        for (int row = 0; row < 5; row++) {
+            for (int col = 0; col < 5; col++) {
+                boolean wall = row == 2 && col < 4;
+                level.setTile(row, col, wall ? new WallTile() : new FloorTile(false));
+            }
+        }
+        ((FloorTile) level.getTile(0, 0)).setEntity(new Player());
+    }
+
+    @Test
+    void testShortestWalkAroundWall() {
+        Direction[] route = finder.findWalk(level, 0, 0, 4, 0);
+        assertNotNull(route);
+        assertEquals(12, route.length, "The walk should go through the gap on the right.");
+
+        int row = 0;
+        int col = 0;
+        for (Direction direction : route) {
+            row += direction.getDy();
+            col += direction.getDx();
+            assertTrue(level.isFloor(row, col));
+        }
+        assertEquals(4, row);
+        assertEquals(0, col);
+    }
+
+    @Test
+    void testBoxesBlockTheWalk() {
+        FloorTile gap = (FloorTile) level.getTile(2, 4);
+        gap.setEntity(new Box());
+        assertNull(finder.findWalk(level, 0, 0, 4, 0), "Walking must never push a box.");
+        assertNull(finder.findWalk(level, 0, 0, 2, 4), "A box cell is not a walk destination.");
+    }
+
+    @Test
+    void testReuseAcrossSearches() {
+        assertEquals(0, finder.findWalk(level, 0, 0, 0, 0).length);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(4, finder.findWalk(level, 0, 0, 0, 4).length);
+            assertEquals(4, finder.findWalk(level, 0, 0, 1, 3).length);
+        }
+        assertNull(finder.findWalk(level, 0, 0, 2, 0), "Walls cannot be reached.");
+    }
+}
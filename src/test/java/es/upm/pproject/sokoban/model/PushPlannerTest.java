@@ -0,0 +1,94 @@
+package es.upm.pproject.sokoban.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class PushPlannerTest {
+
+    private final PushPlanner planner = new PushPlanner();
+
+    /**
+     * Builds an open room of the given size surrounded by walls, with the
+     * player in the top left corner.
+     */
+    private Level room(int width, int height) {
+        Level level = new Level(width, height);
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                boolean wall = row == 0 || col == 0 || row == height - 1 || col == width - 1;
+                level.setTile(row, col, wall ? new WallTile() : new FloorTile(false));
+            }
+        }
+        ((FloorTile) level.getTile(1, 1)).setEntity(new Player());
+        return level;
+    }
+
+    private void putBox(Level level, int row, int col) {
+        ((FloorTile) level.getTile(row, col)).setEntity(new Box());
+    }
+
+    /**
+     * Applies a plan on the level and returns the final player position.
+     */
+    private int[] apply(Level level, int row, int col, Direction[] plan) {
+        for (Direction direction : plan) {
+            assertNotEquals(MoveLog.NONE, level.applyMove(row, col, direction), "Every planned move must be legal.");
+            row += direction.getDy();
+            col += direction.getDx();
+        }
+        return new int[] { row, col };
+    }
+
+    @Test
+    void testPushAroundTheBox() {
+        Level level = room(7, 7);
+        putBox(level, 3, 3);
+
+        Direction[] plan = planner.plan(level, 1, 1, 3, 3, 2, 5);
+        assertNotNull(plan);
+        apply(level, 1, 1, plan);
+        assertTrue(((FloorTile) level.getTile(2, 5)).getEntity() instanceof Box);
+        assertNull(((FloorTile) level.getTile(3, 3)).getEntity());
+    }
+
+    @Test
+    void testOtherBoxesAreObstacles() {
+        Level level = room(7, 6);
+        putBox(level, 2, 2);
+        putBox(level, 2, 4);
+
+        Direction[] plan = planner.plan(level, 1, 1, 2, 2, 2, 5);
+        assertNotNull(plan, "The box can go around the other one.");
+        apply(level, 1, 1, plan);
+        assertTrue(((FloorTile) level.getTile(2, 5)).getEntity() instanceof Box);
+        assertTrue(((FloorTile) level.getTile(2, 4)).getEntity() instanceof Box, "Other boxes must not move.");
+    }
+
+    @Test
+    void testImpossiblePushes() {
+        Level level = room(6, 6);
+        putBox(level, 1, 3);
+
+        assertNull(planner.plan(level, 1, 1, 1, 3, 3, 3), "A box against a wall cannot leave it.");
+        assertNull(planner.plan(level, 1, 1, 1, 3, 0, 3), "A box cannot be pushed into a wall.");
+        assertNull(planner.plan(level, 1, 1, 2, 2, 3, 3), "There is no box to push.");
+        assertEquals(0, planner.plan(level, 1, 1, 1, 3, 1, 3).length);
+    }
+
+    @Test
+    void testLargeBoard() {
+        Level level = room(60, 60);
+        for (int row = 5; row < 55; row += 6) {
+            for (int col = 5; col < 55; col += 7) {
+                putBox(level, row, col);
+            }
+        }
+        putBox(level, 30, 30);
+
+        Direction[] plan = planner.plan(level, 1, 1, 30, 30, 52, 8);
+        assertNotNull(plan);
+        apply(level, 1, 1, plan);
+        assertTrue(((FloorTile) level.getTile(52, 8)).getEntity() instanceof Box);
+    }
+}
@@ -0,0 +1,136 @@
+package es.upm.pproject.sokoban.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ReplayTest {
+
+    private Level level;
+    private Replay replay;
+    private int playerCol;
+
+    @BeforeEach
+    void setUp() {
+        // Pasillo de 6 casillas: jugador en (0,0), caja en (0,2), meta en (0,5)
+        level = new Level(6, 1);
+        for (int col = 0; col < 6; col++) {
+            level.setTile(0, col, new FloorTile(col == 5));
+        }
+        ((FloorTile) level.getTile(0, 0)).setEntity(new Player());
+        ((FloorTile) level.getTile(0, 2)).setEntity(new Box());
+        playerCol = 0;
+        replay = new Replay(level, 0, 0, 4);
+    }
+
+    private void play(Direction direction) {
+        byte move = level.applyMove(0, playerCol, direction);
+        assertNotEquals(MoveLog.NONE, move);
+        playerCol += direction.getDx();
+        replay.record(move, level, 0, playerCol);
+    }
+
+    private int boxColumn(Level board) {
+        for (int col = 0; col < board.getWidth(); col++) {
+            if (((FloorTile) board.getTile(0, col)).getEntity() instanceof Box) {
+                return col;
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    void testLongRecordingKeepsFewKeyframes() {
+        for (int i = 0; i < 10_000; i++) {
+            play(i % 2 == 0 ? Direction.RIGHT : Direction.LEFT);
+        }
+        assertEquals(10_000, replay.size());
+        assertEquals(1 + 10_000 / 4, replay.getKeyframeCount());
+
+        Replay.Cursor cursor = replay.cursor();
+        cursor.seek(9_999);
+        assertEquals(9_999, cursor.getIndex());
+        assertTrue(((FloorTile) cursor.getLevel().getTile(0, 1)).getEntity() instanceof Player);
+        cursor.seek(3);
+        assertTrue(((FloorTile) cursor.getLevel().getTile(0, 1)).getEntity() instanceof Player);
+        cursor.seek(0);
+        assertTrue(((FloorTile) cursor.getLevel().getTile(0, 0)).getEntity() instanceof Player);
+    }
+
+    @Test
+    void testKeyframesStayWithinTheirBudget() {
+        Level room = TestLevels.room(100, 100, 0, 0);
+        long budget = 8 * 10_100L;
+        replay = new Replay(room, 0, 0, 4, budget);
+        int col = 0;
+        for (int i = 0; i < 10_000; i++) {
+            Direction direction = (i / 50) % 2 == 0 ? Direction.RIGHT : Direction.LEFT;
+            room.applyMove(0, col, direction);
+            col += direction.getDx();
+            replay.record(MoveLog.encode(direction, false), room, 0, col);
+        }
+
+        assertTrue(replay.getMemoryUsage() <= 10_000 + budget, "Keyframes over budget: " + replay.getMemoryUsage());
+        assertTrue(replay.getKeyframeInterval() > 4, "The interval should have grown.");
+        Replay.Cursor seeker = replay.cursor();
+        for (int target : new int[] { 9_999, 1_234, 5_000, 75 }) {
+            seeker.seek(target);
+            Replay.Cursor fresh = replay.cursor();
+            while (fresh.getIndex() < target) {
+                fresh.step();
+            }
+            assertEquals(fresh.getLevel().toString(), seeker.getLevel().toString(), "Mismatch at move " + target);
+        }
+        replay.undo();
+        assertEquals(9_999, replay.size());
+    }
+
+    @Test
+    void testSeekMatchesSequentialPlayback() {
+        for (int i = 0; i < 3; i++) {
+            play(Direction.RIGHT);
+        }
+        play(Direction.LEFT);
+        play(Direction.RIGHT);
+
+        Replay.Cursor reference = replay.cursor();
+        Replay.Cursor seeker = replay.cursor();
+        for (int target : new int[] { 5, 2, 4, 1, 3, 0 }) {
+            seeker.seek(target);
+            Replay.Cursor fresh = replay.cursor();
+            while (fresh.getIndex() < target) {
+                fresh.step();
+            }
+            assertEquals(fresh.getLevel().toString(), seeker.getLevel().toString(), "Mismatch at move " + target);
+        }
+        while (reference.step()) {
+            // reproducir hasta el final
+        }
+        assertEquals(4, boxColumn(reference.getLevel()));
+    }
+
+    @Test
+    void testUndoRemovesMovesAndKeyframes() {
+        for (int i = 0; i < 4; i++) {
+            play(i % 2 == 0 ? Direction.RIGHT : Direction.LEFT);
+        }
+        assertEquals(2, replay.getKeyframeCount());
+        replay.undo();
+        assertEquals(3, replay.size());
+        assertEquals(1, replay.getKeyframeCount());
+    }
+
+    @Test
+    void testRebuildFromCurrentBoard() {
+        play(Direction.RIGHT);
+        play(Direction.RIGHT);
+        byte[] moves = { MoveLog.encode(Direction.RIGHT, false), MoveLog.encode(Direction.RIGHT, true) };
+
+        Replay rebuilt = Replay.rebuild(level, 0, playerCol, moves, 4);
+        Replay.Cursor cursor = rebuilt.cursor();
+        assertEquals(2, boxColumn(cursor.getLevel()), "Rebuilt replay should start from the initial board.");
+        cursor.seek(2);
+        assertEquals(level.toString(), cursor.getLevel().toString());
+    }
+}
@@ -0,0 +1,62 @@
+package es.upm.pproject.sokoban.model;
+
+/**
+ * Builds the levels used by the tests without going through level files.
+ */
+public final class TestLevels {
+
+    private TestLevels() {
+    }
+
+    /**
+     * Returns the level drawn by the given rows, with the symbols of the
+     * level files: '+' wall, '*' goal, '#' box, 'W' player, ' ' floor.
+     */
+    public static Level of(String... rows) {
+        Level level = new Level(rows[0].length(), rows.length);
+        for (int row = 0; row < rows.length; row++) {
+            for (int col = 0; col < rows[row].length(); col++) {
+                char symbol = rows[row].charAt(col);
+                if (symbol == '+') {
+                    level.setTile(row, col, new WallTile());
+                    continue;
+                }
+                FloorTile floor = new FloorTile(symbol == '*');
+                if (symbol == '#') {
+                    floor.setEntity(new Box());
+                } else if (symbol == 'W') {
+                    floor.setEntity(new Player());
+                }
+                level.setTile(row, col, floor);
+            }
+        }
+        return level;
+    }
+
+    /**
+     * Returns a room of bare floor with the player at the given cell.
+     */
+    public static Level room(int width, int height, int playerRow, int playerCol) {
+        return fill(width, height, false, playerRow, playerCol);
+    }
+
+    /**
+     * Returns a room surrounded by walls with the player at the given cell
+     * and no boxes.
+     */
+    public static Level walledRoom(int width, int height, int playerRow, int playerCol) {
+        return fill(width, height, true, playerRow, playerCol);
+    }
+
+    private static Level fill(int width, int height, boolean walled, int playerRow, int playerCol) {
+        Level level = new Level(width, height);
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                boolean border = row == 0 || col == 0 || row == height - 1 || col == width - 1;
+                level.setTile(row, col, walled && border ? new WallTile() : new FloorTile(false));
+            }
+        }
+        ((FloorTile) level.getTile(playerRow, playerCol)).setEntity(new Player());
+        return level;
+    }
+}
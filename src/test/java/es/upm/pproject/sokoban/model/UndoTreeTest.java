@@ -0,0 +1,123 @@
+package es.upm.pproject.sokoban.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class UndoTreeTest {
+
+    private static final byte UP = Direction.UP.getCode();
+    private static final byte DOWN = Direction.DOWN.getCode();
+    private static final byte LEFT = Direction.LEFT.getCode();
+    private static final byte RIGHT = Direction.RIGHT.getCode();
+
+    @Test
+    void testUndoAndRedoLinearLine() {
+        UndoTree tree = new UndoTree();
+        tree.record(UP);
+        tree.record(LEFT);
+
+        assertEquals(LEFT, tree.undo());
+        assertEquals(UP, tree.undo());
+        assertEquals(MoveLog.NONE, tree.undo(), "Nothing left to undo at the start.");
+        assertEquals(UP, tree.redo());
+        assertEquals(LEFT, tree.redo());
+        assertEquals(MoveLog.NONE, tree.redo(), "Nothing left to redo at the end.");
+    }
+
+    @Test
+    void testNewMoveAfterUndoKeepsTheOldLine() {
+        UndoTree tree = new UndoTree();
+        tree.record(UP);
+        tree.record(LEFT);
+        tree.record(LEFT);
+        tree.undo();
+        tree.undo();
+        tree.record(RIGHT);
+
+        assertArrayEquals(new byte[] { UP, RIGHT }, tree.getCurrentLine());
+        tree.undo();
+        assertEquals(2, tree.getBranchCount());
+        assertEquals(RIGHT, tree.redo(), "The most recent line is redone first.");
+        tree.undo();
+        assertTrue(tree.nextBranch());
+        assertEquals(LEFT, tree.redo());
+        assertEquals(LEFT, tree.redo());
+        assertArrayEquals(new byte[] { UP, LEFT, LEFT }, tree.getCurrentLine());
+    }
+
+    @Test
+    void testReplayingTheSameMoveIsARedo() {
+        UndoTree tree = new UndoTree();
+        tree.record(UP);
+        tree.record(DOWN);
+        tree.undo();
+        tree.record(DOWN);
+
+        assertEquals(1, tree.getNodeCount(), "No branch should be created for an identical move.");
+        assertEquals(2, tree.getDepth());
+    }
+
+    @Test
+    void testBudgetCollapsesOldBranches() {
+        UndoTree tree = new UndoTree(4096);
+        for (int i = 0; i < 1000; i++) {
+            tree.record(UP);
+            for (int j = 0; j < 20; j++) {
+                tree.record((j + i) % 2 == 0 ? LEFT : RIGHT);
+            }
+            for (int j = 0; j < 20; j++) {
+                tree.undo();
+            }
+            tree.record(DOWN);
+        }
+
+        assertTrue(tree.getUsedBytes() <= 4096, "Tree should stay within its budget: " + tree.getUsedBytes());
+        assertEquals(2000, tree.getDepth(), "The current line must never be dropped.");
+        byte[] line = tree.getCurrentLine();
+        assertEquals(UP, line[0]);
+        assertEquals(DOWN, line[1999]);
+    }
+
+    @Test
+    void testDetachAndPrependOldest() {
+        UndoTree tree = new UndoTree();
+        tree.record(UP);
+        tree.record(LEFT);
+        tree.record(RIGHT);
+        tree.undo();
+        tree.record(DOWN);
+
+        assertEquals(2, tree.getDetachableMoves(), "Only moves before the branch point can be detached.");
+        assertArrayEquals(new byte[] { UP, LEFT }, tree.detachOldest(2));
+        assertEquals(1, tree.getDepth());
+        assertEquals(DOWN, tree.undo());
+        assertEquals(MoveLog.NONE, tree.undo());
+
+        tree.prependOldest(new byte[] { UP, LEFT });
+        assertEquals(LEFT, tree.undo());
+        assertEquals(UP, tree.undo());
+        assertEquals(MoveLog.NONE, tree.undo());
+    }
+
+    @Test
+    void testCollapseOldestDropsEarlyBranches() {
+        UndoTree tree = new UndoTree();
+        tree.record(UP);
+        tree.record(LEFT);
+        tree.undo();
+        tree.record(RIGHT);
+        tree.record(DOWN);
+        assertEquals(1, tree.getDetachableMoves());
+
+        long before = tree.getUsedBytes();
+        tree.collapseOldest(3);
+        assertEquals(3, tree.getDetachableMoves());
+        assertEquals(1, tree.getNodeCount());
+        assertTrue(tree.getUsedBytes() < before, "The dropped branch must be released.");
+        assertArrayEquals(new byte[] { UP, RIGHT, DOWN }, tree.getCurrentLine());
+        tree.undo();
+        tree.undo();
+        assertEquals(1, tree.getBranchCount(), "The other line is gone.");
+    }
+}
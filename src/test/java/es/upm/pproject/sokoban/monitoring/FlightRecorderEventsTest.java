@@ -0,0 +1,67 @@
+package es.upm.pproject.sokoban.monitoring;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import es.upm.pproject.sokoban.controller.GameController;
+import es.upm.pproject.sokoban.model.Level;
+import es.upm.pproject.sokoban.model.LevelParser;
+import es.upm.pproject.sokoban.model.LevelValidator;
+import es.upm.pproject.sokoban.view.BoardPanel;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class FlightRecorderEventsTest {
+
+    @BeforeAll
+    public static void setupHeadlessMode() {
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    @Test
+    void testGameplayIsRecorded() throws Exception {
+        Path file = Files.createTempFile("sokoban", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(MoveEvent.class);
+            recording.enable(UndoEvent.class);
+            recording.enable(LevelLoadEvent.class);
+            recording.start();
+
+            Level level = LevelParser.parse("level1.txt");
+            LevelValidator.validate(level);
+            GameController controller = new GameController(level, new BoardPanel(level, null, null), null);
+            assertTrue(controller.movePlayer(0, -1));
+            controller.undoMove();
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+
+        List<String> phases = events.stream()
+                .filter(event -> event.getEventType().getName().equals("es.upm.pproject.sokoban.LevelLoad"))
+                .map(event -> event.getString("phase")).collect(Collectors.toList());
+        assertEquals(List.of(LevelLoadEvent.PARSE, LevelLoadEvent.VALIDATE), phases);
+
+        RecordedEvent move = events.stream()
+                .filter(event -> event.getEventType().getName().equals("es.upm.pproject.sokoban.Move"))
+                .findFirst().orElseThrow();
+        assertEquals(1, move.getInt("moves"));
+        assertFalse(move.getBoolean("pushed"));
+
+        RecordedEvent undo = events.stream()
+                .filter(event -> event.getEventType().getName().equals("es.upm.pproject.sokoban.Undo"))
+                .findFirst().orElseThrow();
+        assertEquals(1, undo.getInt("moves"));
+    }
+}
@@ -0,0 +1,48 @@
+package es.upm.pproject.sokoban.monitoring;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import org.junit.jupiter.api.Test;
+
+class MetricsTest {
+
+    @Test
+    void testMetricsAreSharedByName() {
+        assertSame(Metrics.counter("test.shared"), Metrics.counter("test.shared"));
+        assertSame(Metrics.histogram("test.shared"), Metrics.histogram("test.shared"));
+
+        Gauge gauge = Metrics.gauge("test.gauge");
+        gauge.set(3);
+        assertEquals(3L, Metrics.getInstance().getGauges().get("test.gauge"));
+        Metrics.gauge("test.gauge", () -> 7);
+        assertEquals(7L, Metrics.getInstance().getGauges().get("test.gauge"));
+    }
+
+    @Test
+    void testMetricsArePublishedOverJmx() throws Exception {
+        Metrics.counter("test.jmx").add(5);
+        Metrics.histogram("test.jmx").record(2_000);
+        Metrics.registerMBean();
+        Metrics.registerMBean();
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(Metrics.OBJECT_NAME);
+        TabularData counters = (TabularData) server.getAttribute(name, "Counters");
+        assertEquals(5L, counters.get(new Object[] { "test.jmx" }).get("value"));
+
+        TabularData histograms = (TabularData) server.getAttribute(name, "Histograms");
+        CompositeData latency = (CompositeData) histograms.get(new Object[] { "test.jmx" }).get("value");
+        assertEquals(1L, latency.get("count"));
+        assertEquals(2.0, (Double) latency.get("maxMicros"), 0.001);
+
+        server.invoke(name, "reset", null, null);
+        assertEquals(0, Metrics.counter("test.jmx").get());
+    }
+}
@@ -3,6 +3,7 @@ package es.upm.pproject.sokoban.view;
 import org.junit.jupiter.api.Test;
 
 import java.awt.*;
+import java.awt.image.BufferedImage;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assumptions.assumeFalse;
@@ -25,4 +26,28 @@ class AnimatedBackgroundPanelTest {
             // may throw null Graphics in some headless mocks
         }
     }
+
+    @Test
+    void testNotAnimatedUntilShown() {
+        AnimatedBackgroundPanel panel = new AnimatedBackgroundPanel();
+        assertFalse(panel.isAnimating(), "A panel that is not displayed must not use the timer.");
+        assertEquals(AnimatedBackgroundPanel.FRAME_DELAY, panel.getFrameDelay());
+    }
+
+    @Test
+    void testPaintCopiesTheRenderedFrame() {
+        AnimatedBackgroundPanel panel = new AnimatedBackgroundPanel();
+        panel.setSize(160, 120);
+
+        int[] first = paint(panel);
+        assertArrayEquals(first, paint(panel), "Paints within a frame must copy the same buffer.");
+    }
+
+    private int[] paint(AnimatedBackgroundPanel panel) {
+        BufferedImage image = new BufferedImage(panel.getWidth(), panel.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        panel.paint(g2d);
+        g2d.dispose();
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+    }
 }
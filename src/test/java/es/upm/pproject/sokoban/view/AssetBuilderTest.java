@@ -0,0 +1,56 @@
+package es.upm.pproject.sokoban.view;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import javax.imageio.ImageIO;
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioSystem;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import es.upm.pproject.sokoban.controller.SoundEffectsController.Effect;
+
+class AssetBuilderTest {
+
+    @BeforeAll
+    public static void setupHeadlessMode() {
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    @Test
+    void testAtlasAndDescriptorAreWritten(@TempDir Path output) throws Exception {
+        AssetBuilder.buildAtlases(output, new int[] { 64 });
+
+        Properties descriptor = new Properties();
+        try (InputStream in = Files.newInputStream(output.resolve("atlas/atlas.properties"))) {
+            descriptor.load(in);
+        }
+        assertEquals("64", descriptor.getProperty("sizes"));
+        BufferedImage atlas = ImageIO.read(output.resolve("atlas/atlas-64.png").toFile());
+        int columns = atlas.getWidth() / 64;
+        for (AssetManager.Sprite sprite : AssetManager.Sprite.values()) {
+            int slot = Integer.parseInt(descriptor.getProperty(sprite.name()));
+            assertTrue(slot >= 0 && slot / columns < atlas.getHeight() / 64, sprite + " must be in the atlas.");
+        }
+    }
+
+    @Test
+    void testEffectsAreDecodedToWav(@TempDir Path output) throws Exception {
+        AssetBuilder.decodeEffects(output);
+
+        for (Effect effect : Effect.values()) {
+            AudioFileFormat format = AudioSystem.getAudioFileFormat(output.resolve(effect.getPcmPath()).toFile());
+            assertEquals(AudioFileFormat.Type.WAVE, format.getType());
+            assertEquals(16, format.getFormat().getSampleSizeInBits());
+            assertTrue(format.getFrameLength() > 0, effect + " must not be empty.");
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package es.upm.pproject.sokoban.view;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class AssetManagerTest {
+
+    @BeforeAll
+    public static void setupHeadlessMode() {
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    @Test
+    void testEverySpriteIsPackedInTheAtlas() {
+        AssetManager assets = AssetManager.getInstance();
+        AssetManager.Atlas atlas = assets.awaitAtlas();
+
+        assertEquals(0, assets.getFailedCount());
+        for (AssetManager.Sprite sprite : AssetManager.Sprite.values()) {
+            BufferedImage image = atlas.getSprite(sprite);
+            assertNotNull(image, sprite + " should be loaded.");
+            assertEquals(AssetManager.ATLAS_CELL, image.getWidth());
+            assertEquals(AssetManager.ATLAS_CELL, image.getHeight());
+        }
+        assertTrue(AssetManager.ATLAS_CELL >= 2 * BoardPanel.ZOOM_LEVELS[BoardPanel.ZOOM_LEVELS.length - 1],
+                "The largest tile on a 2x screen must not be upscaled from the atlas.");
+        assertSame(atlas, assets.getAtlasIfLoaded());
+        assertSame(assets.load(), assets.load(), "Images are loaded only once.");
+    }
+
+    @Test
+    void testSpriteCachesShareTheAtlas() {
+        AssetManager.Atlas atlas = AssetManager.getInstance().awaitAtlas();
+        SpriteCache first = atlas.createSpriteCache();
+        SpriteCache second = atlas.createSpriteCache();
+        first.setTileSize(64);
+        second.setTileSize(64);
+
+        assertEquals(AssetManager.FLOOR_COUNT, first.getFloorCount());
+        assertEquals(64, first.getBox().getWidth(null));
+        assertNotSame(first.getBox(), second.getBox(), "Each panel scales its own copy.");
+    }
+
+    @Test
+    void testPrebuiltAtlasIsPreferred() {
+        Assumptions.assumeTrue(AssetManager.class.getResource(AssetManager.ATLAS_DESCRIPTOR) != null,
+                "The asset build step has not run.");
+        AssetManager assets = AssetManager.getInstance();
+        assets.awaitAtlas();
+
+        assertTrue(assets.isPrebuilt());
+        assertEquals(0, assets.getFailedCount());
+    }
+}
@@ -3,13 +3,19 @@ package es.upm.pproject.sokoban.view;
 import es.upm.pproject.sokoban.controller.GameController;
 import es.upm.pproject.sokoban.exceptions.InvalidLevelException;
 import es.upm.pproject.sokoban.model.*;
+import es.upm.pproject.sokoban.monitoring.LatencyHistogram;
+import es.upm.pproject.sokoban.monitoring.Metrics;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -19,6 +25,9 @@ class BoardPanelTest {
 	private GameController controller;
 	private Level level;
 
+	@TempDir
+	Path home;
+
 	@BeforeAll
 	public static void setupHeadlessMode() {
 		System.setProperty("java.awt.headless", "true");
@@ -31,7 +40,7 @@ class BoardPanelTest {
 		GameFrame gameFrame = null;
 		try {
 			if (!GraphicsEnvironment.isHeadless()) {
-				gameFrame = new GameFrame();
+				gameFrame = new GameFrame(home);
 			}
 			controller = new GameController(level, boardPanel, gameFrame);
 		} catch (InvalidLevelException e) {
@@ -83,4 +92,122 @@ class BoardPanelTest {
 		assertNotNull(inputMap.get(KeyStroke.getKeyStroke("RIGHT")), "Arrow RIGHT not bound");
 	}
 
+	@Test
+	void testFloorIsStableAcrossPaints() {
+		Level room = TestLevels.of("+W ", "+**");
+		BoardPanel panel = new BoardPanel(room, null, null);
+		panel.setSize(panel.getPreferredSize());
+		AssetManager.getInstance().awaitAtlas();
+
+		int[] first = paint(panel);
+		panel.repaintCells(0, 1, 1, 2);
+		assertArrayEquals(first, paint(panel), "Floor textures must not change between paints.");
+	}
+
+	@Test
+	void testLargeLevelPaintsOnlyVisibleChunks() {
+		Level large = TestLevels.room(300, 300, 150, 150);
+		BoardPanel panel = new BoardPanel(large, null, null);
+		panel.setSize(panel.getPreferredSize());
+		AssetManager.getInstance().awaitAtlas();
+
+		BufferedImage view = new BufferedImage(640, 480, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g2d = view.createGraphics();
+		g2d.translate(-9000, -9000);
+		g2d.setClip(9000, 9000, 640, 480);
+		panel.paint(g2d);
+		g2d.dispose();
+
+		assertTrue(panel.getCachedChunkCount() <= 4, "Only the chunks in view should be drawn.");
+		Dimension viewport = panel.getPreferredScrollableViewportSize();
+		assertTrue(viewport.width < 300 * 64 && viewport.height < 300 * 64, "Large levels must scroll.");
+	}
+
+	@Test
+	void testZoomChangesTheTileSize() {
+		assertEquals(BoardPanel.DEFAULT_TILE_SIZE, boardPanel.getTileSize());
+		boardPanel.zoomIn();
+		assertEquals(96, boardPanel.getTileSize());
+		assertEquals(new Dimension(5 * 96, 5 * 96), boardPanel.getPreferredSize());
+		boardPanel.zoomOut();
+		boardPanel.zoomOut();
+		assertEquals(48, boardPanel.getTileSize());
+
+		boardPanel.fitToWindow();
+		assertEquals(128, boardPanel.getTileSize(), "A 5x5 level fits at the largest zoom.");
+		boardPanel.setTileSize(1);
+		assertEquals(BoardPanel.ZOOM_LEVELS[0], boardPanel.getTileSize());
+	}
+
+	@Test
+	void testKeyPressLatencyIsRecordedOnPaint() throws InvalidLevelException {
+		Level room = TestLevels.of("W *");
+		BoardPanel panel = new BoardPanel(room, null, null);
+		panel.setController(new GameController(room, panel, null));
+		panel.setSize(panel.getPreferredSize());
+		AssetManager.getInstance().awaitAtlas();
+		LatencyHistogram latency = Metrics.histogram(Metrics.INPUT_LATENCY);
+		paint(panel);
+		long before = latency.getCount();
+
+		Action right = panel.getActionMap().get(panel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+				.get(KeyStroke.getKeyStroke("RIGHT")));
+		right.actionPerformed(new ActionEvent(panel, ActionEvent.ACTION_PERFORMED, "",
+				System.currentTimeMillis() - 5, 0));
+		assertEquals(before, latency.getCount(), "Nothing is recorded before the move is painted.");
+		panel.setLatencyOverlay(true);
+		paint(panel);
+		assertEquals(before + 1, latency.getCount());
+		assertTrue(latency.getMax() >= 5_000_000L, "The time the event waited must be included.");
+
+		paint(panel);
+		assertEquals(before + 1, latency.getCount(), "A press is only recorded by the first paint showing it.");
+	}
+
+	@Test
+	void testMoveThatChangesTheLevelIsNotAnimated() throws InvalidLevelException {
+		Level room = TestLevels.of("W  ");
+		Level next = new Level(5, 5);
+		BoardPanel panel = new BoardPanel(room, null, null);
+		// Stands for a move that completes the level and loads the next one
+		panel.setController(new GameController(room, panel, null) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public int playMoves(Direction[] moves, int count) {
+				int played = super.playMoves(moves, count);
+				panel.setLevel(next);
+				return played;
+			}
+		});
+
+		Action right = panel.getActionMap().get(panel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+				.get(KeyStroke.getKeyStroke("RIGHT")));
+		right.actionPerformed(new ActionEvent(panel, ActionEvent.ACTION_PERFORMED, "",
+				System.currentTimeMillis(), 0));
+		assertSame(next, panel.getLevel());
+		assertFalse(panel.isMoveAnimating(), "No slide may start on the next level.");
+	}
+
+	@Test
+	void testPaintsFeedTheOverlayFrameRate() {
+		BoardPanel panel = new BoardPanel(TestLevels.of("W *"), null, null);
+		panel.setSize(panel.getPreferredSize());
+		AssetManager.getInstance().awaitAtlas();
+		paint(panel);
+		paint(panel);
+		paint(panel);
+		assertEquals(2, panel.getPaintIntervals().getFrameCount());
+		assertTrue(panel.getPaintIntervals().getFps() > 0);
+		assertEquals(0, panel.getFrameStats().getFrameCount(), "Only the animation timer feeds the frame times.");
+	}
+
+	private int[] paint(BoardPanel panel) {
+		BufferedImage image = new BufferedImage(panel.getWidth(), panel.getHeight(), BufferedImage.TYPE_INT_RGB);
+		Graphics2D g2d = image.createGraphics();
+		panel.paint(g2d);
+		g2d.dispose();
+		return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+	}
+
 }
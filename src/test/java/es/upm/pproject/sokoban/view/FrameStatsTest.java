@@ -0,0 +1,43 @@
+package es.upm.pproject.sokoban.view;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class FrameStatsTest {
+
+    @Test
+    void testAverageMaxAndFps() {
+        FrameStats stats = new FrameStats();
+        assertEquals(0, stats.getFps());
+
+        stats.record(10_000_000L);
+        stats.record(20_000_000L);
+        assertEquals(2, stats.getFrameCount());
+        assertEquals(15, stats.getAverageMillis(), 1e-9);
+        assertEquals(20, stats.getMaxMillis(), 1e-9);
+        assertEquals(20, stats.getLastMillis(), 1e-9);
+        assertEquals(1000.0 / 15, stats.getFps(), 1e-6);
+
+        stats.reset();
+        assertEquals(0, stats.getFrameCount());
+    }
+
+    @Test
+    void testFpsFollowsTheRecentFrames() {
+        FrameStats stats = new FrameStats();
+        for (int i = 0; i < 10_000; i++) {
+            stats.record(10_000_000L);
+        }
+        assertEquals(100, stats.getFps(), 1e-6);
+        for (int i = 0; i < FrameStats.WINDOW; i++) {
+            stats.record(40_000_000L);
+        }
+        assertEquals(25, stats.getFps(), 1e-6, "A stutter must show at once after a long session.");
+        assertTrue(stats.getAverageFps() > 90, "The lifetime rate is still available.");
+        assertTrue(stats.toString().contains(String.format("%.1f fps", stats.getAverageFps())));
+
+        stats.reset();
+        assertEquals(0, stats.getFps());
+    }
+}
@@ -6,10 +6,13 @@ import es.upm.pproject.sokoban.model.Level;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import javax.swing.*;
 import java.awt.*;
 import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assumptions.assumeFalse;
@@ -18,6 +21,9 @@ class GameFrameTest {
 
     private GameFrame gameFrame;
 
+    @TempDir
+    Path home;
+
     @BeforeAll
     public static void setupHeadlessMode() {
         System.setProperty("java.awt.headless", "true");
@@ -26,7 +32,7 @@ class GameFrameTest {
     @BeforeEach
     public void setUp() throws InvalidLevelException {
         assumeFalse(GraphicsEnvironment.isHeadless(), "Skipping GUI test in headless environment");
-        gameFrame = new GameFrame();
+        gameFrame = new GameFrame(home);
     }
 
     @Test
@@ -88,4 +94,11 @@ class GameFrameTest {
         method.invoke(gameFrame);
         assertFalse(gameFrame.isDisplayable(), "GameFrame should be disposed when no next level exists.");
     }
+
+    @Test
+    void testDisposeWritesPendingQuickSaves() {
+        gameFrame.quickSave(0);
+        gameFrame.dispose();
+        assertTrue(Files.exists(home.resolve("quicksave-1.bin")), "A quick-save must reach the disk on close.");
+    }
 }
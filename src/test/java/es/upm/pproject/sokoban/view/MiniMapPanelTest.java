@@ -0,0 +1,47 @@
+package es.upm.pproject.sokoban.view;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import es.upm.pproject.sokoban.model.Box;
+import es.upm.pproject.sokoban.model.FloorTile;
+import es.upm.pproject.sokoban.model.Level;
+import es.upm.pproject.sokoban.model.TestLevels;
+
+class MiniMapPanelTest {
+
+    @BeforeAll
+    public static void setupHeadlessMode() {
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    private static Level room(int width, int height) {
+        return TestLevels.walledRoom(width, height, 1, 1);
+    }
+
+    @Test
+    void testShownOnlyForLevelsLargerThanTheView() {
+        MiniMapPanel small = new MiniMapPanel(new BoardPanel(room(6, 5), null, null));
+        assertFalse(small.isVisible());
+
+        MiniMapPanel large = new MiniMapPanel(new BoardPanel(room(200, 120), null, null));
+        assertTrue(large.isVisible());
+        assertTrue(large.getPreferredSize().width <= MiniMapPanel.MAX_SIZE + 10);
+    }
+
+    @Test
+    void testChangedCellsAreRedrawn() {
+        Level level = room(40, 30);
+        BoardPanel board = new BoardPanel(level, null, null);
+        MiniMapPanel miniMap = new MiniMapPanel(board);
+        assertEquals(MiniMapPanel.WALL, miniMap.getCellColor(0, 0));
+        assertEquals(MiniMapPanel.PLAYER, miniMap.getCellColor(1, 1));
+
+        ((FloorTile) level.getTile(2, 2)).setEntity(new Box());
+        assertEquals(MiniMapPanel.FLOOR, miniMap.getCellColor(2, 2), "Cells are only redrawn when repainted.");
+        board.repaintCells(2, 2, 2, 2);
+        assertEquals(MiniMapPanel.BOX, miniMap.getCellColor(2, 2));
+    }
+}
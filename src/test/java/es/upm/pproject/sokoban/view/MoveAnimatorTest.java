@@ -0,0 +1,58 @@
+package es.upm.pproject.sokoban.view;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class MoveAnimatorTest {
+
+    private static int stepsToFinish(MoveAnimator animator) {
+        int steps = 0;
+        while (animator.isRunning()) {
+            animator.update();
+            steps++;
+        }
+        return steps;
+    }
+
+    @Test
+    void testSlideTakesTheMoveDuration() {
+        MoveAnimator animator = new MoveAnimator();
+        assertFalse(animator.isRunning());
+
+        animator.start(0, 1, -1, -1, 0);
+        assertTrue(animator.isRunning());
+        assertEquals(0, animator.interpolate(0.5), 1e-9);
+
+        long expected = MoveAnimator.MOVE_NANOS / MoveAnimator.STEP_NANOS;
+        int steps = stepsToFinish(animator);
+        assertTrue(Math.abs(steps - expected) <= 2, "Took " + steps + " steps, expected about " + expected);
+        assertEquals(1, animator.interpolate(0.5), 1e-9);
+    }
+
+    @Test
+    void testBacklogSpeedsUpTheSlide() {
+        MoveAnimator animator = new MoveAnimator();
+        animator.start(0, 1, 1, 2, 0);
+        int normal = stepsToFinish(animator);
+        animator.start(0, 1, 1, 2, 3);
+        int hurried = stepsToFinish(animator);
+
+        assertTrue(hurried * 3 <= normal, "Three waiting moves should make the slide about four times faster.");
+    }
+
+    @Test
+    void testInterpolatesBetweenSteps() {
+        MoveAnimator animator = new MoveAnimator();
+        animator.start(5, 6, -1, -1, 0);
+        animator.update();
+        animator.update();
+        double before = animator.interpolate(0);
+        double after = animator.interpolate(1);
+
+        assertTrue(before < after);
+        assertEquals((before + after) / 2, animator.interpolate(0.5), 1e-9);
+        animator.finish();
+        assertFalse(animator.isRunning());
+    }
+}
@@ -0,0 +1,79 @@
+package es.upm.pproject.sokoban.view;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.MultiResolutionImage;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class SpriteCacheTest {
+
+    @BeforeAll
+    public static void setupHeadlessMode() {
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    private SpriteCache createCache() {
+        BufferedImage large = new BufferedImage(1000, 800, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage[] floors = { new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB) };
+        return new SpriteCache(large, floors, large, null, large);
+    }
+
+    @Test
+    void testSpritesAreScaledToTileSize() {
+        SpriteCache cache = createCache();
+        cache.setTileSize(64);
+
+        assertEquals(64, cache.getTileSize());
+        assertEquals(64, cache.getBox().getWidth(null));
+        assertEquals(64, cache.getBox().getHeight(null));
+        assertEquals(64, cache.getFloor(0).getWidth(null), "Small images should be scaled up too.");
+        assertNull(cache.getPlayer(), "Missing images give null sprites.");
+    }
+
+    @Test
+    void testRebuiltOnlyWhenTileSizeChanges() {
+        SpriteCache cache = createCache();
+        cache.setTileSize(64);
+        Image box = cache.getBox();
+
+        cache.setTileSize(64);
+        assertSame(box, cache.getBox());
+
+        cache.setTileSize(32);
+        assertNotSame(box, cache.getBox());
+        assertEquals(32, cache.getBox().getWidth(null));
+    }
+
+    @Test
+    void testRecentSizesAreKept() {
+        SpriteCache cache = createCache();
+        cache.setTileSize(64);
+        Image box = cache.getBox();
+        cache.setTileSize(32);
+        cache.setTileSize(64);
+        assertSame(box, cache.getBox(), "Zooming back must reuse the sprites.");
+
+        cache.setTileSize(16);
+        cache.setTileSize(24);
+        cache.setTileSize(48);
+        assertEquals(SpriteCache.MAX_SETS, cache.getCachedSetCount());
+        cache.setTileSize(64);
+        assertNotSame(box, cache.getBox(), "Least recently used sizes are dropped.");
+    }
+
+    @Test
+    void testScaledScreensGetHighResolutionVariants() {
+        SpriteCache cache = createCache();
+        cache.setTileSize(64, 2.0);
+
+        Image box = cache.getBox();
+        assertTrue(box instanceof MultiResolutionImage);
+        assertEquals(64, box.getWidth(null), "The sprite keeps its logical size.");
+        Image variant = ((MultiResolutionImage) box).getResolutionVariant(128, 128);
+        assertEquals(128, variant.getWidth(null));
+    }
+}